@@ -0,0 +1,18 @@
+package com.inventory.inventory_backend.benchmark;
+
+import com.inventory.inventory_backend.InventoryBackendApplication;
+import com.inventory.inventory_backend.JpaTestConfiguration;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+// The whole application without InventoryBackendApplication, whose startup runner expects a seeded MySQL database
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@AutoConfigurationPackage(basePackageClasses = InventoryBackendApplication.class)
+@ComponentScan(basePackageClasses = InventoryBackendApplication.class, excludeFilters = @ComponentScan.Filter(
+        type = FilterType.ASSIGNABLE_TYPE, classes = {InventoryBackendApplication.class, JpaTestConfiguration.class}))
+public class BenchmarkApplication {
+}
@@ -0,0 +1,60 @@
+package com.inventory.inventory_backend.benchmark;
+
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.model.ERole;
+import com.inventory.inventory_backend.model.Product;
+import com.inventory.inventory_backend.model.User;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic catalog data shared by the benchmarks
+final class BenchmarkFixtures {
+
+    static final String[] WORDS = {"laptop", "mouse", "keyboard", "monitor", "cable", "wireless",
+            "mechanical", "usb", "charger", "adapter", "stand", "headset", "speaker", "camera", "dock"};
+
+    private BenchmarkFixtures() {
+    }
+
+    static User user() {
+        return User.builder()
+                .id(1L).username("bench").email("bench@example.com").password("x").role(ERole.ROLE_USER)
+                .build();
+    }
+
+    static List<Product> products(User user, int count) {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            products.add(Product.builder()
+                    .id((long) i + 1)
+                    .name(name(random, i))
+                    .description(description(random))
+                    .quantity(random.nextInt(100))
+                    .price(BigDecimal.valueOf(random.nextInt(100_000), 2))
+                    .imageName(i % 3 == 0 ? "default.png" : "3f2a" + i + ".jpg")
+                    .user(user)
+                    .build());
+        }
+        return products;
+    }
+
+    static List<ProductView> views(int count) {
+        User user = user();
+        return products(user, count).stream()
+                .map(product -> ProductView.of(product, user.getUsername()))
+                .toList();
+    }
+
+    static String name(Random random, int index) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + index;
+    }
+
+    static String description(Random random) {
+        return WORDS[random.nextInt(WORDS.length)] + " for " + WORDS[random.nextInt(WORDS.length)];
+    }
+}
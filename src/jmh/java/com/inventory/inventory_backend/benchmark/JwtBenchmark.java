@@ -0,0 +1,55 @@
+package com.inventory.inventory_backend.benchmark;
+
+import com.inventory.inventory_backend.model.ERole;
+import com.inventory.inventory_backend.model.User;
+import com.inventory.inventory_backend.security.JwtUtils;
+import com.inventory.inventory_backend.security.TokenDenylist;
+import com.inventory.inventory_backend.security.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Token issuing on login and the signature check JwtAuthFilter runs on every request,
+// plus building the principal from compact claims (what replaces the principal lookup)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtils jwtUtils;
+    private String token;
+    private String compactToken;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils(new TokenDenylist(Duration.ofDays(1), 100_000), Duration.ofDays(1), true);
+        token = jwtUtils.generateToken("bench@example.com");
+        compactToken = jwtUtils.generateToken(User.builder()
+                .id(1L).username("bench").email("bench@example.com").role(ERole.ROLE_USER).build());
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken("bench@example.com");
+    }
+
+    @Benchmark
+    public Claims parseClaims() {
+        return jwtUtils.parseClaims(token);
+    }
+
+    @Benchmark
+    public UserDetailsImpl principalFromCompactToken() {
+        return jwtUtils.principalFromClaims(jwtUtils.parseClaims(compactToken));
+    }
+
+    @Benchmark
+    public boolean validateInvalidToken() {
+        return jwtUtils.validateJwt(token + "x");
+    }
+}
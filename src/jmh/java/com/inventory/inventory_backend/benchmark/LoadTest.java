@@ -0,0 +1,324 @@
+package com.inventory.inventory_backend.benchmark;
+
+import com.inventory.inventory_backend.model.ERole;
+import com.inventory.inventory_backend.model.User;
+import com.inventory.inventory_backend.repository.UserRepository;
+import com.inventory.inventory_backend.security.JwtUtils;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Mixed traffic load test comparing platform and virtual thread request handling: slow clients uploading
+// product images while other clients page through listings. Each mode runs the whole application on H2.
+// Run with: mvn -Pbenchmark test-compile exec:exec@loadtest [-Dloadtest.args="duration=30 uploaders=128"]
+// Virtual threads need Java 21+ (-Dbenchmark.java=/path/to/jdk21/bin/java).
+// Prints one JSON line per mode and request type and writes them to target/loadtest-result.json.
+public class LoadTest {
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "modes", "platform,virtual",
+            "duration", "20",           // measured seconds per mode, after 'warmup'
+            "warmup", "5",
+            "listers", "32",            // clients paging through GET /api/products/page
+            "uploaders", "64",          // clients creating products with an image
+            "upload-kb", "256",
+            "upload-kbps", "512",       // per uploader, slow mobile clients
+            "tomcat-threads", "32",     // platform mode pool size, unused by virtual threads
+            "products", "1000");
+
+    private final Map<String, String> options;
+    private final byte[] image;
+
+    private LoadTest(Map<String, String> options) throws IOException {
+        this.options = options;
+        this.image = randomPng(intOption("upload-kb") * 1024);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+
+        LoadTest loadTest = new LoadTest(options);
+        List<String> results = new ArrayList<>();
+
+        for (String mode : options.get("modes").split(",")) {
+            results.addAll(loadTest.run(mode.trim()));
+        }
+
+        Path output = Paths.get("target", "loadtest-result.json");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, "[\n" + String.join(",\n", results) + "\n]\n");
+        System.out.println("Load test results saved to " + output.toAbsolutePath());
+        System.exit(0);
+    }
+
+    private List<String> run(String mode) throws Exception {
+        boolean virtual = mode.equals("virtual");
+        boolean virtualAvailable = Runtime.version().feature() >= 21;
+        if (virtual && !virtualAvailable) {
+            System.err.println("Java " + Runtime.version().feature() + " has no virtual threads, 'virtual' runs on platform threads");
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--server.tomcat.threads.max=" + options.get("tomcat-threads"),
+                "--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--inventory.images.upload-dir=target/loadtest-uploads-" + mode,
+                "--logging.level.root=WARN");
+
+        try {
+            User user = context.getBean(UserRepository.class).save(User.builder()
+                    .username("load").email("load@example.com").password("x").role(ERole.ROLE_USER).build());
+            insertProducts(context.getBean(JdbcTemplate.class), user.getId(), intOption("products"));
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            String token = context.getBean(JwtUtils.class).generateToken(user);
+
+            return measure(mode, virtual && virtualAvailable, baseUrl, token);
+        } finally {
+            context.close();
+        }
+    }
+
+    private List<String> measure(String mode, boolean virtualThreads, String baseUrl, String token) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        int listers = intOption("listers");
+        int uploaders = intOption("uploaders");
+
+        AtomicBoolean recording = new AtomicBoolean(false);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Recorder> listing = new ArrayList<>();
+        List<Recorder> upload = new ArrayList<>();
+        ExecutorService clients = Executors.newFixedThreadPool(listers + uploaders);
+
+        HttpRequest listRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/page?size=50"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+
+        for (int i = 0; i < listers; i++) {
+            Recorder recorder = new Recorder();
+            listing.add(recorder);
+            clients.submit(() -> loop(running, recording, recorder, () -> client.send(listRequest, HttpResponse.BodyHandlers.discarding())));
+        }
+
+        for (int i = 0; i < uploaders; i++) {
+            Recorder recorder = new Recorder();
+            upload.add(recorder);
+            clients.submit(() -> loop(running, recording, recorder, () -> client.send(uploadRequest(baseUrl, token), HttpResponse.BodyHandlers.discarding())));
+        }
+
+        Thread.sleep(intOption("warmup") * 1000L);
+        recording.set(true);
+        long start = System.nanoTime();
+        Thread.sleep(intOption("duration") * 1000L);
+        recording.set(false);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        running.set(false);
+        clients.shutdownNow();
+        clients.awaitTermination(30, TimeUnit.SECONDS);
+
+        List<String> results = List.of(
+                result(mode, virtualThreads, "listing", listing, seconds),
+                result(mode, virtualThreads, "upload", upload, seconds));
+        results.forEach(System.out::println);
+        return results;
+    }
+
+    private interface Call {
+        HttpResponse<?> send() throws Exception;
+    }
+
+    private static void loop(AtomicBoolean running, AtomicBoolean recording, Recorder recorder, Call call) {
+        while (running.get()) {
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                ok = call.send().statusCode() < 400;
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                ok = false;
+            }
+
+            if (recording.get()) {
+                recorder.record(System.nanoTime() - start, ok);
+            }
+        }
+    }
+
+    private HttpRequest uploadRequest(String baseUrl, String token) {
+        String boundary = "loadtest" + ThreadLocalRandom.current().nextLong(Long.MAX_VALUE);
+        String fields = field(boundary, "name", "Load test product")
+                + field(boundary, "quantity", "1")
+                + field(boundary, "price", "9.99")
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"image\"; filename=\"load.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n";
+        byte[] head = fields.getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        int bytesPerSecond = intOption("upload-kbps") * 1024;
+
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/products"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new SequenceInputStream(Collections.enumeration(List.of(
+                        new ThrottledInputStream(head, Integer.MAX_VALUE),
+                        new ThrottledInputStream(image, bytesPerSecond),
+                        new ThrottledInputStream(tail, Integer.MAX_VALUE))))))
+                .build();
+    }
+
+    private static String field(String boundary, String name, String value) {
+        return "--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n";
+    }
+
+    private static String result(String mode, boolean virtualThreads, String type, List<Recorder> recorders, double seconds) {
+        long[] latencies = recorders.stream().flatMapToLong(Recorder::latencies).sorted().toArray();
+        long errors = recorders.stream().mapToLong(recorder -> recorder.errors).sum();
+
+        return String.format(Locale.ROOT,
+                "{\"mode\":\"%s\",\"virtual_threads\":%b,\"type\":\"%s\",\"requests\":%d,\"errors\":%d,"
+                        + "\"throughput_rps\":%.1f,\"p50_ms\":%.2f,\"p90_ms\":%.2f,\"p99_ms\":%.2f,\"p999_ms\":%.2f,\"max_ms\":%.2f}",
+                mode, virtualThreads, type, latencies.length, errors, latencies.length / seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), percentile(latencies, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static void insertProducts(JdbcTemplate jdbcTemplate, Long userId, int count) {
+        Random random = new Random(42);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{BenchmarkFixtures.name(random, i), BenchmarkFixtures.description(random),
+                    random.nextInt(100), random.nextInt(1000), "default.png", userId, now});
+        }
+
+        jdbcTemplate.batchUpdate("insert into products (name, description, quantity, price, image_name, user_id, updated_at, version) " +
+                "values (?, ?, ?, ?, ?, ?, ?, 0)", rows);
+    }
+
+    // Noise compresses badly, so the PNG ends up close to the requested size
+    private static byte[] randomPng(int targetBytes) throws IOException {
+        int side = Math.max(16, (int) Math.sqrt(targetBytes / 3.0));
+        BufferedImage image = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(7);
+
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+
+    private int intOption(String name) {
+        return Integer.parseInt(options.get(name));
+    }
+
+    // Per client thread, merged after the run
+    private static final class Recorder {
+        private long[] values = new long[1024];
+        private int size;
+        private long errors;
+
+        void record(long nanos, boolean ok) {
+            if (!ok) {
+                errors++;
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        java.util.stream.LongStream latencies() {
+            return Arrays.stream(values, 0, size);
+        }
+    }
+
+    // Hands out 'data' at roughly 'bytesPerSecond', in 8 KB steps
+    private static final class ThrottledInputStream extends InputStream {
+        private static final int STEP = 8 * 1024;
+
+        private final byte[] data;
+        private final int bytesPerSecond;
+        private int position;
+
+        ThrottledInputStream(byte[] data, int bytesPerSecond) {
+            this.data = data;
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (position >= data.length) {
+                return -1;
+            }
+
+            int count = Math.min(Math.min(length, STEP), data.length - position);
+            if (bytesPerSecond != Integer.MAX_VALUE) {
+                try {
+                    Thread.sleep(Math.max(1, count * 1000L / bytesPerSecond));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted upload", e);
+                }
+            }
+
+            System.arraycopy(data, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+    }
+}
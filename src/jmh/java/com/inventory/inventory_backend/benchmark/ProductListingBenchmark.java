@@ -0,0 +1,111 @@
+package com.inventory.inventory_backend.benchmark;
+
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.model.ERole;
+import com.inventory.inventory_backend.model.User;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import com.inventory.inventory_backend.repository.UserRepository;
+import com.inventory.inventory_backend.security.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Repository queries and GET /api/products end to end (security filter, query, mapping, JSON, HTTP)
+// against the real application running on an embedded H2 database
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductListingBenchmark {
+
+    @Param({"100", "5000"})
+    private int products;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private HttpClient httpClient;
+    private HttpRequest listRequest;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        // Passed as command line arguments so they override application.properties
+        context = new SpringApplicationBuilder(BenchmarkApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + products + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--inventory.search.enabled=false",
+                "--inventory.images.upload-dir=target/benchmark-uploads",
+                "--logging.level.root=WARN");
+
+        productRepository = context.getBean(ProductRepository.class);
+        User user = context.getBean(UserRepository.class).save(User.builder()
+                .username("bench").email("bench@example.com").password("x").role(ERole.ROLE_USER).build());
+        userId = user.getId();
+        insertProducts(context.getBean(JdbcTemplate.class));
+
+        String token = context.getBean(JwtUtils.class).generateToken(user);
+        String port = context.getEnvironment().getProperty("local.server.port");
+        httpClient = HttpClient.newHttpClient();
+        listRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductView> repositoryFindAllViews() {
+        return productRepository.findViewsByUserId(userId);
+    }
+
+    @Benchmark
+    public List<ProductView> repositoryKeysetPage() {
+        return productRepository.findViewsByUserIdAfter(userId, 0L, Limit.of(50));
+    }
+
+    @Benchmark
+    public byte[] httpListProducts() throws Exception {
+        HttpResponse<byte[]> response = httpClient.send(listRequest, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /api/products returned " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private void insertProducts(JdbcTemplate jdbcTemplate) {
+        Random random = new Random(42);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(products);
+
+        for (int i = 0; i < products; i++) {
+            rows.add(new Object[]{BenchmarkFixtures.name(random, i), BenchmarkFixtures.description(random),
+                    random.nextInt(100), random.nextInt(1000), "default.png", userId, now});
+        }
+
+        jdbcTemplate.batchUpdate("insert into products (name, description, quantity, price, image_name, user_id, updated_at, version) " +
+                "values (?, ?, ?, ?, ?, ?, ?, 0)", rows);
+    }
+}
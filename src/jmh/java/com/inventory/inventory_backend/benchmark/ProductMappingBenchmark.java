@@ -0,0 +1,43 @@
+package com.inventory.inventory_backend.benchmark;
+
+import com.inventory.inventory_backend.dto.ProductResponse;
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.model.Product;
+import com.inventory.inventory_backend.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Entity/view to DTO mapping of a whole listing, as done by GET /api/products
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    @Param({"100", "10000"})
+    private int products;
+
+    private List<Product> entities;
+    private List<ProductView> views;
+
+    @Setup
+    public void setUp() {
+        User user = BenchmarkFixtures.user();
+        entities = BenchmarkFixtures.products(user, products);
+        views = BenchmarkFixtures.views(products);
+    }
+
+    @Benchmark
+    public List<ProductResponse> fromEntities() {
+        return entities.stream().map(ProductResponse::new).toList();
+    }
+
+    @Benchmark
+    public List<ProductResponse> fromViews() {
+        return views.stream().map(ProductResponse::new).toList();
+    }
+}
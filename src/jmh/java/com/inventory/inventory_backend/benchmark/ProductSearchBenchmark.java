@@ -0,0 +1,95 @@
+package com.inventory.inventory_backend.benchmark;
+
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.model.ERole;
+import com.inventory.inventory_backend.model.User;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import com.inventory.inventory_backend.repository.UserRepository;
+import com.inventory.inventory_backend.search.ProductSearchIndex;
+import com.inventory.inventory_backend.search.ProductSearchResult;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// The in-memory search index against the name LIKE '%keyword%' query of the listing, over one user's catalog
+// on an embedded H2 database. Single-word queries, so both find the same products.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    @Param({"5000", "50000"})
+    private int products;
+
+    @Param({"lap", "wireless", "dock"})
+    private String query;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private ProductSearchIndex index;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        // The application's own index is off, the one below is built once the products are in
+        context = new SpringApplicationBuilder(BenchmarkApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:search-benchmark-" + products + "-" + query + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--inventory.search.enabled=false",
+                "--inventory.images.upload-dir=target/benchmark-uploads",
+                "--logging.level.root=WARN");
+
+        productRepository = context.getBean(ProductRepository.class);
+        userId = context.getBean(UserRepository.class).save(User.builder()
+                .username("bench").email("bench@example.com").password("x").role(ERole.ROLE_USER).build()).getId();
+        insertProducts(context.getBean(JdbcTemplate.class));
+
+        index = new ProductSearchIndex(productRepository, true, 1000);
+        index.rebuild();
+    }
+
+    @TearDown
+    public void tearDown() {
+        index.shutdown();
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductView> nameLike() {
+        return productRepository.findViewsByUserIdAndNameLike(userId, "%" + query + "%");
+    }
+
+    @Benchmark
+    public ProductSearchResult searchIndex() {
+        return index.search(userId, query, 0, 50);
+    }
+
+    private void insertProducts(JdbcTemplate jdbcTemplate) {
+        Random random = new Random(42);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(products);
+
+        for (int i = 0; i < products; i++) {
+            rows.add(new Object[]{BenchmarkFixtures.name(random, i), BenchmarkFixtures.description(random),
+                    random.nextInt(100), random.nextInt(1000), "default.png", userId, now});
+        }
+
+        jdbcTemplate.batchUpdate("insert into products (name, description, quantity, price, image_name, user_id, updated_at, version) " +
+                "values (?, ?, ?, ?, ?, ?, ?, 0)", rows);
+    }
+}
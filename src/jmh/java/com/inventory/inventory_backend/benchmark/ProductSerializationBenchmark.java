@@ -0,0 +1,35 @@
+package com.inventory.inventory_backend.benchmark;
+
+import com.inventory.inventory_backend.dto.ProductResponse;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON serialization of large product listings
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int products;
+
+    private JsonMapper jsonMapper;
+    private List<ProductResponse> listing;
+
+    @Setup
+    public void setUp() {
+        jsonMapper = JsonMapper.builder().build();
+        listing = BenchmarkFixtures.views(products).stream().map(ProductResponse::new).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeListing() {
+        return jsonMapper.writeValueAsBytes(listing);
+    }
+}
@@ -0,0 +1,105 @@
+package com.inventory.inventory_backend.cache;
+
+import com.inventory.inventory_backend.dto.ProductView;
+
+import java.util.*;
+
+// Immutable snapshot of one user's products in id order. Changes create a patched copy, so readers
+// never see a half-applied change and the ETag is computed once per version of the list.
+public final class CachedListing {
+
+    private final List<ProductView> products;
+
+    // Ids deleted since the snapshot was loaded, a late update event must not bring them back
+    private final Set<Long> deletedIds;
+
+    private final String etag;
+
+    private CachedListing(List<ProductView> products, Set<Long> deletedIds) {
+        this.products = products;
+        this.deletedIds = deletedIds;
+        this.etag = etag(products);
+    }
+
+    static CachedListing of(List<ProductView> products) {
+        return new CachedListing(List.copyOf(products), Set.of());
+    }
+
+    public List<ProductView> getProducts() {
+        return products;
+    }
+
+    // Derived from ids and row versions only, identical on every node holding the same rows
+    public String getEtag() {
+        return etag;
+    }
+
+    // Weight for the cache size bound, roughly the number of objects held
+    int weight() {
+        return products.size() + deletedIds.size() + 1;
+    }
+
+    // Inserts or replaces the product, ignored when the event is older than the cached row
+    CachedListing upsert(ProductView product) {
+        if (deletedIds.contains(product.getId())) {
+            return this;
+        }
+
+        int index = indexOf(product.getId());
+        List<ProductView> patched = new ArrayList<>(products.size() + 1);
+        patched.addAll(products);
+
+        if (index >= 0) {
+            if (products.get(index).getVersion() > product.getVersion()) {
+                return this;
+            }
+            patched.set(index, product);
+        } else {
+            patched.add(-index - 1, product);
+        }
+        return new CachedListing(Collections.unmodifiableList(patched), deletedIds);
+    }
+
+    CachedListing remove(Long productId) {
+        Set<Long> deleted = new HashSet<>(deletedIds);
+        deleted.add(productId);
+
+        int index = indexOf(productId);
+        List<ProductView> patched = products;
+        if (index >= 0) {
+            patched = new ArrayList<>(products);
+            patched.remove(index);
+            patched = Collections.unmodifiableList(patched);
+        }
+        return new CachedListing(patched, Collections.unmodifiableSet(deleted));
+    }
+
+    private int indexOf(Long productId) {
+        int low = 0;
+        int high = products.size() - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = products.get(mid).getId().compareTo(productId);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static String etag(List<ProductView> products) {
+        long hash = 17;
+        for (ProductView product : products) {
+            hash = hash * 31 + product.getId();
+            hash = hash * 31 + product.getVersion();
+        }
+
+        long maxId = products.isEmpty() ? 0 : products.get(products.size() - 1).getId();
+        return "c" + products.size() + "-" + maxId + "-" + Long.toHexString(hash);
+    }
+}
@@ -0,0 +1,22 @@
+package com.inventory.inventory_backend.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Delivers messages synchronously to the caches of the same JVM. The default for a single node,
+// and lets tests run several caches as separate nodes on one bus.
+public class InProcessInvalidationBus implements ProductCacheInvalidationBus {
+
+    private final List<Consumer<InvalidationMessage>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        listeners.forEach(listener -> listener.accept(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationMessage> listener) {
+        listeners.add(listener);
+    }
+}
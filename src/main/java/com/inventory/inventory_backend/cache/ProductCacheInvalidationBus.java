@@ -0,0 +1,16 @@
+package com.inventory.inventory_backend.cache;
+
+import java.util.function.Consumer;
+
+// Tells the other nodes that a user's products changed so they drop their cached listing.
+// Each node patches its own cache from ProductChangedEvent, so subscribers skip messages of their own node.
+// Multi-node deployments declare a bean backed by their broker (Redis pub/sub, JMS...).
+public interface ProductCacheInvalidationBus {
+
+    void publish(InvalidationMessage message);
+
+    void subscribe(Consumer<InvalidationMessage> listener);
+
+    record InvalidationMessage(String originNode, Long userId) {
+    }
+}
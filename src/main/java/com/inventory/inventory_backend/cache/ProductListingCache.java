@@ -0,0 +1,115 @@
+package com.inventory.inventory_backend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Read-through cache of each user's product listing, bounded by the total number of cached products
+// (Caffeine's W-TinyLFU eviction). Writes patch the cached copy in place from ProductChangedEvent,
+// and other nodes are told to drop theirs through the ProductCacheInvalidationBus.
+@Component
+public class ProductListingCache {
+
+    private static final int CHANGE_STRIPES = 64;
+
+    private final ProductRepository productRepository;
+    private final ProductCacheInvalidationBus invalidationBus;
+    private final boolean enabled;
+    private final Cache<Long, CachedListing> cache;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Changes per user stripe, a listing loaded while its user changed is not kept (see get())
+    private final AtomicLongArray changes = new AtomicLongArray(CHANGE_STRIPES);
+
+    public ProductListingCache(ProductRepository productRepository,
+                               ObjectProvider<ProductCacheInvalidationBus> invalidationBus,
+                               MeterRegistry meterRegistry,
+                               @Value("${inventory.products.cache.enabled:true}") boolean enabled,
+                               @Value("${inventory.products.cache.max-products:500000}") long maxProducts,
+                               @Value("${inventory.products.cache.expire-after-access:30m}") Duration expireAfterAccess) {
+        this.productRepository = productRepository;
+        this.invalidationBus = invalidationBus.getIfAvailable(InProcessInvalidationBus::new);
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxProducts)
+                .weigher((Long userId, CachedListing listing) -> listing.weight())
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+
+        // Hit rate as cache_gets_total{cache="product_listings"} on /metrics
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "product_listings");
+
+        this.invalidationBus.subscribe(message -> {
+            if (!nodeId.equals(message.originNode())) {
+                invalidateUser(message.userId());
+            }
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CachedListing get(Long userId) {
+        CachedListing listing = cache.getIfPresent(userId);
+        if (listing != null) {
+            return listing;
+        }
+
+        // Loaded outside the cache's compute lock, see PrincipalCache
+        long seen = changes.get(stripe(userId));
+        listing = CachedListing.of(productRepository.findViewsByUserId(userId));
+        cache.put(userId, listing);
+
+        // A change during the load had no entry to patch, the loaded rows may miss it
+        if (changes.get(stripe(userId)) != seen) {
+            cache.asMap().remove(userId, listing);
+        }
+        return listing;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        Long userId = event.getUserId();
+        changes.incrementAndGet(stripe(userId));
+
+        switch (event.getType()) {
+            case CREATED, UPDATED -> cache.asMap().computeIfPresent(userId, (id, listing) -> listing.upsert(event.getAfter()));
+            case DELETED -> cache.asMap().computeIfPresent(userId, (id, listing) -> listing.remove(event.getProductId()));
+            case BULK_CHANGED -> cache.invalidate(userId);
+        }
+
+        invalidationBus.publish(new ProductCacheInvalidationBus.InvalidationMessage(nodeId, userId));
+    }
+
+    // e.g. the username shown on every product changed
+    public void invalidateUser(Long userId) {
+        changes.incrementAndGet(stripe(userId));
+        cache.invalidate(userId);
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    private static int stripe(Long userId) {
+        return (int) (userId & (CHANGE_STRIPES - 1));
+    }
+}
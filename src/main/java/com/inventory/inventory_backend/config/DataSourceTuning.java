@@ -0,0 +1,88 @@
+package com.inventory.inventory_backend.config;
+
+import com.inventory.inventory_backend.datasource.ReadReplicas;
+import com.inventory.inventory_backend.metrics.StageMetrics;
+import com.inventory.inventory_backend.metrics.TimedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Sizes the Hikari pool from the core count and wraps the DataSource in TimedDataSource.
+// Pool size = cores * connections-per-core + extra-connections (capped by max-connections), and as many idle
+// connections, i.e. a fixed-size pool. With connections-per-core=0 the spring.datasource.hikari.* values stay.
+// With read replicas configured the result is routed by ReadReplicas, whose pools get the same treatment.
+@Component
+public class DataSourceTuning implements BeanPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceTuning.class);
+
+    // Providers: a post-processor is created before other beans, these are looked up when the DataSource is
+    private final ObjectProvider<StageMetrics> stageMetrics;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<ReadReplicas> readReplicas;
+    private final int connectionsPerCore;
+    private final int extraConnections;
+    private final int maxConnections;
+    private final Duration slowAcquireThreshold;
+
+    public DataSourceTuning(ObjectProvider<StageMetrics> stageMetrics,
+                            ObjectProvider<MeterRegistry> meterRegistry,
+                            ObjectProvider<ReadReplicas> readReplicas,
+                            @Value("${inventory.datasource.pool.connections-per-core:0}") int connectionsPerCore,
+                            @Value("${inventory.datasource.pool.extra-connections:1}") int extraConnections,
+                            @Value("${inventory.datasource.pool.max-connections:50}") int maxConnections,
+                            @Value("${inventory.datasource.slow-acquire-threshold:100ms}") Duration slowAcquireThreshold) {
+        this.stageMetrics = stageMetrics;
+        this.meterRegistry = meterRegistry;
+        this.readReplicas = readReplicas;
+        this.connectionsPerCore = connectionsPerCore;
+        this.extraConnections = extraConnections;
+        this.maxConnections = maxConnections;
+        this.slowAcquireThreshold = slowAcquireThreshold;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof TimedDataSource
+                || bean instanceof LazyConnectionDataSourceProxy) {
+            return bean;
+        }
+
+        DataSource primary = tune(dataSource, beanName);
+
+        ReadReplicas replicas = readReplicas.getIfAvailable();
+        if (replicas == null || !replicas.isEnabled()) {
+            return primary;
+        }
+        return replicas.route(primary, this::tune);
+    }
+
+    private DataSource tune(DataSource dataSource, String name) {
+        if (dataSource instanceof HikariDataSource hikari && connectionsPerCore > 0) {
+            int size = poolSize(Runtime.getRuntime().availableProcessors());
+            hikari.setMaximumPoolSize(size);
+            hikari.setMinimumIdle(size);
+            log.info("Connection pool of '{}' sized to {} connections", name, size);
+        }
+
+        StageMetrics metrics = stageMetrics.getIfAvailable();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (metrics == null || registry == null) {
+            return dataSource;
+        }
+        return new TimedDataSource(dataSource, metrics, registry, slowAcquireThreshold);
+    }
+
+    int poolSize(int cores) {
+        return Math.max(1, Math.min(maxConnections, cores * connectionsPerCore + extraConnections));
+    }
+}
@@ -0,0 +1,39 @@
+package com.inventory.inventory_backend.config;
+
+import com.inventory.inventory_backend.storage.ImageStore;
+import com.inventory.inventory_backend.storage.LocalImageStore;
+import com.inventory.inventory_backend.storage.S3ImageStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Configuration
+public class ImageStoreConfig {
+
+    // 'local' keeps images in the upload directory, 's3' in a bucket shared by all nodes
+    @Bean
+    public ImageStore imageStore(@Value("${inventory.images.store:local}") String store,
+                                 @Value("${inventory.images.upload-dir:uploads/products}") String uploadDir,
+                                 @Value("${inventory.images.s3.endpoint:}") String endpoint,
+                                 @Value("${inventory.images.s3.region:us-east-1}") String region,
+                                 @Value("${inventory.images.s3.bucket:}") String bucket,
+                                 @Value("${inventory.images.s3.key-prefix:}") String keyPrefix,
+                                 @Value("${inventory.images.s3.access-key:}") String accessKey,
+                                 @Value("${inventory.images.s3.secret-key:}") String secretKey,
+                                 @Value("${inventory.images.s3.timeout:10s}") Duration timeout) {
+        return switch (store) {
+            case "local" -> new LocalImageStore(Paths.get(uploadDir));
+            case "s3" -> {
+                if (endpoint.isBlank() || bucket.isBlank()) {
+                    throw new IllegalStateException("inventory.images.s3.endpoint and inventory.images.s3.bucket are required");
+                }
+                yield new S3ImageStore(URI.create(endpoint), region, bucket, keyPrefix, accessKey, secretKey, timeout);
+            }
+            default -> throw new IllegalStateException("Unknown inventory.images.store '" + store + "', expected local or s3");
+        };
+    }
+}
@@ -1,7 +1,10 @@
 package com.inventory.inventory_backend.config;
 
+import com.inventory.inventory_backend.metrics.StageMetrics;
 import com.inventory.inventory_backend.security.JwtUtils;
-import com.inventory.inventory_backend.security.UserDetailServiceImpl;
+import com.inventory.inventory_backend.security.PrincipalCache;
+import com.inventory.inventory_backend.security.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,11 +20,13 @@ import java.io.IOException;
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtUtils jwtUtils;
-    private final UserDetailServiceImpl userDetailService;
+    private final PrincipalCache principalCache;
+    private final StageMetrics stageMetrics;
 
-    public JwtAuthFilter(JwtUtils jwtUtils, UserDetailServiceImpl userDetailService) {
+    public JwtAuthFilter(JwtUtils jwtUtils, PrincipalCache principalCache, StageMetrics stageMetrics) {
         this.jwtUtils = jwtUtils;
-        this.userDetailService = userDetailService;
+        this.principalCache = principalCache;
+        this.stageMetrics = stageMetrics;
     }
 
     @Override
@@ -35,10 +40,17 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
 
-            if (jwtUtils.validateJwt(token)) {
-                String username = jwtUtils.getUsernameFromToken(token);
+            // Parsed once, the claims carry both the validity check and the subject
+            long start = System.nanoTime();
+            Claims claims = jwtUtils.parseClaims(token);
+            stageMetrics.record(StageMetrics.Stage.JWT_PARSE, start);
 
-                var userDetails = userDetailService.loadUserByUsername(username);
+            if (claims != null) {
+                // Compact tokens carry id, name and role, older ones need the principal lookup
+                UserDetailsImpl userDetails = jwtUtils.principalFromClaims(claims);
+                if (userDetails == null) {
+                    userDetails = principalCache.get(claims.getSubject());
+                }
 
                 var authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
@@ -0,0 +1,10 @@
+package com.inventory.inventory_backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables @Scheduled background jobs (stock delta flushing, image cleanup...)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,101 @@
+package com.inventory.inventory_backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+// Reports indexes the product queries rely on that the database doesn't have, e.g. a schema changed by hand
+// or migrations not applied. Any index starting with the expected columns counts, whatever its name.
+@Component
+public class SchemaIndexCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaIndexCheck.class);
+
+    // table -> leading columns of each required index
+    static final Map<String, List<List<String>>> REQUIRED_INDEXES = Map.of(
+            "products", List.of(
+                    List.of("user_id", "id"),           // listing and keyset pages
+                    List.of("user_id", "name"),
+                    List.of("user_id", "name_lower")    // case-insensitive name search
+            ));
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+
+    public SchemaIndexCheck(DataSource dataSource,
+                            @Value("${inventory.schema.index-check.enabled:true}") boolean enabled) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            List<String> missing = findMissing();
+            if (missing.isEmpty()) {
+                log.info("Schema index check passed");
+            }
+            missing.forEach(index -> log.warn("Missing index {}, product queries will scan more rows than needed", index));
+        } catch (SQLException | RuntimeException e) {
+            // Only a report, never stops the startup
+            log.warn("Schema index check failed", e);
+        }
+    }
+
+    // Missing indexes as "table(column, ...)"
+    public List<String> findMissing() throws SQLException {
+        List<String> missing = new ArrayList<>();
+
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+
+            for (Map.Entry<String, List<List<String>>> entry : REQUIRED_INDEXES.entrySet()) {
+                String table = entry.getKey();
+                Collection<List<String>> existing = indexColumns(metaData, connection, table);
+
+                for (List<String> columns : entry.getValue()) {
+                    boolean covered = existing.stream().anyMatch(index ->
+                            index.size() >= columns.size() && index.subList(0, columns.size()).equals(columns));
+                    if (!covered) {
+                        missing.add(table + "(" + String.join(", ", columns) + ")");
+                    }
+                }
+            }
+        }
+        return missing;
+    }
+
+    // Columns of every index on the table, lower-cased and in index order
+    private Collection<List<String>> indexColumns(DatabaseMetaData metaData, Connection connection, String table)
+            throws SQLException {
+        String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        Map<String, SortedMap<Short, String>> indexes = new HashMap<>();
+
+        try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), tableName, false, false)) {
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (indexName != null && column != null) {
+                    indexes.computeIfAbsent(indexName, name -> new TreeMap<>())
+                            .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+
+        return indexes.values().stream().map(columns -> List.copyOf(columns.values())).toList();
+    }
+}
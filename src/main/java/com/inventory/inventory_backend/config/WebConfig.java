@@ -1,15 +1,18 @@
 package com.inventory.inventory_backend.config;
 
+import com.inventory.inventory_backend.metrics.StageMetrics;
+import com.inventory.inventory_backend.metrics.TimedJsonHttpMessageConverter;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.databind.json.JsonMapper;
 
 @Configuration
-public class WebConfig implements WebMvcConfigurer {
+public class WebConfig {
 
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry){
-        registry.addResourceHandler("/uploads/products/**")
-                .addResourceLocations("file:uploads/products/");
+    // Takes the place of the JSON converter Spring Boot would register, with the mapper it configured,
+    // and times serialization
+    @Bean
+    public TimedJsonHttpMessageConverter timedJsonHttpMessageConverter(JsonMapper jsonMapper, StageMetrics stageMetrics){
+        return new TimedJsonHttpMessageConverter(jsonMapper, stageMetrics);
     }
 }
@@ -8,7 +8,11 @@ import com.inventory.inventory_backend.model.ERole;
 import com.inventory.inventory_backend.model.User;
 import com.inventory.inventory_backend.repository.UserRepository;
 import com.inventory.inventory_backend.security.JwtUtils;
+import com.inventory.inventory_backend.security.LoginThrottle;
+import com.inventory.inventory_backend.security.PasswordHashingService;
 import com.inventory.inventory_backend.security.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,7 +20,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -30,15 +33,17 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtil;
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginThrottle loginThrottle;
 
     private static final Logger log = LoggerFactory.getLogger(AuthController.class);
 
-    public AuthController(AuthenticationManager authenticationManager, JwtUtils jwtUtil, UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public AuthController(AuthenticationManager authenticationManager, JwtUtils jwtUtil, UserRepository userRepository, PasswordHashingService passwordHashingService, LoginThrottle loginThrottle) {
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.loginThrottle = loginThrottle;
     }
 
     // @Valid - will do the validation in DTO and throw exception ('MethodArgumentNotValidException')
@@ -60,7 +65,7 @@ public class AuthController {
         User user = new User();
         user.setUsername(username);
         user.setEmail(email);
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setRole(ERole.ROLE_USER);
 
         try{
@@ -76,32 +81,63 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request){
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest){
 
         log.info("Login attempt for email={}", request.getEmail());
 
         String email = request.getEmail();
         String password = request.getPassword();
 
+        // 429 before any database or BCrypt work when this email or client is over its attempt budget
+        loginThrottle.acquire(email, httpRequest.getRemoteAddr());
+
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> {
                     log.warn("Login failed for email={}", request.getEmail());
                     return new FieldValidationException("general", "Invalid credentials");
                 });
 
-        if(!passwordEncoder.matches(password, user.getPassword())){
+        // Runs on the bounded hashing pool, 429 when it is saturated
+        if(!passwordHashingService.matches(password, user.getPassword())){
             log.warn("Login failed for email={}", request.getEmail());
             throw new FieldValidationException("general", "Invalid credentials");
         }
 
+        // Work factor changed since this hash was made, the verified password is hashed again
+        if(passwordHashingService.needsRehash(user.getPassword())){
+            Long userId = user.getId();
+            String oldHash = user.getPassword();
+            passwordHashingService.rehashLater(password,
+                    newHash -> userRepository.replacePasswordHash(userId, oldHash, newHash));
+        }
+
         // Generate JWT
-        String token = jwtUtil.generateToken(user.getEmail());
+        String token = jwtUtil.generateToken(user);
 
         log.info("Login successful for email={}", request.getEmail());
 
         return ResponseEntity.ok(Map.of("token", token));
     }
 
+    // Revokes the presented token until it expires (in-memory, per node)
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(HttpServletRequest httpRequest){
+        String header = httpRequest.getHeader("Authorization");
+
+        Claims claims = null;
+        if(header != null && header.startsWith("Bearer ")){
+            claims = jwtUtil.parseClaims(header.substring(7));
+        }
+        if(claims == null){
+            throw new FieldValidationException("general", "Invalid token");
+        }
+
+        jwtUtil.revoke(claims);
+        log.info("Logout for email={}", claims.getSubject());
+
+        return ResponseEntity.ok("User Logout Successfully");
+    }
+
     @GetMapping("/validate-token")
     public ResponseEntity<?> validateToken(@AuthenticationPrincipal UserDetailsImpl userDetails){
         return ResponseEntity.ok("User is validate");
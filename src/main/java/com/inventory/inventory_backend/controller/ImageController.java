@@ -0,0 +1,190 @@
+package com.inventory.inventory_backend.controller;
+
+import com.inventory.inventory_backend.metrics.StageMetrics;
+import com.inventory.inventory_backend.storage.ImageStorageService;
+import com.inventory.inventory_backend.storage.ImageStore;
+import com.inventory.inventory_backend.storage.ImageVariantService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+// Serves images from the ImageStore, whole or a single byte range. Files of the local store are sent by Tomcat
+// straight from the file (sendfile), other stores stream through the node.
+@RestController
+@RequestMapping("/uploads/products")
+@CrossOrigin("http://localhost:5173")
+public class ImageController {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private StageMetrics stageMetrics;
+
+    // Smaller files are cheaper to copy than to hand over to sendfile
+    @Value("${inventory.images.sendfile-min-size:48KB}")
+    private DataSize sendfileMinSize;
+
+    @GetMapping("/{imageName}")
+    public void getImage(@PathVariable("imageName") String imageName, ServletWebRequest webRequest) throws IOException {
+        Optional<ImageStore.StoredImage> image = isImageName(imageName) ? imageStore.find(imageName) : Optional.empty();
+        if(image.isEmpty()){
+            webRequest.getResponse().setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // Uploaded images are never rewritten under the same name (content hash or UUID),
+        // the placeholder can be replaced on deploy so browsers revalidate it
+        CacheControl cacheControl = imageName.equals(ImageStorageService.DEFAULT_IMAGE)
+                ? CacheControl.maxAge(Duration.ofHours(1)).cachePublic()
+                : CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+        // Content-addressed names already are a strong validator, other files fall back to name + mtime
+        String etag = ImageStorageService.isContentAddressed(imageName)
+                ? imageName.substring(0, imageName.lastIndexOf('.'))
+                : imageName + "-" + image.get().lastModified().toEpochMilli();
+
+        send(image.get(), contentType(imageName), etag, cacheControl, webRequest);
+    }
+
+    // Serves the variant closest to the requested size, the original until the variant is generated
+    @GetMapping("/variants/{size}/{imageName}")
+    public void getVariant(@PathVariable("size") int size, @PathVariable("imageName") String imageName,
+                           ServletWebRequest webRequest) throws IOException {
+        if(!isImageName(imageName)){
+            webRequest.getResponse().setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        int variantSize = ImageVariantService.resolveSize(size);
+
+        Optional<ImageStore.StoredImage> variant = imageVariantService.findVariant(imageName, variantSize);
+        stageMetrics.cacheResult(StageMetrics.CacheName.IMAGE_VARIANT, variant.isPresent());
+
+        if(variant.isPresent()){
+            // A variant of a content-addressed image never changes, same as the original
+            boolean immutable = ImageStorageService.isContentAddressed(imageName);
+            String etag = imageName + "-" + variantSize + "-" + variant.get().lastModified().toEpochMilli();
+
+            CacheControl cacheControl = immutable
+                    ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                    : CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+
+            send(variant.get(), MediaType.IMAGE_JPEG, etag, cacheControl, webRequest);
+            return;
+        }
+
+        Optional<ImageStore.StoredImage> original = imageVariantService.findOriginal(imageName);
+        if(original.isEmpty()){
+            webRequest.getResponse().setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        imageVariantService.generateAsync(imageName);
+
+        // Not cached, the same URL serves the variant as soon as it exists
+        send(original.get(), contentType(imageName), null, CacheControl.noStore(), webRequest);
+    }
+
+    private void send(ImageStore.StoredImage image, MediaType contentType, String etag, CacheControl cacheControl,
+                      ServletWebRequest webRequest) throws IOException {
+        if(etag != null && webRequest.checkNotModified(etag)){
+            return;
+        }
+
+        HttpServletRequest request = webRequest.getRequest();
+        HttpServletResponse response = webRequest.getResponse();
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(contentType.toString());
+
+        long size = image.size();
+        long start = 0;
+        long length = size;
+
+        HttpRange range = requestedRange(request, etag);
+        if(range != null){
+            start = range.getRangeStart(size);
+            long end = range.getRangeEnd(size);
+            if(start >= size || end < start){
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+
+            length = end - start + 1;
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        response.setContentLengthLong(length);
+
+        if(HttpMethod.HEAD.matches(request.getMethod())){
+            return;
+        }
+
+        Optional<Path> file = imageStore.localFile(image.key());
+        if(file.isPresent() && length >= sendfileMinSize.toBytes()
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))){
+            // Written by the connector after the request returns, nothing goes through the output stream
+            request.setAttribute(SENDFILE_FILENAME, file.get().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+
+        imageStore.copyTo(image.key(), start, length, response.getOutputStream());
+    }
+
+    // A single range, unless If-Range names another version of the file. Several ranges get the whole file.
+    private static HttpRange requestedRange(HttpServletRequest request, String etag){
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if(header == null){
+            return null;
+        }
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if(ifRange != null && (etag == null || !ifRange.equals("\"" + etag + "\""))){
+            return null;
+        }
+
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static MediaType contentType(String imageName){
+        return MediaTypeFactory.getMediaType(imageName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    private static boolean isImageName(String imageName){
+        return !imageName.isEmpty() && !imageName.startsWith(".") && imageName.indexOf('/') < 0 && imageName.indexOf('\\') < 0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.inventory.inventory_backend.controller;
+
+import com.inventory.inventory_backend.dto.InventorySummaryResponse;
+import com.inventory.inventory_backend.security.UserDetailsImpl;
+import com.inventory.inventory_backend.service.InventorySummaryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api")
+@CrossOrigin("http://localhost:5173")
+public class InventorySummaryController {
+
+    @Autowired
+    private InventorySummaryService inventorySummaryService;
+
+    private static final Logger log = LoggerFactory.getLogger(InventorySummaryController.class);
+
+    // Dashboard totals (SKUs, units, stock value, low-stock count, most valuable products) without the full list
+    @GetMapping("/products/summary")
+    public ResponseEntity<InventorySummaryResponse> getSummary(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                                               @RequestParam(required = false) Integer lowStockThreshold,
+                                                               @RequestParam(required = false) Integer top){
+
+        log.debug("User {} requesting the inventory summary", userDetails.getId());
+
+        return ResponseEntity.ok(inventorySummaryService.summarize(userDetails.getId(), lowStockThreshold, top));
+    }
+}
@@ -0,0 +1,43 @@
+package com.inventory.inventory_backend.controller;
+
+import com.inventory.inventory_backend.dto.ProductBatchDeleteRequest;
+import com.inventory.inventory_backend.dto.ProductBatchReport;
+import com.inventory.inventory_backend.dto.ProductBatchUpdateRequest;
+import com.inventory.inventory_backend.security.UserDetailsImpl;
+import com.inventory.inventory_backend.service.ProductBatchService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+// Many products per request, e.g. repricing a whole catalogue. Ids that are missing or owned by another
+// user are reported per id instead of failing the request.
+@RestController
+@RequestMapping("/api")
+@CrossOrigin("http://localhost:5173")
+public class ProductBatchController {
+
+    @Autowired
+    private ProductBatchService productBatchService;
+
+    private static final Logger log = LoggerFactory.getLogger(ProductBatchController.class);
+
+    @PatchMapping("/products/batch")
+    public ResponseEntity<ProductBatchReport> updateProducts(@Valid @RequestBody ProductBatchUpdateRequest request, @AuthenticationPrincipal UserDetailsImpl userDetails){
+
+        log.info("User {} batch updating {} products", userDetails.getId(), request.getItems().size());
+
+        return ResponseEntity.ok(productBatchService.update(userDetails.getId(), request.getItems()));
+    }
+
+    @DeleteMapping("/products/batch")
+    public ResponseEntity<ProductBatchReport> deleteProducts(@Valid @RequestBody ProductBatchDeleteRequest request, @AuthenticationPrincipal UserDetailsImpl userDetails){
+
+        log.info("User {} batch deleting {} products", userDetails.getId(), request.getIds().size());
+
+        return ResponseEntity.ok(productBatchService.delete(userDetails.getId(), request.getIds()));
+    }
+}
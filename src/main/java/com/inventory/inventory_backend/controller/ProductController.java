@@ -1,29 +1,55 @@
 package com.inventory.inventory_backend.controller;
 
+import com.inventory.inventory_backend.cache.CachedListing;
+import com.inventory.inventory_backend.cache.ProductListingCache;
+import com.inventory.inventory_backend.dto.ProductFields;
+import com.inventory.inventory_backend.dto.ProductImportReport;
+import com.inventory.inventory_backend.dto.ProductPageResponse;
 import com.inventory.inventory_backend.dto.ProductRequest;
 import com.inventory.inventory_backend.dto.ProductResponse;
+import com.inventory.inventory_backend.dto.ProductSearchResponse;
 import com.inventory.inventory_backend.dto.ProductUpdateRequest;
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.exception.ConflictException;
 import com.inventory.inventory_backend.exception.FieldValidationException;
+import com.inventory.inventory_backend.metrics.StageMetrics;
 import com.inventory.inventory_backend.model.Product;
 import com.inventory.inventory_backend.repository.ProductRepository;
 import com.inventory.inventory_backend.repository.UserRepository;
+import com.inventory.inventory_backend.search.ProductSearchIndex;
+import com.inventory.inventory_backend.search.ProductSearchResult;
 import com.inventory.inventory_backend.security.UserDetailsImpl;
+import com.inventory.inventory_backend.service.ProductImportService;
+import com.inventory.inventory_backend.storage.ImageStorageService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
-import java.util.UUID;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api")     // declare that all url in controller start with /api
@@ -36,24 +62,189 @@ public class ProductController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Listings and searches, on a read replica when there are any
+    @Autowired
+    @Qualifier("readOnlyTransactionTemplate")
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @Autowired
+    private StageMetrics stageMetrics;
+
+    @Autowired
+    private ProductListingCache productListingCache;
+
+    @Value("${inventory.products.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${inventory.products.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${inventory.products.stream.chunk-size:500}")
+    private int streamChunkSize;
+
     // For logging purpose
     private static final Logger log = LoggerFactory.getLogger(ProductController.class);
 
+    // Listings are per user and must be revalidated with the ETag before reuse
+    private static final CacheControl LISTING_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    // 'fields' (e.g. fields=id,name,quantity) returns only those fields of each product, see ProductFields
     @GetMapping("/products")
-    public List<ProductResponse> getProduct(@AuthenticationPrincipal UserDetailsImpl userDetails, @RequestParam(required = false) String keyword){
+    public ResponseEntity<List<?>> getProduct(@AuthenticationPrincipal UserDetailsImpl userDetails, @RequestParam(required = false) String keyword, @RequestParam(required = false) String fields, WebRequest webRequest){
         Long userId = userDetails.getId();
+        boolean unfiltered = keyword == null || keyword.isBlank();
+        ProductFields selection = ProductFields.parse(fields);
+
+        // Unfiltered listings are served from memory, the cached copy carries its own ETag.
+        // It is loaded from the primary: a replica could hand it a listing older than a change it already saw
+        if(unfiltered && productListingCache.isEnabled()){
+            CachedListing cached = productListingCache.get(userId);
+            return listing(cached.getEtag(), selection, webRequest, cached::getProducts);
+        }
 
-        List<Product> products;
+        // ETag and rows in one read-only transaction, so both come from the same replica
+        return readOnlyTransactionTemplate.execute(status -> listing(productRepository.findListVersion(userId).toEtag(), selection, webRequest, () -> {
+            if(unfiltered){
+                long start = System.nanoTime();
+                List<ProductView> products = selection != null
+                        ? productRepository.findFieldsByUserIdAfter(userId, selection, null, 0L, null)
+                        : productRepository.findViewsByUserId(userId);
+                stageMetrics.record(StageMetrics.Stage.PRODUCT_QUERY, start);
+                return products;
+            }
+            // Case-insensitive substring of the name, in id order like /products/page and /products/stream.
+            // Ranked search over names and descriptions is /products/search
+            return productRepository.findViewsByUserIdAndNameLike(userId, likePattern(keyword));
+        }));
+    }
 
-        if(keyword == null || keyword.isBlank()){
-            products = productRepository.findByUserId(userId);
+    private ResponseEntity<List<?>> listing(String version, ProductFields selection, WebRequest webRequest, Supplier<List<ProductView>> products){
+        String etag = listingEtag(version, selection);
+
+        // 304 when nothing changed since the client's copy, checked before any product is read
+        boolean notModified = webRequest.checkNotModified(etag);
+        stageMetrics.cacheResult(StageMetrics.CacheName.PRODUCT_LISTING_ETAG, notModified);
+        if(notModified){
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(LISTING_CACHE_CONTROL)
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(toResponses(products.get(), selection));
+    }
+
+    // Relevance-ranked search over name and description, served from the in-memory index
+    @GetMapping("/products/search")
+    public ProductSearchResponse searchProducts(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                                @RequestParam("q") String query,
+                                                @RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(required = false) Integer size,
+                                                @RequestParam(required = false) String fields){
+        Long userId = userDetails.getId();
+        int pageSize = resolvePageSize(size);
+        ProductFields selection = ProductFields.parse(fields);
+
+        if(page < 0){
+            throw new FieldValidationException("page", "Page must not be negative");
+        }
+
+        int offset = (int) Math.min((long) page * pageSize, Integer.MAX_VALUE);
+        List<ProductView> items;
+        long total;
+
+        if(productSearchIndex.isReady()){
+            ProductSearchResult result = productSearchIndex.search(userId, query, offset, pageSize);
+            items = result.getItems();
+            total = result.getTotal();
         }else{
-            products = productRepository.findByUserIdAndNameContainingIgnoreCase(userId, keyword);
+            List<ProductView> matches = readOnlyTransactionTemplate.execute(status -> productRepository.findViewsByUserIdAndNameLike(userId, likePattern(query)));
+            items = matches.subList(Math.min(offset, matches.size()), Math.min(offset + pageSize, matches.size()));
+            total = matches.size();
         }
 
-        // stream() - process each product in products, one by one
-        // map() - transform each element to ProductResponse
-        return products.stream().map(ProductResponse::new).toList();
+        return new ProductSearchResponse(toResponses(items, selection), page, pageSize, total);
+    }
+
+    // Keyset pagination on id, pass 'nextCursor' from the previous page as 'cursor' to continue
+    @GetMapping("/products/page")
+    public ProductPageResponse getProductPage(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                              @RequestParam(required = false) String keyword,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer size,
+                                              @RequestParam(required = false) String fields){
+        Long userId = userDetails.getId();
+        Long afterId = decodeCursor(cursor);
+        int pageSize = resolvePageSize(size);
+        ProductFields selection = ProductFields.parse(fields);
+
+        List<ProductView> products = readOnlyTransactionTemplate.execute(status -> findProductsAfter(userId, keyword, afterId, pageSize, selection));
+
+        String nextCursor = null;
+        if(products.size() == pageSize){
+            nextCursor = encodeCursor(products.get(products.size() - 1).getId());
+        }
+
+        return new ProductPageResponse(toResponses(products, selection), nextCursor);
+    }
+
+    // NDJSON stream of every product, read in fixed-size keyset chunks so memory stays flat for big catalogs
+    @GetMapping(value = "/products/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamProducts(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                                                @RequestParam(required = false) String keyword,
+                                                                @RequestParam(required = false) String fields){
+        Long userId = userDetails.getId();
+        ProductFields selection = ProductFields.parse(fields);
+
+        log.info("User {} is streaming products", userId);
+
+        StreamingResponseBody body = outputStream -> {
+            long rows = 0;
+
+            try (JsonGenerator generator = jsonMapper.createGenerator(outputStream)) {
+                Long afterId = 0L;
+                List<ProductView> chunk;
+
+                do {
+                    Long after = afterId;
+                    chunk = readOnlyTransactionTemplate.execute(status -> findProductsAfter(userId, keyword, after, streamChunkSize, selection));
+
+                    for (ProductView product : chunk) {
+                        jsonMapper.writeValue(generator, selection != null ? selection.toMap(product) : new ProductResponse(product));
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+
+                    rows += chunk.size();
+                    if(!chunk.isEmpty()){
+                        afterId = chunk.get(chunk.size() - 1).getId();
+                    }
+                } while (chunk.size() == streamChunkSize);
+            }
+
+            log.info("Streamed {} products to user {}", rows, userId);
+        };
+
+        return ResponseEntity.ok().body(body);
     }
 
     @PostMapping("/products")
@@ -79,14 +270,38 @@ public class ProductController {
             productRepository.save(product);
         } catch (Exception e) {
             log.error("Failed to save product {} by user {}", product.getName(), userDetails.getId(), e);
+            releaseImage(imageName);
             throw new FieldValidationException("general", "Failed to create product");
         };
 
         log.info("Product created successfully with ID={} by user {}", product.getId(), userDetails.getId());
 
+        eventPublisher.publishEvent(ProductChangedEvent.created(ProductView.of(product, userDetails.getUsername())));
+
         return ResponseEntity.ok("Product Created Successfully");
     }
 
+    // Bulk import from a raw CSV (header: name,description,quantity,price) or NDJSON request body
+    @PostMapping(value = "/products/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ProductImportReport> importProducts(HttpServletRequest request, @AuthenticationPrincipal UserDetailsImpl userDetails){
+
+        log.info("User {} is importing products", userDetails.getId());
+
+        ProductImportService.Format format = request.getContentType().startsWith("text/csv")
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.NDJSON;
+
+        ProductImportReport report;
+        try {
+            report = productImportService.importProducts(userDetails.getId(), format, request.getInputStream());
+        } catch (IOException e) {
+            log.error("Failed to read product import of user {}", userDetails.getId(), e);
+            throw new FieldValidationException("file", "Failed to read import file");
+        }
+
+        return ResponseEntity.ok(report);
+    }
+
     @PutMapping("/product/{id}")
     public ResponseEntity<ProductResponse> updateProduct(@PathVariable("id") Long id, @Valid @ModelAttribute ProductUpdateRequest request, @AuthenticationPrincipal UserDetailsImpl userDetails){
 
@@ -103,15 +318,17 @@ public class ProductController {
             throw new FieldValidationException("general", "You are not allowed to update this product");
         }
 
+        ProductView before = ProductView.of(product, userDetails.getUsername());
+
         MultipartFile image = request.getImage();
+        String oldImageName = product.getImageName();
+        String newImageName = null;
 
         if (image != null && !image.isEmpty()) {
-            deleteOldImage(product.getImageName());
-
             validateImage(image);
-            String imageName = storeProductImage(image);
+            newImageName = storeProductImage(image);
 
-            product.setImageName(imageName);
+            product.setImageName(newImageName);
         }
 
         if(request.getName() != null){
@@ -127,16 +344,33 @@ public class ProductController {
             product.setPrice(request.getPrice());
         }
 
+        // The old image is released only if the update commits, its file is removed later by ImageGarbageCollector
+        boolean imageReplaced = newImageName != null;
         try{
-            productRepository.save(product);
+            transactionTemplate.executeWithoutResult(status -> {
+                productRepository.save(product);
+                if(imageReplaced){
+                    imageStorageService.release(oldImageName);
+                }
+            });
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Product {} was changed concurrently while user {} updated it", id, userDetails.getId());
+            releaseImage(newImageName);
+            throw new ConflictException("general", "Product was changed by another request, please retry");
         } catch (Exception e) {
             log.error("Failed to update product {} by user {}", id, userDetails.getId(), e);
+            releaseImage(newImageName);
             throw new FieldValidationException("general", "Failed to update product");
         };
 
         log.info("Product {} updated successfully", id);
 
-        return ResponseEntity.ok(new ProductResponse(product));
+        ProductView after = productRepository.findViewById(id)
+                .orElseThrow(() -> new FieldValidationException("general", "Product not found"));
+
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, after));
+
+        return ResponseEntity.ok(new ProductResponse(after));
     }
 
     @DeleteMapping("/product/{id}")
@@ -156,7 +390,10 @@ public class ProductController {
         }
 
         try{
-            productRepository.deleteById(id);
+            transactionTemplate.executeWithoutResult(status -> {
+                productRepository.deleteById(id);
+                imageStorageService.release(product.getImageName());
+            });
         } catch (Exception e) {
             log.error("Failed to delete product {} by user {}", id, userDetails.getId(), e);
             throw new FieldValidationException("general", "Failed to delete product");
@@ -164,9 +401,74 @@ public class ProductController {
 
         log.info("Product {} deleted successfully", id);
 
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(ProductView.of(product, userDetails.getUsername())));
+
         return ResponseEntity.ok("Product Deleted Successfully");
     }
 
+    private List<ProductView> findProductsAfter(Long userId, String keyword, Long afterId, int limit, ProductFields selection){
+        if(selection != null){
+            String pattern = keyword == null || keyword.isBlank() ? null : likePattern(keyword);
+            return productRepository.findFieldsByUserIdAfter(userId, selection, pattern, afterId, limit);
+        }
+        if(keyword == null || keyword.isBlank()){
+            return productRepository.findViewsByUserIdAfter(userId, afterId, Limit.of(limit));
+        }
+        return productRepository.findViewsByUserIdAndNameLikeAfter(userId, likePattern(keyword), afterId, Limit.of(limit));
+    }
+
+    // Weak: the same rows are served as JSON or CBOR, gzipped or not (Tomcat won't compress strong-ETag responses).
+    // Each field selection is its own representation and gets its own tag.
+    private static String listingEtag(String version, ProductFields selection){
+        return "W/\"" + version + (selection != null ? "-f" + selection.key() : "") + "\"";
+    }
+
+    // Full ProductResponse rows, or maps of the selected fields only (no image URLs built when not selected)
+    private List<?> toResponses(List<ProductView> products, ProductFields selection){
+        if(selection != null){
+            return products.stream().map(selection::toMap).toList();
+        }
+        return products.stream().map(ProductResponse::new).toList();
+    }
+
+    // Case-insensitive 'contains' pattern, LIKE wildcards typed by the user are matched literally
+    private String likePattern(String keyword){
+        String escaped = keyword.toLowerCase()
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return "%" + escaped + "%";
+    }
+
+    private int resolvePageSize(Integer size){
+        if(size == null){
+            return defaultPageSize;
+        }
+        if(size < 1){
+            throw new FieldValidationException("size", "Page size must be at least 1");
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    // Cursor is the last id of the previous page, base64url encoded so clients treat it as opaque
+    private String encodeCursor(Long id){
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Long decodeCursor(String cursor){
+        if(cursor == null || cursor.isBlank()){
+            return 0L;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return Long.parseLong(decoded);
+        } catch (IllegalArgumentException e) {
+            throw new FieldValidationException("cursor", "Invalid cursor");
+        }
+    }
+
     private void validateImage(MultipartFile image){
         if(image == null || image.isEmpty()){
             return;
@@ -192,35 +494,26 @@ public class ProductController {
 
     private String storeProductImage(MultipartFile image){
         if (image == null || image.isEmpty()) {
-            return "default.png"; // image is optional
+            return ImageStorageService.DEFAULT_IMAGE; // image is optional
         }
 
         try {
-            String uploadDir = "uploads/products/";
-            Files.createDirectories(Paths.get(uploadDir));
-
-            String imageName = UUID.randomUUID() + "_" + image.getOriginalFilename();
-            Path imagePath = Paths.get(uploadDir, imageName);
-
-            Files.copy(image.getInputStream(), imagePath, StandardCopyOption.REPLACE_EXISTING);
-
-            return imageName;
-
-        } catch (IOException e) {
+            return imageStorageService.store(image);
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Failed to store product image", e);
             throw new FieldValidationException("image", "Failed to store product image");
         }
     }
 
-    private void deleteOldImage(String image){
-        if(image.equals("default.png")){
+    // Drops the reference taken by storeProductImage when the product change failed
+    private void releaseImage(String image){
+        if(image == null){
             return;
         }
-
         try {
-            Path oldImagePath = Paths.get("uploads/products/" + image);
-            Files.deleteIfExists(oldImagePath);
-        } catch (IOException e) {
-            throw new FieldValidationException("image", "Failed to store product image");
+            imageStorageService.release(image);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release image {}, left for the reconciliation sweep", image, e);
         }
     }
 }
@@ -0,0 +1,107 @@
+package com.inventory.inventory_backend.controller;
+
+import com.inventory.inventory_backend.dto.ExportJobResponse;
+import com.inventory.inventory_backend.exception.FieldValidationException;
+import com.inventory.inventory_backend.export.ProductExportService;
+import com.inventory.inventory_backend.model.ExportFormat;
+import com.inventory.inventory_backend.model.ExportJob;
+import com.inventory.inventory_backend.security.UserDetailsImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.nio.file.Path;
+
+// Whole-catalog exports. Large catalogs go through a background job that is polled and downloaded once
+// completed, /products/export streams the file directly for clients that can hold the connection.
+@RestController
+@RequestMapping("/api")
+@CrossOrigin("http://localhost:5173")
+public class ProductExportController {
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    private static final Logger log = LoggerFactory.getLogger(ProductExportController.class);
+
+    @PostMapping("/exports")
+    public ResponseEntity<ExportJobResponse> startExport(@RequestParam(defaultValue = "csv") String format, @AuthenticationPrincipal UserDetailsImpl userDetails){
+
+        ExportJob job = productExportService.start(userDetails.getId(), parseFormat(format));
+
+        log.info("User {} started export {} as {}", userDetails.getId(), job.getId(), format);
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/exports/" + job.getId()))
+                .body(new ExportJobResponse(job));
+    }
+
+    @GetMapping("/exports/{id}")
+    public ResponseEntity<ExportJobResponse> getExport(@PathVariable Long id, @AuthenticationPrincipal UserDetailsImpl userDetails){
+        return ResponseEntity.ok(new ExportJobResponse(productExportService.get(userDetails.getId(), id)));
+    }
+
+    @PostMapping("/exports/{id}/resume")
+    public ResponseEntity<ExportJobResponse> resumeExport(@PathVariable Long id, @AuthenticationPrincipal UserDetailsImpl userDetails){
+
+        log.info("User {} is resuming export {}", userDetails.getId(), id);
+
+        return ResponseEntity.accepted().body(new ExportJobResponse(productExportService.resume(userDetails.getId(), id)));
+    }
+
+    @GetMapping("/exports/{id}/file")
+    public ResponseEntity<Resource> downloadExport(@PathVariable Long id, @AuthenticationPrincipal UserDetailsImpl userDetails){
+
+        ExportJob job = productExportService.get(userDetails.getId(), id);
+        Path file = productExportService.completedFile(job);
+        ExportFormat format = job.getFormat();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment("products-" + id + "." + format.getExtension()))
+                .body(new FileSystemResource(file));
+    }
+
+    // Written while the products are read, nothing is buffered or kept on the server
+    @GetMapping("/products/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "csv") String format, @AuthenticationPrincipal UserDetailsImpl userDetails){
+        Long userId = userDetails.getId();
+        ExportFormat exportFormat = parseFormat(format);
+
+        ProductExportService.DirectExport export = productExportService.stream(userId, exportFormat);
+
+        log.info("User {} is exporting products as {}", userId, format);
+
+        StreamingResponseBody body = outputStream -> {
+            long rows = export.writeTo(outputStream);
+            log.info("Exported {} products to user {}", rows, userId);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment("products." + exportFormat.getExtension()))
+                .body(body);
+    }
+
+    private static ExportFormat parseFormat(String format){
+        ExportFormat exportFormat = ExportFormat.fromExtension(format);
+        if(exportFormat == null){
+            throw new FieldValidationException("format", "Format must be csv or parquet");
+        }
+        return exportFormat;
+    }
+
+    private static String attachment(String filename){
+        return ContentDisposition.attachment().filename(filename).build().toString();
+    }
+}
@@ -0,0 +1,44 @@
+package com.inventory.inventory_backend.controller;
+
+import com.inventory.inventory_backend.feed.ProductChangeFeed;
+import com.inventory.inventory_backend.security.UserDetailsImpl;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Live product changes as server-sent events. After 'ready' the client loads the listing once and applies
+// the deltas from then on; on 'reset' it loads the listing again.
+@RestController
+@RequestMapping("/api")
+@CrossOrigin("http://localhost:5173")
+public class ProductFeedController {
+
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFeedController.class);
+
+    // Browsers resend the last id in the Last-Event-ID header on reconnect, the parameter is for clients that can't
+    @GetMapping(value = "/products/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter productChanges(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                     @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                     @RequestParam(required = false) String lastEventId,
+                                     HttpServletResponse response){
+
+        String resumeFrom = lastEventIdHeader != null ? lastEventIdHeader : lastEventId;
+
+        log.info("User {} subscribed to product changes{}", userDetails.getId(), resumeFrom != null ? " from " + resumeFrom : "");
+
+        // Proxies must pass events through as they come
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader("X-Accel-Buffering", "no");
+
+        return productChangeFeed.subscribe(userDetails.getId(), resumeFrom);
+    }
+}
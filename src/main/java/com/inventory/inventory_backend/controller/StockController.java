@@ -0,0 +1,55 @@
+package com.inventory.inventory_backend.controller;
+
+import com.inventory.inventory_backend.dto.StockAdjustmentRequest;
+import com.inventory.inventory_backend.dto.StockLevelResponse;
+import com.inventory.inventory_backend.dto.StockReservationRequest;
+import com.inventory.inventory_backend.security.UserDetailsImpl;
+import com.inventory.inventory_backend.service.StockService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+@CrossOrigin("http://localhost:5173")
+public class StockController {
+
+    @Autowired
+    private StockService stockService;
+
+    private static final Logger log = LoggerFactory.getLogger(StockController.class);
+
+    @PostMapping("/product/{id}/stock/increment")
+    public ResponseEntity<StockLevelResponse> increment(@PathVariable("id") Long id, @Valid @RequestBody StockAdjustmentRequest request, @AuthenticationPrincipal UserDetailsImpl userDetails){
+
+        log.debug("User {} incrementing stock of product {} by {}", userDetails.getId(), id, request.getAmount());
+
+        StockLevelResponse response = stockService.increment(userDetails.getId(), id, request.getAmount());
+
+        // Coalesced increments are applied on the next flush
+        return ResponseEntity.status(response.isCoalesced() ? HttpStatus.ACCEPTED : HttpStatus.OK).body(response);
+    }
+
+    @PostMapping("/product/{id}/stock/decrement")
+    public ResponseEntity<StockLevelResponse> decrement(@PathVariable("id") Long id, @Valid @RequestBody StockAdjustmentRequest request, @AuthenticationPrincipal UserDetailsImpl userDetails){
+
+        log.debug("User {} decrementing stock of product {} by {}", userDetails.getId(), id, request.getAmount());
+
+        return ResponseEntity.ok(stockService.decrement(userDetails.getId(), id, request.getAmount()));
+    }
+
+    @PostMapping("/products/stock/reserve")
+    public ResponseEntity<List<StockLevelResponse>> reserve(@Valid @RequestBody StockReservationRequest request, @AuthenticationPrincipal UserDetailsImpl userDetails){
+
+        log.info("User {} reserving stock for {} items", userDetails.getId(), request.getItems().size());
+
+        return ResponseEntity.ok(stockService.reserve(userDetails.getId(), request.getItems()));
+    }
+}
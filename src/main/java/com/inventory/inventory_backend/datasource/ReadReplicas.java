@@ -0,0 +1,247 @@
+package com.inventory.inventory_backend.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+// Sends read-only transactions to MySQL read replicas, everything else to the primary. Without
+// inventory.datasource.replicas.urls there is only the primary, as before.
+// Lag: the primary's replica_heartbeat row is stamped every interval and each replica's copy of it is read back.
+// A replica further behind than max-lag, or not answering, gets no reads until it catches up.
+// Read-your-writes: once a user's read-write transaction commits, their read-only ones only go to replicas that
+// have applied a heartbeat newer than the commit, to the primary until then. Kept per node, like the caches.
+@Component
+public class ReadReplicas {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicas.class);
+
+    private final MeterRegistry meterRegistry;
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final long maxLagMillis;
+    private final int probeTimeoutSeconds;
+
+    // User name -> when their last read-write transaction committed (epoch ms)
+    private final Cache<String, Long> lastWrites;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Counter> readOnlyConnections = new ConcurrentHashMap<>();
+
+    private volatile List<Replica> replicas = List.of();
+    private volatile DataSource primary;
+    private volatile JdbcTemplate primaryJdbcTemplate;
+
+    public ReadReplicas(MeterRegistry meterRegistry,
+                        @Value("${inventory.datasource.replicas.urls:}") List<String> urls,
+                        @Value("${inventory.datasource.replicas.username:${spring.datasource.username:}}") String username,
+                        @Value("${inventory.datasource.replicas.password:${spring.datasource.password:}}") String password,
+                        @Value("${inventory.datasource.replicas.connection-timeout:2s}") Duration connectionTimeout,
+                        @Value("${inventory.datasource.replicas.max-lag:5s}") Duration maxLag,
+                        @Value("${inventory.datasource.replicas.heartbeat-interval-ms:1000}") long heartbeatIntervalMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxLagMillis = maxLag.toMillis();
+        this.probeTimeoutSeconds = (int) Math.max(1, connectionTimeout.toSeconds());
+
+        // A write older than this is on every replica still getting reads
+        this.lastWrites = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(maxLag.plusMillis(2 * heartbeatIntervalMs))
+                .build();
+
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            // Started on the first connection, which is the first heartbeat probe
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (pools.size() + 1));
+            pool.setJdbcUrl(url.trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setReadOnly(true);
+            // A replica that doesn't answer fails the read quickly, the next probe takes it out of the rotation
+            pool.setConnectionTimeout(connectionTimeout.toMillis());
+            pools.add(pool);
+        }
+    }
+
+    public boolean isEnabled() {
+        return !pools.isEmpty();
+    }
+
+    // The DataSource for JPA and JDBC: a connection is only taken once the first statement runs, by then the
+    // transaction's read-only flag is known. The decorator gets each replica pool (pool sizing, timing).
+    public DataSource route(DataSource primary, BiFunction<DataSource, String, DataSource> decorator) {
+        List<Replica> routed = new ArrayList<>();
+        for (HikariDataSource pool : pools) {
+            Replica replica = new Replica(pool.getPoolName(), decorator.apply(pool, pool.getPoolName()), probeTimeoutSeconds);
+            Gauge.builder("inventory.db.replica.lag", replica, r -> r.getLagMillis() < 0 ? Double.NaN : r.getLagMillis() / 1000.0)
+                    .description("How far the replica was behind the primary at the last heartbeat probe, NaN when unreachable")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+            routed.add(replica);
+        }
+
+        this.primary = primary;
+        this.primaryJdbcTemplate = new JdbcTemplate(primary);
+        this.replicas = List.copyOf(routed);
+        log.info("Read-only transactions are routed to {} replica(s), at most {} ms behind", routed.size(), maxLagMillis);
+
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(new WriteTrackingDataSource(primary));
+        proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource());
+        return proxy;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.datasource.replicas.heartbeat-interval-ms:1000}")
+    public void heartbeat() {
+        JdbcTemplate jdbcTemplate = primaryJdbcTemplate;
+        if (jdbcTemplate == null) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.update("update replica_heartbeat set beat_at = ? where id = 1", System.currentTimeMillis());
+        } catch (DataAccessException e) {
+            log.warn("Replica heartbeat not written: {}", e.getMessage());
+        }
+        probeReplicas();
+    }
+
+    void probeReplicas() {
+        for (Replica replica : replicas) {
+            try {
+                Long beatAt = replica.getJdbcTemplate().queryForObject("select beat_at from replica_heartbeat where id = 1", Long.class);
+                if (replica.probed(beatAt, System.currentTimeMillis(), maxLagMillis)) {
+                    log.info("Replica {} is {} ms behind, reads {}", replica.getName(), replica.getLagMillis(),
+                            replica.isUsable() ? "resumed" : "moved to the other replicas or the primary");
+                }
+            } catch (DataAccessException e) {
+                if (replica.unreachable()) {
+                    log.warn("Replica {} is unreachable, reads moved to the other replicas or the primary: {}",
+                            replica.getName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Round robin over the replicas that are close enough and have the current user's last write,
+    // the primary when none has
+    DataSource select() {
+        String user = currentUser();
+        Long lastWrite = user != null ? lastWrites.getIfPresent(user) : null;
+
+        List<Replica> candidates = replicas;
+        int start = Math.floorMod(nextReplica.getAndIncrement(), candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Replica replica = candidates.get((start + i) % candidates.size());
+            if (replica.isUsable() && (lastWrite == null || replica.getAppliedUpTo() >= lastWrite)) {
+                counted(replica.getName());
+                return replica.getDataSource();
+            }
+        }
+
+        counted("primary");
+        return primary;
+    }
+
+    private void counted(String target) {
+        readOnlyConnections.computeIfAbsent(target, name -> Counter.builder("inventory.db.read_only_connections")
+                .description("Connections taken for read-only transactions, by the database they went to")
+                .tag("target", name)
+                .register(meterRegistry)).increment();
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    @PreDestroy
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    // The primary. A read-write transaction of a user that takes a connection marks the user once it commits.
+    private class WriteTrackingDataSource extends DelegatingDataSource {
+
+        WriteTrackingDataSource(DataSource primary) {
+            super(primary);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            trackWrite();
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            trackWrite();
+            return super.getConnection(username, password);
+        }
+
+        private void trackWrite() {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()
+                    || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                return;
+            }
+
+            String user = currentUser();
+            if (user != null) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        lastWrites.put(user, System.currentTimeMillis());
+                    }
+                });
+            }
+        }
+    }
+
+    // Read-only connections, see select()
+    private class ReplicaRoutingDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return select().getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return select().getConnection(username, password);
+        }
+    }
+}
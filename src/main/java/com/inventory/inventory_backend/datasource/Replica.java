@@ -0,0 +1,68 @@
+package com.inventory.inventory_backend.datasource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+// A read replica and what its last heartbeat probe found
+class Replica {
+
+    private final String name;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    // The primary's heartbeat (epoch ms, primary clock) the replica had applied at the last probe
+    private volatile long appliedUpTo;
+    private volatile long lagMillis = -1;
+    private volatile boolean usable;
+
+    Replica(String name, DataSource dataSource, int probeTimeoutSeconds) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setQueryTimeout(probeTimeoutSeconds);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    DataSource getDataSource() {
+        return dataSource;
+    }
+
+    JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    long getAppliedUpTo() {
+        return appliedUpTo;
+    }
+
+    // -1 while unreachable
+    long getLagMillis() {
+        return lagMillis;
+    }
+
+    boolean isUsable() {
+        return usable;
+    }
+
+    // Returns whether the replica went from usable to not or back
+    boolean probed(long beatAt, long now, long maxLagMillis) {
+        appliedUpTo = beatAt;
+        lagMillis = Math.max(0, now - beatAt);
+        return setUsable(lagMillis <= maxLagMillis);
+    }
+
+    boolean unreachable() {
+        lagMillis = -1;
+        return setUsable(false);
+    }
+
+    private boolean setUsable(boolean usable) {
+        boolean changed = this.usable != usable;
+        this.usable = usable;
+        return changed;
+    }
+}
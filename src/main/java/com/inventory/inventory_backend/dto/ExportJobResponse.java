@@ -0,0 +1,44 @@
+package com.inventory.inventory_backend.dto;
+
+import com.inventory.inventory_backend.model.ExportJob;
+import com.inventory.inventory_backend.model.ExportStatus;
+import lombok.Getter;
+
+import java.time.Instant;
+
+// Progress of a background export, polled by the client until it is COMPLETED or FAILED
+@Getter
+public class ExportJobResponse {
+
+    private Long id;
+    private String format;
+    private ExportStatus status;
+    private long totalRows;                     // products when the export was requested
+    private long rowsExported;                  // as of the last checkpoint
+    private double progress;                    // 0 to 1
+    private long bytesWritten;
+    private String error;
+    private Instant createdAt;
+    private Instant completedAt;
+    private String downloadUrl;                 // once COMPLETED
+
+    public ExportJobResponse(ExportJob job){
+        this.id = job.getId();
+        this.format = job.getFormat().getExtension();
+        this.status = job.getStatus();
+        this.totalRows = job.getTotalRows();
+        this.rowsExported = job.getRowsExported();
+        this.bytesWritten = job.getBytesWritten();
+        this.error = job.getError();
+        this.createdAt = job.getCreatedAt();
+        this.completedAt = job.getCompletedAt();
+
+        // Products added while exporting can take the count past the total
+        if (job.getStatus() == ExportStatus.COMPLETED) {
+            this.progress = 1;
+            this.downloadUrl = "/api/exports/" + job.getId() + "/file";
+        } else if (job.getTotalRows() > 0) {
+            this.progress = Math.min(1, (double) job.getRowsExported() / job.getTotalRows());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.inventory.inventory_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class InventorySummaryResponse {
+
+    private long skus;
+    private long units;
+    private BigDecimal totalValue;
+
+    private int lowStockThreshold;
+    private long lowStockCount;         // products with quantity <= lowStockThreshold
+
+    private List<ProductValue> topByValue;
+
+    private String source;              // "rollup" (kept in memory) or "database" (aggregate queries)
+}
@@ -0,0 +1,23 @@
+package com.inventory.inventory_backend.dto;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+// Aggregates of one user's products, computed by the database in a single pass (ProductRepository.findTotals)
+@Getter
+public class InventoryTotals {
+
+    private final long skus;
+    private final long units;
+    private final BigDecimal totalValue;
+    private final long lowStockCount;
+
+    // The sums are null when the user has no products
+    public InventoryTotals(long skus, Long units, BigDecimal totalValue, Long lowStockCount) {
+        this.skus = skus;
+        this.units = units != null ? units : 0;
+        this.totalValue = totalValue != null ? totalValue : BigDecimal.ZERO;
+        this.lowStockCount = lowStockCount != null ? lowStockCount : 0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.inventory.inventory_backend.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class ProductBatchDeleteRequest {
+
+    @NotEmpty(message = "At least one id is required")
+    private List<@NotNull(message = "Product id is required") Long> ids;
+}
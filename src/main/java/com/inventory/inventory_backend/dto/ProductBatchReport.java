@@ -0,0 +1,32 @@
+package com.inventory.inventory_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Outcome of a batch update or delete, one result per requested id in request order
+@Getter
+@AllArgsConstructor
+public class ProductBatchReport {
+
+    public enum Status {
+        UPDATED,
+        DELETED,
+        NOT_FOUND,      // missing or owned by another user
+        NO_CHANGES,     // update item without any field set
+        DUPLICATE       // id listed again, only its first item is applied
+    }
+
+    private int succeeded;
+    private int failed;
+    private List<Result> results;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+
+        private Long id;
+        private Status status;
+    }
+}
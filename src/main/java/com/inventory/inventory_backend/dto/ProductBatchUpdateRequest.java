@@ -0,0 +1,46 @@
+package com.inventory.inventory_backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Partial updates of many products, fields left null are not changed (as in ProductUpdateRequest)
+@Getter
+@Setter
+public class ProductBatchUpdateRequest {
+
+    @NotEmpty(message = "At least one item is required")
+    private List<@Valid Item> items;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        @NotNull(message = "Product id is required")
+        private Long id;
+
+        @Size(max = 100, message = "Product name must not exceed 100 characters")
+        private String name;
+
+        @Size(max = 500, message = "Description must not exceed 500 characters")
+        private String description;
+
+        @Min(value = 0, message = "Quantity cannot be negative")
+        private Integer quantity;
+
+        @DecimalMin(value = "0.01", message = "Price must be greater than 0")
+        private BigDecimal price;
+
+        public boolean hasChanges() {
+            return name != null || description != null || quantity != null || price != null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.inventory.inventory_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+// One change on the product change feed. Updates carry only the fields that changed, a client applies a delta
+// to its copy unless it already has that product at the same or a newer version.
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductDelta {
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+    public static final String RESET = "reset";     // too many changes at once or missed, refetch the listing
+
+    private String op;
+    private Long id;
+    private Long version;
+    private String name;
+    private String description;
+    private Integer quantity;
+    private BigDecimal price;
+    private String imageUrl;
+
+    public static ProductDelta of(ProductChangedEvent event) {
+        ProductView before = event.getBefore();
+        ProductView after = event.getAfter();
+
+        return switch (event.getType()) {
+            case CREATED -> new ProductDelta(CREATED, after.getId(), after.getVersion(), after.getName(),
+                    after.getDescription(), after.getQuantity(), after.getPrice(), ProductResponse.imageUrl(after.getImageName()));
+            case UPDATED -> new ProductDelta(UPDATED, after.getId(), after.getVersion(),
+                    changed(before.getName(), after.getName()),
+                    changed(before.getDescription(), after.getDescription()),
+                    changed(before.getQuantity(), after.getQuantity()),
+                    before.getPrice() != null && after.getPrice() != null && before.getPrice().compareTo(after.getPrice()) == 0
+                            ? null : after.getPrice(),
+                    Objects.equals(before.getImageName(), after.getImageName())
+                            ? null : ProductResponse.imageUrl(after.getImageName()));
+            case DELETED -> new ProductDelta(DELETED, before.getId(), null, null, null, null, null, null);
+            case BULK_CHANGED -> reset();
+        };
+    }
+
+    public static ProductDelta reset() {
+        return new ProductDelta(RESET, null, null, null, null, null, null, null);
+    }
+
+    private static <T> T changed(T before, T after) {
+        return Objects.equals(before, after) ? null : after;
+    }
+}
@@ -0,0 +1,31 @@
+package com.inventory.inventory_backend.dto;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+// Fields of ProductResponse a client can select with 'fields='
+public enum ProductField {
+    ID("id"),
+    NAME("name"),
+    DESCRIPTION("description"),
+    QUANTITY("quantity"),
+    PRICE("price"),
+    IMAGE_URL("imageUrl"),
+    IMAGE_VARIANTS("imageVariants"),
+    USER_ID("userId"),
+    USERNAME("username");
+
+    private final String jsonName;
+
+    ProductField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    public static Optional<ProductField> fromJsonName(String name) {
+        return Arrays.stream(values()).filter(field -> field.jsonName.equals(name)).findFirst();
+    }
+}
@@ -0,0 +1,79 @@
+package com.inventory.inventory_backend.dto;
+
+import com.inventory.inventory_backend.exception.FieldValidationException;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Sparse field selection, e.g. 'fields=id,name,quantity'. Rows are written as maps holding only those fields,
+// in ProductResponse order, and the database query reads only the matching columns (ProductFieldRepository).
+public final class ProductFields {
+
+    private final Set<ProductField> fields;
+
+    private ProductFields(Set<ProductField> fields) {
+        this.fields = Collections.unmodifiableSet(fields);
+    }
+
+    // null when the parameter is absent, i.e. the full ProductResponse
+    public static ProductFields parse(String param) {
+        if (param == null || param.isBlank()) {
+            return null;
+        }
+
+        EnumSet<ProductField> fields = EnumSet.noneOf(ProductField.class);
+        for (String name : param.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            fields.add(ProductField.fromJsonName(trimmed)
+                    .orElseThrow(() -> new FieldValidationException("fields", "Unknown field: " + trimmed)));
+        }
+
+        if (fields.isEmpty()) {
+            throw new FieldValidationException("fields", "Select at least one field");
+        }
+        return new ProductFields(fields);
+    }
+
+    public Set<ProductField> getFields() {
+        return fields;
+    }
+
+    public boolean contains(ProductField field) {
+        return fields.contains(field);
+    }
+
+    // Short stable id of the selection (bit mask of the fields), e.g. for ETags
+    public String key() {
+        int mask = 0;
+        for (ProductField field : fields) {
+            mask |= 1 << field.ordinal();
+        }
+        return Integer.toHexString(mask);
+    }
+
+    public Map<String, Object> toMap(ProductView view) {
+        Map<String, Object> row = new LinkedHashMap<>(fields.size() * 2);
+
+        for (ProductField field : fields) {
+            Object value = switch (field) {
+                case ID -> view.getId();
+                case NAME -> view.getName();
+                case DESCRIPTION -> view.getDescription();
+                case QUANTITY -> view.getQuantity();
+                case PRICE -> view.getPrice();
+                case IMAGE_URL -> ProductResponse.imageUrl(view.getImageName());
+                case IMAGE_VARIANTS -> ProductResponse.imageVariants(view.getImageName());
+                case USER_ID -> view.getUserId();
+                case USERNAME -> view.getUsername();
+            };
+            row.put(field.getJsonName(), value);
+        }
+        return row;
+    }
+}
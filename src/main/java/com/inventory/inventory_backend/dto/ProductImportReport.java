@@ -0,0 +1,25 @@
+package com.inventory.inventory_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ProductImportReport {
+
+    private long imported;
+    private long failed;
+    private List<RowError> errors;
+    private boolean errorsTruncated;    // more rows failed than are listed in 'errors'
+
+    @Getter
+    @AllArgsConstructor
+    public static class RowError {
+
+        private long row;               // 1-based data row, header not counted
+        private String field;
+        private String message;
+    }
+}
@@ -0,0 +1,22 @@
+package com.inventory.inventory_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+// Aggregate that changes whenever a user's product list changes: a create raises maxId,
+// a delete lowers count and an update raises lastUpdatedAt
+@Getter
+@AllArgsConstructor
+public class ProductListVersion {
+
+    private long count;
+    private Long maxId;
+    private Instant lastUpdatedAt;
+
+    public String toEtag(){
+        String updated = lastUpdatedAt != null ? lastUpdatedAt.getEpochSecond() + "." + lastUpdatedAt.getNano() : "0";
+        return count + "-" + (maxId != null ? maxId : 0) + "-" + updated;
+    }
+}
@@ -0,0 +1,19 @@
+package com.inventory.inventory_backend.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class ProductPageResponse {
+
+    private List<?> items;      // ProductResponse, or maps of the selected fields (ProductFields)
+
+    // Opaque token to pass back as 'cursor' for the next page, null when there are no more products
+    private String nextCursor;
+
+    public ProductPageResponse(List<?> items, String nextCursor){
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -1,9 +1,12 @@
 package com.inventory.inventory_backend.dto;
 
 import com.inventory.inventory_backend.model.Product;
+import com.inventory.inventory_backend.storage.ImageVariantService;
 import lombok.Getter;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Getter
 public class ProductResponse {
@@ -14,6 +17,7 @@ public class ProductResponse {
     private int quantity;
     private BigDecimal price;
     private String imageUrl;
+    private Map<String, String> imageVariants;     // downscaled image URLs keyed by size in pixels
 
     private Long userId;
     private String username;
@@ -26,11 +30,40 @@ public class ProductResponse {
         this.price = product.getPrice();
         this.userId = product.getUser().getId();
         this.username = product.getUser().getUsername();
+        this.imageUrl = imageUrl(product.getImageName());
+        this.imageVariants = imageVariants(product.getImageName());
+    }
+
+    // Preferred for listings, the view already carries the owner so no lazy user load happens
+    public ProductResponse(ProductView view){
+        this.id = view.getId();
+        this.name = view.getName();
+        this.description = view.getDescription();
+        this.quantity = view.getQuantity();
+        this.price = view.getPrice();
+        this.userId = view.getUserId();
+        this.username = view.getUsername();
+        this.imageUrl = imageUrl(view.getImageName());
+        this.imageVariants = imageVariants(view.getImageName());
+    }
+
+    static String imageUrl(String imageName){
+        return "http://localhost:8080/uploads/products/" + imageNameOrDefault(imageName);
+    }
+
+    static Map<String, String> imageVariants(String imageName){
+        Map<String, String> variants = new LinkedHashMap<>();
+        for(int size : ImageVariantService.VARIANT_SIZES){
+            variants.put(String.valueOf(size),
+                    "http://localhost:8080/uploads/products/variants/" + size + "/" + imageNameOrDefault(imageName));
+        }
+        return variants;
+    }
 
-        if(product.getImageName() != null && !product.getImageName().isEmpty()){
-            this.imageUrl = "http://localhost:8080/uploads/products/" + product.getImageName();
-        } else {
-            this.imageUrl = "http://localhost:8080/uploads/products/default.png";
+    private static String imageNameOrDefault(String imageName){
+        if(imageName != null && !imageName.isEmpty()){
+            return imageName;
         }
+        return "default.png";
     }
 }
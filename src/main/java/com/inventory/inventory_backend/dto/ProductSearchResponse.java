@@ -0,0 +1,16 @@
+package com.inventory.inventory_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ProductSearchResponse {
+
+    private List<?> items;      // ProductResponse or selected fields, ordered by relevance
+    private int page;
+    private int size;
+    private long total;
+}
@@ -0,0 +1,28 @@
+package com.inventory.inventory_backend.dto;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+// Stock value of one product (quantity * price), entry of the summary's top-N list
+@Getter
+public class ProductValue {
+
+    private final Long id;
+    private final String name;
+    private final int quantity;
+    private final BigDecimal price;
+    private final BigDecimal value;
+
+    public ProductValue(Long id, String name, int quantity, BigDecimal price) {
+        this.id = id;
+        this.name = name;
+        this.quantity = quantity;
+        this.price = price;
+        this.value = price.multiply(BigDecimal.valueOf(quantity));
+    }
+
+    public static ProductValue of(ProductView view) {
+        return new ProductValue(view.getId(), view.getName(), view.getQuantity(), view.getPrice());
+    }
+}
@@ -0,0 +1,39 @@
+package com.inventory.inventory_backend.dto;
+
+import com.inventory.inventory_backend.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+// Read model for product listings, filled by a single JPQL constructor query joining users
+// so no lazy 'user' proxy is initialized per row
+@Getter
+@AllArgsConstructor
+public class ProductView {
+
+    private Long id;
+    private String name;
+    private String description;
+    private int quantity;
+    private BigDecimal price;
+    private String imageName;
+
+    private Long userId;
+    private String username;
+
+    private long version;       // row version, orders change events of the same product
+
+    // Same product with another quantity, e.g. the state before a stock adjustment
+    public ProductView withQuantity(int quantity) {
+        return new ProductView(id, name, description, quantity, price, imageName, userId, username, version);
+    }
+
+    // For a product already in memory, the owner's username comes from the caller (e.g. the principal)
+    // instead of the lazy user association
+    public static ProductView of(Product product, String username) {
+        return new ProductView(product.getId(), product.getName(), product.getDescription(),
+                product.getQuantity(), product.getPrice(), product.getImageName(),
+                product.getUser().getId(), username, product.getVersion());
+    }
+}
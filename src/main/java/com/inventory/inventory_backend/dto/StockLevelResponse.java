@@ -0,0 +1,13 @@
+package com.inventory.inventory_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StockLevelResponse {
+
+    private Long productId;
+    private Integer quantity;       // null when the change was coalesced and is not flushed yet
+    private boolean coalesced;
+}
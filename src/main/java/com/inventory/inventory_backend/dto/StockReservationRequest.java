@@ -0,0 +1,35 @@
+package com.inventory.inventory_backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// All-or-nothing stock reservation over several products
+@Getter
+@Setter
+public class StockReservationRequest {
+
+    @NotEmpty(message = "At least one item is required")
+    private List<@Valid Item> items;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        @NotNull(message = "Product id is required")
+        private Long productId;
+
+        @NotNull(message = "Amount is required")
+        @Min(value = 1, message = "Amount must be at least 1")
+        private Integer amount;
+    }
+}
@@ -0,0 +1,48 @@
+package com.inventory.inventory_backend.event;
+
+import com.inventory.inventory_backend.dto.ProductView;
+import lombok.Getter;
+
+// Published by ProductController after a product change is saved, so derived state
+// (search index, caches...) can follow without re-reading the database
+@Getter
+public class ProductChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        BULK_CHANGED    // many products changed at once (e.g. an import), listeners reload the user's products
+    }
+
+    private final Type type;
+    private final Long userId;
+    private final Long productId;
+
+    private final ProductView before;   // null when CREATED or BULK_CHANGED
+    private final ProductView after;    // null when DELETED or BULK_CHANGED
+
+    private ProductChangedEvent(Type type, Long userId, Long productId, ProductView before, ProductView after) {
+        this.type = type;
+        this.userId = userId;
+        this.productId = productId;
+        this.before = before;
+        this.after = after;
+    }
+
+    public static ProductChangedEvent created(ProductView after) {
+        return new ProductChangedEvent(Type.CREATED, after.getUserId(), after.getId(), null, after);
+    }
+
+    public static ProductChangedEvent updated(ProductView before, ProductView after) {
+        return new ProductChangedEvent(Type.UPDATED, after.getUserId(), after.getId(), before, after);
+    }
+
+    public static ProductChangedEvent deleted(ProductView before) {
+        return new ProductChangedEvent(Type.DELETED, before.getUserId(), before.getId(), before, null);
+    }
+
+    public static ProductChangedEvent bulkChanged(Long userId) {
+        return new ProductChangedEvent(Type.BULK_CHANGED, userId, null, null, null);
+    }
+}
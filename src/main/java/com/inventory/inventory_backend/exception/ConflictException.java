@@ -0,0 +1,13 @@
+package com.inventory.inventory_backend.exception;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Request is valid but conflicts with the current state (concurrent update, not enough stock...)
+@Getter
+@AllArgsConstructor
+public class ConflictException extends RuntimeException{
+
+    private final String field;
+    private final String message;
+}
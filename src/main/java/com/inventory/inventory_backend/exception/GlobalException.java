@@ -3,6 +3,7 @@ package com.inventory.inventory_backend.exception;
 import com.inventory.inventory_backend.dto.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -46,6 +47,32 @@ public class GlobalException {
         return ResponseEntity.badRequest().body(new ErrorResponse(errors));
     }
 
+    // State conflicts (optimistic locking, insufficient stock)
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponse> handleConflict(ConflictException ex) {
+
+        log.warn("Conflict on field {}: {}", ex.getField(), ex.getMessage());
+
+        Map<String, String> errors = new HashMap<>();
+        errors.put(ex.getField(), ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(errors));
+    }
+
+    // Throttled or overloaded, Retry-After tells the client when to try again
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(TooManyRequestsException ex) {
+
+        log.warn("Too many requests on field {}: {}", ex.getField(), ex.getMessage());
+
+        Map<String, String> errors = new HashMap<>();
+        errors.put(ex.getField(), ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse(errors));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
 
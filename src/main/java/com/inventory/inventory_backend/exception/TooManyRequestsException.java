@@ -0,0 +1,14 @@
+package com.inventory.inventory_backend.exception;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Rejected to protect the server (throttled client, saturated worker pool), the client may retry later
+@Getter
+@AllArgsConstructor
+public class TooManyRequestsException extends RuntimeException{
+
+    private final String field;
+    private final String message;
+    private final long retryAfterSeconds;
+}
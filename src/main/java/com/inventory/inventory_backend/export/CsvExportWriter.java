@@ -0,0 +1,87 @@
+package com.inventory.inventory_backend.export;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// RFC 4180 CSV with a header row. name, description, quantity and price are the columns the import reads,
+// so an export can be imported again.
+class CsvExportWriter implements ProductExportWriter {
+
+    static final String HEADER = "id,name,description,quantity,price,image_name,version,updated_at";
+
+    private final ExportOutput output;
+    private final Writer writer;
+
+    // The header is only written at the start of the file, not when resuming
+    CsvExportWriter(ExportOutput output) throws IOException {
+        this.output = output;
+        this.writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        if (output.position() == 0) {
+            writer.write(HEADER);
+            writer.write("\r\n");
+        }
+    }
+
+    @Override
+    public void write(ExportRow row) throws IOException {
+        writer.write(Long.toString(row.id()));
+        writer.write(',');
+        field(row.name());
+        writer.write(',');
+        field(row.description());
+        writer.write(',');
+        writer.write(Integer.toString(row.quantity()));
+        writer.write(',');
+        writer.write(row.price().toPlainString());
+        writer.write(',');
+        field(row.imageName());
+        writer.write(',');
+        writer.write(Long.toString(row.version()));
+        writer.write(',');
+        if (row.updatedAt() != null) {
+            writer.write(row.updatedAt().toString());
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public long checkpoint() throws IOException {
+        writer.flush();
+        return output.sync();
+    }
+
+    @Override
+    public long finish() throws IOException {
+        return checkpoint();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+        output.close();
+    }
+
+    // Quoted only when needed, empty for null
+    private void field(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,79 @@
+package com.inventory.inventory_backend.export;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Where an export goes, counting the bytes: a file continued at a checkpoint, or a response stream
+class ExportOutput extends OutputStream {
+
+    private final FileChannel channel;      // null for a stream
+    private final OutputStream out;
+    private long position;
+
+    private ExportOutput(FileChannel channel, OutputStream out, long position) {
+        this.channel = channel;
+        this.out = new BufferedOutputStream(out, 64 * 1024);
+        this.position = position;
+    }
+
+    // Anything after 'resumeAt' was written after the last checkpoint and is cut off
+    static ExportOutput file(Path file, long resumeAt) throws IOException {
+        if (resumeAt > 0 && (!Files.exists(file) || Files.size(file) < resumeAt)) {
+            throw new IOException("Export file " + file + " is shorter than its checkpoint");
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(resumeAt);
+        channel.position(resumeAt);
+        return new ExportOutput(channel, Channels.newOutputStream(channel), resumeAt);
+    }
+
+    static ExportOutput stream(OutputStream out) {
+        return new ExportOutput(null, out, 0);
+    }
+
+    long position() {
+        return position;
+    }
+
+    // Flushed, and on disk for a file
+    long sync() throws IOException {
+        out.flush();
+        if (channel != null) {
+            channel.force(false);
+        }
+        return position;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        position++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        position += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    // A response stream is left open for the container
+    @Override
+    public void close() throws IOException {
+        out.flush();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
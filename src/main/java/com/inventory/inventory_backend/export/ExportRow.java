@@ -0,0 +1,27 @@
+package com.inventory.inventory_backend.export;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+// One exported product, read straight off the cursor without an entity
+record ExportRow(long id, String name, String description, int quantity, BigDecimal price,
+                 String imageName, long version, Instant updatedAt) {
+
+    static final String COLUMNS = "id, name, description, quantity, price, image_name, version, updated_at";
+
+    static ExportRow from(ResultSet rs) throws SQLException {
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return new ExportRow(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getInt("quantity"),
+                rs.getBigDecimal("price"),
+                rs.getString("image_name"),
+                rs.getLong("version"),
+                updatedAt != null ? updatedAt.toInstant() : null);
+    }
+}
@@ -0,0 +1,398 @@
+package com.inventory.inventory_backend.export;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+// Parquet with one PLAIN encoded, GZIP compressed data page per column chunk. Rows are buffered column by column
+// until a checkpoint or ROW_GROUP_BYTES, then written out as a row group, so memory is bounded by one row group.
+//
+// The footer lists every row group and is only written by finish(). For a resumable file the row group metadata
+// is also appended to an index file next to it, a resumed export reads it back and continues after the checkpoint.
+//
+// Written here rather than with parquet-java, whose writer needs Hadoop (about 50MB of client jars) on the
+// runtime classpath. parquet-java stays a test dependency: ParquetExportWriterTests.readableByParquetJava reading
+// these files back is the compatibility contract, any change to the layout has to keep it passing.
+class ParquetExportWriter implements ProductExportWriter {
+
+    static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int ROW_GROUP_BYTES = 8 * 1024 * 1024;
+    private static final int PRICE_SCALE = 2;           // numeric(38,2)
+    private static final int PRICE_PRECISION = 38;
+
+    // parquet.thrift enums
+    private static final int INT32 = 1;
+    private static final int INT64 = 2;
+    private static final int BYTE_ARRAY = 6;
+    private static final int REQUIRED = 0;
+    private static final int OPTIONAL = 1;
+    private static final int UTF8 = 0;
+    private static final int DECIMAL = 5;
+    private static final int TIMESTAMP_MILLIS = 9;
+    private static final int PLAIN = 0;
+    private static final int RLE = 3;
+    private static final int GZIP = 2;
+    private static final int DATA_PAGE = 0;
+
+    private final Column id = new Column("id", INT64, false, -1);
+    private final Column name = new Column("name", BYTE_ARRAY, false, UTF8);
+    private final Column description = new Column("description", BYTE_ARRAY, true, UTF8);
+    private final Column quantity = new Column("quantity", INT32, false, -1);
+    private final Column price = new Column("price", BYTE_ARRAY, false, DECIMAL);
+    private final Column imageName = new Column("image_name", BYTE_ARRAY, true, UTF8);
+    private final Column version = new Column("version", INT64, false, -1);
+    private final Column updatedAt = new Column("updated_at", INT64, true, TIMESTAMP_MILLIS);
+    private final List<Column> columns = List.of(id, name, description, quantity, price, imageName, version, updatedAt);
+
+    private final ExportOutput output;
+    private final Path indexFile;                       // null when not resumable
+    private final FileChannel index;
+    private final List<RowGroup> rowGroups = new ArrayList<>();
+    private int indexed;                                // row groups already in the index file
+    private long rows;                                  // rows in written row groups
+    private int buffered;                               // rows of the row group being built
+
+    // A file continued at a checkpoint needs the index written with it, a new file or stream starts with the magic
+    ParquetExportWriter(ExportOutput output, Path indexFile) throws IOException {
+        this.output = output;
+        this.indexFile = indexFile;
+
+        if (indexFile == null) {
+            if (output.position() != 0) {
+                throw new IllegalStateException("Resuming a Parquet export needs its row group index");
+            }
+            index = null;
+            output.write(MAGIC);
+            return;
+        }
+
+        index = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (output.position() == 0) {
+                index.truncate(0);
+                output.write(MAGIC);
+            } else {
+                readIndex(output.position());
+            }
+        } catch (IOException | RuntimeException e) {
+            index.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(ExportRow row) throws IOException {
+        id.int64(row.id());
+        name.binary(utf8(row.name()));
+        description.binary(utf8(row.description()));
+        quantity.int32(row.quantity());
+        price.binary(decimal(row.price()));
+        imageName.binary(utf8(row.imageName()));
+        version.int64(row.version());
+        updatedAt.int64(row.updatedAt() != null ? row.updatedAt().toEpochMilli() : null);
+        buffered++;
+
+        long bytes = 0;
+        for (Column column : columns) {
+            bytes += column.size();
+        }
+        if (bytes >= ROW_GROUP_BYTES) {
+            writeRowGroup();
+        }
+    }
+
+    @Override
+    public long checkpoint() throws IOException {
+        writeRowGroup();
+        long position = output.sync();
+
+        // After the data is on disk, so an indexed row group is always complete
+        if (index != null && indexed < rowGroups.size()) {
+            for (; indexed < rowGroups.size(); indexed++) {
+                RowGroup group = rowGroups.get(indexed);
+                ByteBuffer entry = ByteBuffer.allocate(20 + group.metadata().length)
+                        .putLong(group.end()).putLong(group.rows()).putInt(group.metadata().length).put(group.metadata())
+                        .flip();
+                while (entry.hasRemaining()) {
+                    index.write(entry);
+                }
+            }
+            index.force(false);
+        }
+        return position;
+    }
+
+    @Override
+    public long finish() throws IOException {
+        writeRowGroup();
+
+        ThriftCompactWriter footer = new ThriftCompactWriter()
+                .i32(1, 1)
+                .structList(2, schema())
+                .i64(3, rows)
+                .structList(4, rowGroups.stream().map(RowGroup::metadata).toList())
+                .string(6, "inventory-backend");
+        byte[] metadata = footer.toByteArray();
+        output.write(metadata);
+        output.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(metadata.length).array());
+        output.write(MAGIC);
+        long length = output.sync();
+
+        // The file is complete, nothing resumes it any more
+        if (index != null) {
+            index.close();
+            Files.deleteIfExists(indexFile);
+        }
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (index != null) {
+                index.close();
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    private void writeRowGroup() throws IOException {
+        if (buffered == 0) {
+            return;
+        }
+
+        long start = output.position();
+        long uncompressedSize = 0;
+        long compressedSize = 0;
+        List<byte[]> chunks = new ArrayList<>(columns.size());
+        for (Column column : columns) {
+            long offset = output.position();
+            byte[] page = column.page();
+            byte[] compressed = gzip(page);
+            byte[] header = new ThriftCompactWriter()
+                    .i32(1, DATA_PAGE)
+                    .i32(2, page.length)
+                    .i32(3, compressed.length)
+                    .beginStruct(5)
+                    .i32(1, buffered)
+                    .i32(2, PLAIN)
+                    .i32(3, RLE)
+                    .i32(4, RLE)
+                    .endStruct()
+                    .toByteArray();
+            output.write(header);
+            output.write(compressed);
+
+            long chunkUncompressed = header.length + page.length;
+            long chunkCompressed = header.length + compressed.length;
+            chunks.add(new ThriftCompactWriter()
+                    .i64(2, offset)
+                    .beginStruct(3)
+                    .i32(1, column.type)
+                    .i32List(2, PLAIN, RLE)
+                    .stringList(3, column.name)
+                    .i32(4, GZIP)
+                    .i64(5, buffered)
+                    .i64(6, chunkUncompressed)
+                    .i64(7, chunkCompressed)
+                    .i64(9, offset)
+                    .endStruct()
+                    .toByteArray());
+            uncompressedSize += chunkUncompressed;
+            compressedSize += chunkCompressed;
+            column.reset();
+        }
+
+        byte[] metadata = new ThriftCompactWriter()
+                .structList(1, chunks)
+                .i64(2, uncompressedSize)
+                .i64(3, buffered)
+                .i64(5, start)
+                .i64(6, compressedSize)
+                .toByteArray();
+        rowGroups.add(new RowGroup(output.position(), buffered, metadata));
+        rows += buffered;
+        buffered = 0;
+    }
+
+    // Keeps the row groups up to the checkpoint, a trailing entry cut short by a crash is ignored
+    private void readIndex(long resumeAt) throws IOException {
+        long kept = 0;
+        long end = MAGIC.length;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(index.position(0))));
+        try {
+            while (true) {
+                long groupEnd = in.readLong();
+                long groupRows = in.readLong();
+                byte[] metadata = new byte[in.readInt()];
+                in.readFully(metadata);
+                if (groupEnd > resumeAt) {
+                    break;
+                }
+                rowGroups.add(new RowGroup(groupEnd, groupRows, metadata));
+                rows += groupRows;
+                kept += 20 + metadata.length;
+                end = groupEnd;
+            }
+        } catch (EOFException ignored) {
+        }
+
+        if (end != resumeAt) {
+            throw new IOException("Row group index of " + indexFile + " does not end at the checkpoint " + resumeAt);
+        }
+        indexed = rowGroups.size();
+        index.truncate(kept);
+        index.position(kept);
+    }
+
+    private List<byte[]> schema() {
+        List<byte[]> schema = new ArrayList<>(columns.size() + 1);
+        schema.add(new ThriftCompactWriter().string(4, "schema").i32(5, columns.size()).toByteArray());
+        for (Column column : columns) {
+            ThriftCompactWriter element = new ThriftCompactWriter()
+                    .i32(1, column.type)
+                    .i32(3, column.optional ? OPTIONAL : REQUIRED)
+                    .string(4, column.name);
+            if (column.convertedType >= 0) {
+                element.i32(6, column.convertedType);
+            }
+            if (column.convertedType == DECIMAL) {
+                element.i32(7, PRICE_SCALE).i32(8, PRICE_PRECISION);
+            }
+            schema.add(element.toByteArray());
+        }
+        return schema;
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    // Unscaled value, big-endian two's complement
+    private static byte[] decimal(BigDecimal value) {
+        return value.setScale(PRICE_SCALE).unscaledValue().toByteArray();
+    }
+
+    private static byte[] gzip(byte[] page) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(page.length / 2 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(page);
+        }
+        return compressed.toByteArray();
+    }
+
+    private record RowGroup(long end, long rows, byte[] metadata) {
+    }
+
+    // Values of one column in the row group being built. Optional columns also keep their definition levels,
+    // one bit per row (1 = present), LSB first as in Parquet's bit-packed runs.
+    private final class Column {
+
+        final String name;
+        final int type;
+        final boolean optional;
+        final int convertedType;                        // -1 for none
+
+        private final ByteArrayOutputStream values = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream levels = new ByteArrayOutputStream();
+        private int levelByte;
+        private int levelBits;
+
+        Column(String name, int type, boolean optional, int convertedType) {
+            this.name = name;
+            this.type = type;
+            this.optional = optional;
+            this.convertedType = convertedType;
+        }
+
+        void int32(int value) {
+            for (int i = 0; i < 4; i++) {
+                values.write(value >>> (8 * i));
+            }
+        }
+
+        void int64(Long value) {
+            if (present(value != null)) {
+                for (int i = 0; i < 8; i++) {
+                    values.write((int) (value >>> (8 * i)));
+                }
+            }
+        }
+
+        void binary(byte[] value) {
+            if (present(value != null)) {
+                int32(value.length);
+                values.writeBytes(value);
+            }
+        }
+
+        long size() {
+            return values.size() + levels.size();
+        }
+
+        // Definition levels (4-byte length and bit-packed runs of up to 63 groups of 8) followed by the values
+        byte[] page() throws IOException {
+            ByteArrayOutputStream page = new ByteArrayOutputStream(values.size() + levels.size() + 16);
+            if (optional) {
+                if (levelBits > 0) {
+                    levels.write(levelByte);
+                }
+                byte[] packed = levels.toByteArray();
+                int runs = (packed.length + 62) / 63;
+                int length = packed.length + runs;
+                for (int i = 0; i < 4; i++) {
+                    page.write(length >>> (8 * i));
+                }
+                for (int offset = 0; offset < packed.length; offset += 63) {
+                    int groups = Math.min(63, packed.length - offset);
+                    page.write(groups << 1 | 1);
+                    page.write(packed, offset, groups);
+                }
+            }
+            values.writeTo(page);
+            return page.toByteArray();
+        }
+
+        void reset() {
+            values.reset();
+            levels.reset();
+            levelByte = 0;
+            levelBits = 0;
+        }
+
+        private boolean present(boolean present) {
+            if (!optional) {
+                if (!present) {
+                    throw new IllegalArgumentException("Column " + name + " is required");
+                }
+                return true;
+            }
+
+            if (present) {
+                levelByte |= 1 << levelBits;
+            }
+            if (++levelBits == 8) {
+                levels.write(levelByte);
+                levelByte = 0;
+                levelBits = 0;
+            }
+            return present;
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package com.inventory.inventory_backend.export;
+
+import com.inventory.inventory_backend.exception.ConflictException;
+import com.inventory.inventory_backend.exception.FieldValidationException;
+import com.inventory.inventory_backend.exception.TooManyRequestsException;
+import com.inventory.inventory_backend.model.ExportFormat;
+import com.inventory.inventory_backend.model.ExportJob;
+import com.inventory.inventory_backend.model.ExportStatus;
+import com.inventory.inventory_backend.repository.ExportJobRepository;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+// Exports a user's products as CSV or Parquet. The products are read through one forward-only result set in id
+// order, streamed row by row on MySQL and fetch-size rows at a time elsewhere, each row goes straight to the
+// writer, so memory does not grow with the catalog.
+//
+// Background jobs write to a file under the export directory and checkpoint every checkpoint-rows products:
+// the file is synced and its length, the row count and the last id go to export_jobs. A job that failed, or
+// whose node died (its lease runs out), continues after the last checkpoint instead of starting over.
+@Service
+public class ProductExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductExportService.class);
+
+    private static final String SELECT_SQL = "select " + ExportRow.COLUMNS + " from products " +
+            "where user_id = ? and id > ? order by id";
+
+    private static final List<ExportStatus> ACTIVE = List.of(ExportStatus.QUEUED, ExportStatus.RUNNING);
+    private static final List<ExportStatus> FINISHED = List.of(ExportStatus.COMPLETED, ExportStatus.FAILED);
+
+    // Finished jobs removed per sweep
+    private static final int CLEANUP_BATCH = 100;
+
+    private final ExportJobRepository exportJobRepository;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final TransactionTemplate checkpointTransactionTemplate;
+    private final Path exportDir;
+    private final int fetchSize;
+    private final int checkpointRows;
+    private final Duration checkpointInterval;
+    private final Duration lease;
+    private final Duration retention;
+    private final int maxActivePerUser;
+    private final int threads;
+    private final Map<ExportFormat, Counter> exportedRows = new EnumMap<>(ExportFormat.class);
+    private final ExecutorService executor;
+
+    // Jobs queued or running on this node, so the sweep doesn't submit them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    // Direct streams in progress on this node per user, they count towards max-active-per-user with the jobs
+    private final Map<Long, Integer> streaming = new ConcurrentHashMap<>();
+    private volatile boolean stopping;
+
+    public ProductExportService(ExportJobRepository exportJobRepository,
+                                ProductRepository productRepository,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                @Qualifier("readOnlyTransactionTemplate") TransactionTemplate readOnlyTransactionTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${inventory.export.dir:exports}") String exportDir,
+                                @Value("${inventory.export.fetch-size:1000}") int fetchSize,
+                                @Value("${inventory.export.checkpoint-rows:50000}") int checkpointRows,
+                                @Value("${inventory.export.checkpoint-interval:30s}") Duration checkpointInterval,
+                                @Value("${inventory.export.lease:5m}") Duration lease,
+                                @Value("${inventory.export.retention:7d}") Duration retention,
+                                @Value("${inventory.export.max-active-per-user:2}") int maxActivePerUser,
+                                @Value("${inventory.export.threads:2}") int threads) {
+        this.exportJobRepository = exportJobRepository;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransactionTemplate = readOnlyTransactionTemplate;
+        this.exportDir = Path.of(exportDir).toAbsolutePath().normalize();
+        this.fetchSize = fetchSize;
+        this.checkpointRows = checkpointRows;
+        this.checkpointInterval = checkpointInterval;
+        this.lease = lease;
+        this.retention = retention;
+        this.maxActivePerUser = maxActivePerUser;
+        this.threads = threads;
+
+        // Checkpoints commit on the primary while the read transaction of the cursor stays open
+        this.checkpointTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.checkpointTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        for (ExportFormat format : ExportFormat.values()) {
+            exportedRows.put(format, Counter.builder("inventory.export.rows")
+                    .description("Products written by exports")
+                    .tag("format", format.getExtension())
+                    .register(meterRegistry));
+        }
+
+        // Queued jobs that don't fit stay QUEUED in the table and are submitted again by the sweep
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(100),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "product-export");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // Running jobs stop at the next row and are queued again, another node (or this one after the restart) continues them
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    public ExportJob start(Long userId, ExportFormat format) {
+        if (exportJobRepository.countByUserIdAndStatusIn(userId, ACTIVE) + streaming.getOrDefault(userId, 0) >= maxActivePerUser) {
+            throw tooManyExports();
+        }
+
+        Instant now = Instant.now();
+        ExportJob job = transactionTemplate.execute(status -> exportJobRepository.save(ExportJob.builder()
+                .userId(userId)
+                .format(format)
+                .status(ExportStatus.QUEUED)
+                .totalRows(productRepository.findListVersion(userId).getCount())
+                .createdAt(now)
+                .updatedAt(now)
+                .build()));
+
+        submit(job.getId());
+        return job;
+    }
+
+    public ExportJob get(Long userId, Long id) {
+        return exportJobRepository.findById(id)
+                .filter(job -> job.getUserId().equals(userId))
+                .orElseThrow(() -> new FieldValidationException("general", "Export not found"));
+    }
+
+    // Continues a failed job after its last checkpoint
+    public ExportJob resume(Long userId, Long id) {
+        ExportJob job = transactionTemplate.execute(status -> {
+            ExportJob failed = get(userId, id);
+            if (failed.getStatus() != ExportStatus.FAILED) {
+                throw new ConflictException("status", "Only a failed export can be resumed");
+            }
+
+            failed.setStatus(ExportStatus.QUEUED);
+            failed.setError(null);
+            failed.setUpdatedAt(Instant.now());
+            return exportJobRepository.save(failed);
+        });
+
+        submit(job.getId());
+        return job;
+    }
+
+    // The exported file of a completed job
+    public Path completedFile(ExportJob job) {
+        if (job.getStatus() != ExportStatus.COMPLETED) {
+            throw new ConflictException("status", "Export is not completed yet");
+        }
+
+        Path file = file(job);
+        if (!Files.isRegularFile(file)) {
+            throw new FieldValidationException("general", "Export file not found");
+        }
+        return file;
+    }
+
+    // Takes one of the user's export places for a direct stream, before the response starts so a refusal is still
+    // a 429. The stream holds a read transaction and a connection until it is written, which gives the place back.
+    public DirectExport stream(Long userId, ExportFormat format) {
+        long jobs = exportJobRepository.countByUserIdAndStatusIn(userId, ACTIVE);
+        streaming.compute(userId, (id, open) -> {
+            int streams = open == null ? 0 : open;
+            if (jobs + streams >= maxActivePerUser) {
+                throw tooManyExports();
+            }
+            return streams + 1;
+        });
+        return new DirectExport(userId, format);
+    }
+
+    // Writes the products straight to a response, nothing is kept. Returns the number of products.
+    private long export(Long userId, ExportFormat format, OutputStream out) throws IOException {
+        long[] rows = {0};
+        Counter counter = exportedRows.get(format);
+
+        try (ProductExportWriter writer = writer(format, ExportOutput.stream(out), null)) {
+            read(userId, 0, row -> {
+                writer.write(row);
+                rows[0]++;
+                counter.increment();
+            });
+            writer.finish();
+        }
+        return rows[0];
+    }
+
+    // Submits queued jobs (and those whose node stopped renewing the lease) and removes old finished ones
+    @Scheduled(fixedDelayString = "${inventory.export.sweep-interval-ms:30000}")
+    public void sweep() {
+        if (stopping) {
+            return;
+        }
+
+        try {
+            exportJobRepository.findClaimable(ExportStatus.QUEUED, ExportStatus.RUNNING, Instant.now(), Limit.of(threads * 2))
+                    .forEach(this::submit);
+
+            List<ExportJob> expired = exportJobRepository.findByStatusInAndUpdatedAtBefore(
+                    FINISHED, Instant.now().minus(retention), Limit.of(CLEANUP_BATCH));
+            for (ExportJob job : expired) {
+                deleteFiles(job);
+                transactionTemplate.executeWithoutResult(status -> exportJobRepository.deleteById(job.getId()));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Export sweep failed", e);
+        }
+    }
+
+    private static TooManyRequestsException tooManyExports() {
+        return new TooManyRequestsException("format", "Too many exports in progress, wait for one to finish", 60);
+    }
+
+    Path file(ExportJob job) {
+        return exportDir.resolve("export-" + job.getId() + "." + job.getFormat().getExtension());
+    }
+
+    private Path indexFile(ExportJob job) {
+        return exportDir.resolve("export-" + job.getId() + ".rowgroups");
+    }
+
+    private void submit(Long jobId) {
+        if (stopping || !inFlight.add(jobId)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    inFlight.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(jobId);
+        }
+    }
+
+    private void run(Long jobId) {
+        Instant now = Instant.now();
+        boolean claimed = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                exportJobRepository.claim(jobId, ExportStatus.QUEUED, ExportStatus.RUNNING, now.plus(lease), now) == 1));
+        if (!claimed) {
+            return;
+        }
+
+        ExportJob job = exportJobRepository.findById(jobId).orElseThrow();
+        try {
+            long rows = export(job);
+            release(job, ExportStatus.COMPLETED, null, Instant.now());
+            log.info("Export {} of user {} completed, {} products", jobId, job.getUserId(), rows);
+        } catch (CancellationException e) {
+            // Shutting down, or another node took the job over after the lease ran out
+            if (stopping) {
+                release(job, ExportStatus.QUEUED, null, null);
+            }
+            log.info("Export {} stopped: {}", jobId, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Export {} of user {} failed", jobId, job.getUserId(), e);
+            release(job, ExportStatus.FAILED, "Export failed, it can be resumed", null);
+        }
+    }
+
+    private long export(ExportJob job) throws IOException {
+        Files.createDirectories(exportDir);
+        Path file = file(job);
+        long[] progress = {job.getRowsExported(), job.getLastProductId()};
+
+        ProductExportWriter opened;
+        try {
+            opened = writer(job.getFormat(), ExportOutput.file(file, job.getBytesWritten()), indexFile(job));
+        } catch (IOException e) {
+            if (job.getBytesWritten() == 0) {
+                throw e;
+            }
+            // The file was removed or lost its tail, e.g. the job moved to another node without shared storage
+            log.warn("Export {} can't continue at its checkpoint, starting over", job.getId(), e);
+            progress[0] = 0;
+            progress[1] = 0;
+            opened = writer(job.getFormat(), ExportOutput.file(file, 0), indexFile(job));
+        }
+
+        Counter counter = exportedRows.get(job.getFormat());
+        long[] nextCheckpoint = {System.nanoTime() + checkpointInterval.toNanos()};
+
+        try (ProductExportWriter writer = opened) {
+            read(job.getUserId(), progress[1], row -> {
+                if (stopping) {
+                    throw new CancellationException("shutting down");
+                }
+
+                writer.write(row);
+                progress[0]++;
+                progress[1] = row.id();
+                counter.increment();
+
+                // The interval keeps renewing the lease when rows come in slowly
+                if (progress[0] % checkpointRows == 0 || System.nanoTime() - nextCheckpoint[0] >= 0) {
+                    checkpoint(job, progress[0], progress[1], writer.checkpoint());
+                    nextCheckpoint[0] = System.nanoTime() + checkpointInterval.toNanos();
+                }
+            });
+
+            checkpoint(job, progress[0], progress[1], writer.finish());
+        }
+        return progress[0];
+    }
+
+    // Refused once the job has been claimed again, this attempt then stops
+    private void checkpoint(ExportJob job, long rows, long lastProductId, long bytes) {
+        Instant now = Instant.now();
+        boolean saved = Boolean.TRUE.equals(checkpointTransactionTemplate.execute(status ->
+                exportJobRepository.checkpoint(job.getId(), job.getAttempt(), ExportStatus.RUNNING,
+                        rows, lastProductId, bytes, now.plus(lease), now) == 1));
+        if (!saved) {
+            throw new CancellationException("taken over by another attempt");
+        }
+    }
+
+    private void release(ExportJob job, ExportStatus status, String error, Instant completedAt) {
+        transactionTemplate.executeWithoutResult(tx -> exportJobRepository.release(job.getId(), job.getAttempt(),
+                ExportStatus.RUNNING, status, error, completedAt, Instant.now()));
+    }
+
+    // Products of the user after 'afterId' in id order, one row at a time from the cursor. Read-only, so a
+    // read replica serves it when there is one.
+    private void read(Long userId, long afterId, RowHandler handler) throws IOException {
+        try {
+            readOnlyTransactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                // Connector/J reads a whole result set into memory unless this statement streams it
+                statement.setFetchSize(isMySql(connection) ? Integer.MIN_VALUE : fetchSize);
+                statement.setLong(1, userId);
+                statement.setLong(2, afterId);
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    handler.accept(ExportRow.from(rs));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // A streaming result set keeps the connection to itself until it is read, checkpoints use their own
+    private static boolean isMySql(Connection connection) throws SQLException {
+        return "MySQL".equals(connection.getMetaData().getDatabaseProductName());
+    }
+
+    private static ProductExportWriter writer(ExportFormat format, ExportOutput output, Path indexFile) throws IOException {
+        try {
+            return switch (format) {
+                case CSV -> new CsvExportWriter(output);
+                case PARQUET -> new ParquetExportWriter(output, indexFile);
+            };
+        } catch (IOException | RuntimeException e) {
+            output.close();
+            throw e;
+        }
+    }
+
+    private void deleteFiles(ExportJob job) throws IOException {
+        Files.deleteIfExists(file(job));
+        Files.deleteIfExists(indexFile(job));
+    }
+
+    private interface RowHandler {
+        void accept(ExportRow row) throws IOException;
+    }
+
+    // A direct stream with its export place taken, written once
+    public final class DirectExport {
+
+        private final Long userId;
+        private final ExportFormat format;
+
+        private DirectExport(Long userId, ExportFormat format) {
+            this.userId = userId;
+            this.format = format;
+        }
+
+        // Returns the number of products
+        public long writeTo(OutputStream out) throws IOException {
+            try {
+                return export(userId, format, out);
+            } finally {
+                streaming.computeIfPresent(userId, (id, open) -> open == 1 ? null : open - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.inventory.inventory_backend.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Writes exported products as they come off the cursor, only a bounded buffer is held in memory
+interface ProductExportWriter extends Closeable {
+
+    void write(ExportRow row) throws IOException;
+
+    // Makes everything written so far durable, returns the length a resumed export continues from
+    long checkpoint() throws IOException;
+
+    // Completes the output (the Parquet footer) and returns its final length
+    long finish() throws IOException;
+}
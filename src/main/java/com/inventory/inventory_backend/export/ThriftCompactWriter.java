@@ -0,0 +1,126 @@
+package com.inventory.inventory_backend.export;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+// Just enough of the Thrift compact protocol for Parquet's metadata: one struct with i32, i64, binary,
+// list and nested struct fields. Fields must be written in increasing id order, toByteArray() ends the struct.
+// Part of ParquetExportWriter, which is why Thrift itself isn't a dependency.
+class ThriftCompactWriter {
+
+    private static final int I32 = 5;
+    private static final int I64 = 6;
+    private static final int BINARY = 8;
+    private static final int LIST = 9;
+    private static final int STRUCT = 12;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final Deque<Integer> enclosingFieldIds = new ArrayDeque<>();
+    private int lastFieldId;
+
+    ThriftCompactWriter i32(int field, int value) {
+        fieldHeader(field, I32);
+        varint(zigzag(value));
+        return this;
+    }
+
+    ThriftCompactWriter i64(int field, long value) {
+        fieldHeader(field, I64);
+        varint(zigzag(value));
+        return this;
+    }
+
+    ThriftCompactWriter string(int field, String value) {
+        fieldHeader(field, BINARY);
+        binary(value.getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    ThriftCompactWriter i32List(int field, int... values) {
+        fieldHeader(field, LIST);
+        listHeader(values.length, I32);
+        for (int value : values) {
+            varint(zigzag(value));
+        }
+        return this;
+    }
+
+    ThriftCompactWriter stringList(int field, String... values) {
+        fieldHeader(field, LIST);
+        listHeader(values.length, BINARY);
+        for (String value : values) {
+            binary(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return this;
+    }
+
+    // Structs already encoded by another writer
+    ThriftCompactWriter structList(int field, List<byte[]> structs) {
+        fieldHeader(field, LIST);
+        listHeader(structs.size(), STRUCT);
+        structs.forEach(out::writeBytes);
+        return this;
+    }
+
+    ThriftCompactWriter beginStruct(int field) {
+        fieldHeader(field, STRUCT);
+        enclosingFieldIds.push(lastFieldId);
+        lastFieldId = 0;
+        return this;
+    }
+
+    ThriftCompactWriter endStruct() {
+        out.write(0);
+        lastFieldId = enclosingFieldIds.pop();
+        return this;
+    }
+
+    byte[] toByteArray() {
+        out.write(0);
+        return out.toByteArray();
+    }
+
+    private void fieldHeader(int field, int type) {
+        int delta = field - lastFieldId;
+        if (delta > 0 && delta <= 15) {
+            out.write(delta << 4 | type);
+        } else {
+            out.write(type);
+            varint(zigzag(field));
+        }
+        lastFieldId = field;
+    }
+
+    private void listHeader(int size, int elementType) {
+        if (size < 15) {
+            out.write(size << 4 | elementType);
+        } else {
+            out.write(0xF0 | elementType);
+            varint(size);
+        }
+    }
+
+    private void binary(byte[] value) {
+        varint(value.length);
+        out.writeBytes(value);
+    }
+
+    private void varint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+}
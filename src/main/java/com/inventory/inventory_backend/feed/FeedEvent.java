@@ -0,0 +1,21 @@
+package com.inventory.inventory_backend.feed;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// An event as written to subscribers, the data is serialized once for all of them.
+// A null name is a comment line (heartbeat).
+record FeedEvent(String id, String name, String data) {
+
+    static FeedEvent heartbeat() {
+        return new FeedEvent(null, null, "keepalive");
+    }
+
+    SseEmitter.SseEventBuilder toSse() {
+        if (name == null) {
+            return SseEmitter.event().comment(data);
+        }
+        // Already JSON, written as is rather than through the JSON converter again
+        return SseEmitter.event().id(id).name(name).data(data, MediaType.TEXT_PLAIN);
+    }
+}
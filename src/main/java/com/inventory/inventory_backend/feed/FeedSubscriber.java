@@ -0,0 +1,84 @@
+package com.inventory.inventory_backend.feed;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// One SSE connection. Publishers only queue events, a sender thread writes them, so a slow client never
+// blocks the request that changed a product. When the queue is full the client is disconnected instead, from the
+// publisher's side: the sender may be blocked writing to it.
+final class FeedSubscriber {
+
+    private final SseEmitter emitter;
+    private final BlockingQueue<FeedEvent> queue;
+    private final Executor sender;
+    private final Runnable onDropped;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean closed;
+
+    FeedSubscriber(SseEmitter emitter, int queueSize, Executor sender, Runnable onDropped) {
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.sender = sender;
+        this.onDropped = onDropped;
+
+        emitter.onCompletion(() -> closed = true);
+        emitter.onTimeout(() -> closed = true);
+        emitter.onError(e -> closed = true);
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    // false when the subscriber is closed, or was just dropped for not keeping up
+    boolean offer(FeedEvent event) {
+        if (closed) {
+            return false;
+        }
+        if (!queue.offer(event)) {
+            closed = true;
+            queue.clear();
+            onDropped.run();
+            // On a sender thread, completing waits for the write in progress, which fails at the server's write timeout
+            sender.execute(() -> emitter.completeWithError(new IOException("Change feed subscriber fell behind")));
+            return false;
+        }
+        return true;
+    }
+
+    void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            FeedEvent event;
+            while (!closed && (event = queue.poll()) != null) {
+                emitter.send(event.toSse());
+            }
+        } catch (Exception e) {
+            // Client gone
+            closed = true;
+        } finally {
+            scheduled.set(false);
+        }
+
+        if (closed) {
+            emitter.complete();
+        } else if (!queue.isEmpty()) {
+            // Queued after the last poll
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.inventory.inventory_backend.feed;
+
+import com.inventory.inventory_backend.dto.ProductDelta;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.exception.FieldValidationException;
+import com.inventory.inventory_backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Per-user stream of product changes (server-sent events), so dashboards apply deltas instead of polling
+// the listing. Clients subscribe, wait for 'ready', fetch the listing once and then apply the deltas.
+// A client reconnecting with Last-Event-ID gets the deltas it missed from the user's ring buffer, or a 'reset'
+// (refetch) when they are gone: too old, feed expired, or the connection landed on another node.
+@Component
+public class ProductChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeFeed.class);
+
+    private static final String READY_DATA = "{\"op\":\"ready\"}";
+    private static final String RESET_DATA = "{\"op\":\"" + ProductDelta.RESET + "\"}";
+
+    private final JsonMapper jsonMapper;
+    private final boolean enabled;
+    private final int bufferSize;
+    private final int queueSize;
+    private final int maxSubscribersPerUser;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final long retentionNanos;
+    private final ThreadPoolExecutor sender;
+    private final Counter droppedSubscribers;
+
+    // Only users with a subscriber, or one within 'retention', have a feed; changes of others aren't kept
+    private final Map<Long, UserFeed> feeds = new ConcurrentHashMap<>();
+
+    public ProductChangeFeed(JsonMapper jsonMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${inventory.feed.enabled:true}") boolean enabled,
+                             @Value("${inventory.feed.buffer-size:1024}") int bufferSize,
+                             @Value("${inventory.feed.subscriber-queue-size:256}") int queueSize,
+                             @Value("${inventory.feed.max-subscribers-per-user:10}") int maxSubscribersPerUser,
+                             @Value("${inventory.feed.max-subscribers:1000}") int maxSubscribers,
+                             @Value("${inventory.feed.timeout:30m}") Duration timeout,
+                             @Value("${inventory.feed.retention:10m}") Duration retention) {
+        this.jsonMapper = jsonMapper;
+        this.enabled = enabled;
+        this.bufferSize = bufferSize;
+        this.queueSize = queueSize;
+        this.maxSubscribersPerUser = maxSubscribersPerUser;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.retentionNanos = retention.toNanos();
+
+        // Writes to clients, up to a thread per open connection, so a client that stops reading only holds its own
+        // thread, until the server's write timeout (server.tomcat.connection-timeout) fails the write. Never more
+        // threads than max-subscribers, anything beyond waits in the queue. Idle threads are let go after a minute.
+        this.sender = new ThreadPoolExecutor(maxSubscribers, maxSubscribers, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "feed-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sender.allowCoreThreadTimeOut(true);
+
+        this.droppedSubscribers = Counter.builder("inventory.feed.dropped_subscribers")
+                .description("Change feed subscribers disconnected for not keeping up")
+                .register(meterRegistry);
+        Gauge.builder("inventory.feed.subscribers", this, ProductChangeFeed::subscriberCount)
+                .description("Open change feed connections")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        return subscribe(userId, lastEventId, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(Long userId, String lastEventId, SseEmitter emitter) {
+        if (!enabled) {
+            throw new FieldValidationException("general", "Change feed is disabled");
+        }
+
+        // Across users, also bounds the sender threads. Checked before joining, concurrent subscribes may overshoot
+        // by a few
+        if (subscriberCount() >= maxSubscribers) {
+            throw new TooManyRequestsException("general", "Too many open change feeds on this server", 5);
+        }
+
+        FeedSubscriber subscriber = new FeedSubscriber(emitter, queueSize, sender, this::dropped);
+
+        // Atomic with the removal of idle feeds, the subscriber never joins a feed that is being dropped
+        feeds.compute(userId, (id, existing) -> {
+            UserFeed feed = existing != null ? existing : new UserFeed(newFeedId(), bufferSize);
+            if (feed.subscriberCount() >= maxSubscribersPerUser) {
+                throw new TooManyRequestsException("general", "Too many open change feeds", 5);
+            }
+            feed.subscribe(subscriber, lastEventId, READY_DATA, RESET_DATA);
+            return feed;
+        });
+
+        subscriber.schedule();
+        return emitter;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        UserFeed feed = feeds.get(event.getUserId());
+        if (feed == null) {
+            return;
+        }
+
+        ProductDelta delta = ProductDelta.of(event);
+        String data = jsonMapper.writeValueAsString(delta);
+        feed.append(delta.getOp(), data).forEach(FeedSubscriber::schedule);
+    }
+
+    // Keeps idle connections open through proxies and finds closed ones
+    @Scheduled(fixedDelayString = "${inventory.feed.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Long userId : feeds.keySet()) {
+            UserFeed feed = feeds.computeIfPresent(userId, (id, existing) ->
+                    existing.idleLongerThan(retentionNanos) ? null : existing);
+            if (feed != null) {
+                feed.heartbeat().forEach(FeedSubscriber::schedule);
+            }
+        }
+    }
+
+    // Most sender threads alive at once so far
+    int largestSenderPoolSize() {
+        return sender.getLargestPoolSize();
+    }
+
+    int subscriberCount() {
+        return feeds.values().stream().mapToInt(UserFeed::subscriberCount).sum();
+    }
+
+    private void dropped() {
+        droppedSubscribers.increment();
+        log.debug("Change feed subscriber disconnected, more than {} events queued", queueSize);
+    }
+
+    private static String newFeedId() {
+        return HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
+    }
+}
@@ -0,0 +1,101 @@
+package com.inventory.inventory_backend.feed;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Changes of one user's products: the last deltas in a ring, numbered from 1, and the open subscriptions.
+// Event ids are '<feed id>-<sequence>'; the feed id changes whenever the feed is created again
+// (restart, other node, expired), so ids of another feed are never mistaken for positions in this one.
+final class UserFeed {
+
+    private record Entry(String name, String data) {
+    }
+
+    private final String id;
+    private final Entry[] ring;
+    private final List<FeedSubscriber> subscribers = new ArrayList<>();
+    private long sequence;
+    private long idleSince = System.nanoTime();
+
+    UserFeed(String id, int bufferSize) {
+        this.id = id;
+        this.ring = new Entry[bufferSize];
+    }
+
+    // Queues what the subscriber missed (or a reset / ready event), then adds it, so nothing is lost or doubled
+    synchronized void subscribe(FeedSubscriber subscriber, String lastEventId, String readyData, String resetData) {
+        Long since = position(lastEventId);
+
+        if (lastEventId == null) {
+            subscriber.offer(new FeedEvent(eventId(sequence), "ready", readyData));
+        } else if (since == null || since > sequence || since < sequence - ring.length) {
+            subscriber.offer(new FeedEvent(eventId(sequence), "reset", resetData));
+        } else {
+            for (long next = since + 1; next <= sequence; next++) {
+                Entry entry = ring[index(next)];
+                subscriber.offer(new FeedEvent(eventId(next), entry.name(), entry.data()));
+            }
+        }
+
+        subscribers.add(subscriber);
+    }
+
+    // Returns the subscribers that got the event and need their queue drained
+    synchronized List<FeedSubscriber> append(String name, String data) {
+        sequence++;
+        ring[index(sequence)] = new Entry(name, data);
+
+        FeedEvent event = new FeedEvent(eventId(sequence), name, data);
+        List<FeedSubscriber> notified = new ArrayList<>(subscribers.size());
+        for (FeedSubscriber subscriber : subscribers) {
+            if (subscriber.offer(event)) {
+                notified.add(subscriber);
+            }
+        }
+        prune();
+        return notified;
+    }
+
+    // Closed subscribers are removed here, dropped ones counted by the caller
+    synchronized List<FeedSubscriber> heartbeat() {
+        FeedEvent heartbeat = FeedEvent.heartbeat();
+        subscribers.forEach(subscriber -> subscriber.offer(heartbeat));
+        prune();
+        return List.copyOf(subscribers);
+    }
+
+    synchronized int subscriberCount() {
+        prune();
+        return subscribers.size();
+    }
+
+    synchronized boolean idleLongerThan(long nanos) {
+        prune();
+        return subscribers.isEmpty() && System.nanoTime() - idleSince > nanos;
+    }
+
+    private void prune() {
+        if (subscribers.removeIf(FeedSubscriber::isClosed) && subscribers.isEmpty()) {
+            idleSince = System.nanoTime();
+        }
+    }
+
+    private Long position(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(id + "-")) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(id.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String eventId(long sequence) {
+        return id + "-" + sequence;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % ring.length);
+    }
+}
@@ -0,0 +1,91 @@
+package com.inventory.inventory_backend.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Latency histograms of internal stages and hit/miss counters of the caches that aren't Caffeine caches.
+// Every meter is registered up front, recording is an EnumMap lookup plus Timer.record(nanos) or
+// Counter.increment(), so the hot path does no tag lookup or allocation.
+// Endpoint latency comes from Spring's http.server.requests timer (histogram enabled in application.properties).
+@Component
+public class StageMetrics {
+
+    public enum Stage {
+        JWT_PARSE("auth.jwt_parse"),
+        PRINCIPAL_LOAD("auth.principal_load"),      // DB lookup on a principal cache miss
+        PASSWORD_HASH("auth.password_hash"),
+        PASSWORD_CHECK("auth.password_check"),
+        PRODUCT_QUERY("db.product_listing"),
+        CONNECTION_ACQUIRE("db.connection_acquire"),  // wait for a pooled connection (TimedDataSource)
+        IMAGE_STORE("file_io.image_store"),
+        IMAGE_VARIANT("file_io.image_variant"),
+        JSON_WRITE("serialization.json");           // includes writing the body to the response
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public enum CacheName {
+        IMAGE_VARIANT("image_variants"),
+        PRODUCT_LISTING_ETAG("product_listing_etag");
+
+        private final String tag;
+
+        CacheName(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+    private final Map<CacheName, Counter> hits = new EnumMap<>(CacheName.class);
+    private final Map<CacheName, Counter> misses = new EnumMap<>(CacheName.class);
+
+    public StageMetrics(MeterRegistry registry) {
+        for (Stage stage : Stage.values()) {
+            timers.put(stage, Timer.builder("inventory.stage")
+                    .description("Latency of internal request stages")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.of(10, ChronoUnit.MICROS))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(registry));
+        }
+
+        for (CacheName cache : CacheName.values()) {
+            hits.put(cache, cacheCounter(registry, cache, "hit"));
+            misses.put(cache, cacheCounter(registry, cache, "miss"));
+        }
+    }
+
+    // Usage: long start = System.nanoTime(); ... metrics.record(Stage.X, start);
+    public void record(Stage stage, long startNanos) {
+        timers.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void cacheResult(CacheName cache, boolean hit) {
+        (hit ? hits : misses).get(cache).increment();
+    }
+
+    public Timer getTimer(Stage stage) {
+        return timers.get(stage);
+    }
+
+    private static Counter cacheCounter(MeterRegistry registry, CacheName cache, String result) {
+        return Counter.builder("inventory.cache.requests")
+                .description("Cache lookups by result")
+                .tag("cache", cache.tag)
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,92 @@
+package com.inventory.inventory_backend.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Times every getConnection() as the db.connection_acquire stage, so pool waits show up in the same histogram
+// as the queries they delay. Acquires slower than the threshold are counted, and at most one warning per
+// interval is logged with the pool state (a too small pool, or connections held too long).
+public class TimedDataSource extends DelegatingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(TimedDataSource.class);
+    private static final long WARN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final StageMetrics stageMetrics;
+    private final Counter slowAcquires;
+    private final long slowThresholdNanos;
+
+    private final AtomicLong nextWarnNanos = new AtomicLong(System.nanoTime());
+    private final AtomicLong slowSinceWarn = new AtomicLong();
+
+    public TimedDataSource(DataSource target, StageMetrics stageMetrics, MeterRegistry registry, Duration slowThreshold) {
+        super(target);
+        this.stageMetrics = stageMetrics;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.slowAcquires = Counter.builder("inventory.db.connection.slow_acquires")
+                .description("Connection acquires slower than inventory.datasource.slow-acquire-threshold")
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return super.getConnection();
+        } finally {
+            acquired(start);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return super.getConnection(username, password);
+        } finally {
+            acquired(start);
+        }
+    }
+
+    private void acquired(long start) {
+        stageMetrics.record(StageMetrics.Stage.CONNECTION_ACQUIRE, start);
+
+        long now = System.nanoTime();
+        long elapsed = now - start;
+        if (elapsed < slowThresholdNanos) {
+            return;
+        }
+
+        slowAcquires.increment();
+        long slow = slowSinceWarn.incrementAndGet();
+
+        long nextWarn = nextWarnNanos.get();
+        if (now - nextWarn >= 0 && nextWarnNanos.compareAndSet(nextWarn, now + WARN_INTERVAL_NANOS)) {
+            slowSinceWarn.addAndGet(-slow);
+            log.warn("Slow connection acquire: {} ms, {} slow acquires since the last warning, pool {}",
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), slow, poolState());
+        }
+    }
+
+    private String poolState() {
+        if (getTargetDataSource() instanceof HikariDataSource hikari) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool != null) {
+                return "active=" + pool.getActiveConnections() + " idle=" + pool.getIdleConnections()
+                        + " waiting=" + pool.getThreadsAwaitingConnection() + " max=" + hikari.getMaximumPoolSize();
+            }
+        }
+        return "(no pool stats)";
+    }
+}
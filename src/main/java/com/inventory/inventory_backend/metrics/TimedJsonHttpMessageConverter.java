@@ -0,0 +1,32 @@
+package com.inventory.inventory_backend.metrics;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.Map;
+
+// The JSON converter Spring Boot configured, with the time spent writing response bodies recorded
+public class TimedJsonHttpMessageConverter extends JacksonJsonHttpMessageConverter {
+
+    private final StageMetrics stageMetrics;
+
+    public TimedJsonHttpMessageConverter(JsonMapper mapper, StageMetrics stageMetrics) {
+        super(mapper);
+        this.stageMetrics = stageMetrics;
+    }
+
+    @Override
+    protected void writeInternal(Object object, ResolvableType resolvableType, HttpOutputMessage outputMessage,
+                                 Map<String, Object> hints) throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, resolvableType, outputMessage, hints);
+        } finally {
+            stageMetrics.record(StageMetrics.Stage.JSON_WRITE, start);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.inventory.inventory_backend.model;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+    CSV("csv", "text/csv"),
+    PARQUET("parquet", "application/vnd.apache.parquet");
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    // 'csv' or 'parquet', null for anything else
+    public static ExportFormat fromExtension(String extension) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equals(extension.toLowerCase(Locale.ROOT))) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
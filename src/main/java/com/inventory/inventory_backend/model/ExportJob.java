@@ -0,0 +1,66 @@
+package com.inventory.inventory_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+// A background product export, see ProductExportService. The counters are those of the last checkpoint.
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "export_jobs")
+public class ExportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)                     // varchar column, values can be added without a migration
+    @Column(name = "format", nullable = false, length = 20)
+    private ExportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "status", nullable = false, length = 20)
+    private ExportStatus status;
+
+    @Column(name = "total_rows", nullable = false)
+    private long totalRows;                             // products of the user when the job was created
+
+    @Column(name = "rows_exported", nullable = false)
+    private long rowsExported;
+
+    @Column(name = "last_product_id", nullable = false)
+    private long lastProductId;                         // keyset position, the job continues after this id
+
+    @Column(name = "bytes_written", nullable = false)
+    private long bytesWritten;                          // durable length of the file
+
+    @Column(name = "attempt", nullable = false)
+    private int attempt;                                // bumped by every claim, checkpoints of an older claim are refused
+
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
+    @Column(name = "error", length = 500)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+}
@@ -0,0 +1,8 @@
+package com.inventory.inventory_backend.model;
+
+public enum ExportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,30 @@
+package com.inventory.inventory_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// One stored image file, named after the SHA-256 of its content and shared by every product using it
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "image_blobs")
+public class ImageBlob {
+
+    @Id
+    @Column(name = "name", length = 80)
+    private String name;            // <sha256 hex>.<extension>, also the file name on disk
+
+    @Column(name = "size", nullable = false)
+    private long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;           // number of products pointing at this image
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
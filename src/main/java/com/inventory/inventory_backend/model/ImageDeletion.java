@@ -0,0 +1,31 @@
+package com.inventory.inventory_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Pending removal of an image file (outbox row), queued in the transaction that dropped its last reference
+// and processed by ImageGarbageCollector once that transaction committed
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "image_deletions")
+public class ImageDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "image_name", nullable = false)
+    private String imageName;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;           // failed removals so far
+}
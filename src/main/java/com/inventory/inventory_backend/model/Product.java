@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Getter
 @Setter
@@ -21,6 +22,9 @@ public class Product {
     @Column(name = "name", nullable = false)
     private String name;
 
+    @Column(name = "name_lower", insertable = false, updatable = false)
+    private String nameLower;                           // lower(name), generated and indexed by the database for name search
+
     @Column(name = "description", length = 500)
     private String description;
 
@@ -37,6 +41,19 @@ public class Product {
     @JoinColumn(name = "user_id", nullable = false)     // foreign key column
     private User user;                                  // Link to User
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;                               // Optimistic locking, bumped by every update
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;                          // Last insert/update, used for the listing ETag
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.updatedAt = Instant.now();
+    }
+
 
     // All code below was comment because of using Lombok, thus no need to do it all by myself
 //    // Constructor
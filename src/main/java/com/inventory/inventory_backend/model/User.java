@@ -1,5 +1,6 @@
 package com.inventory.inventory_backend.model;
 
+import com.inventory.inventory_backend.security.UserChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -12,6 +13,7 @@ import lombok.*;
 @AllArgsConstructor
 @Builder
 @Entity
+@EntityListeners(UserChangeListener.class)     // keeps the principal cache in sync with user changes
 @Table(name = "users",
         uniqueConstraints = {
                 @UniqueConstraint(columnNames = "username"),
@@ -0,0 +1,48 @@
+package com.inventory.inventory_backend.repository;
+
+import com.inventory.inventory_backend.model.ExportJob;
+import com.inventory.inventory_backend.model.ExportStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ExportJobRepository extends JpaRepository<ExportJob, Long> {
+
+    long countByUserIdAndStatusIn(Long userId, Collection<ExportStatus> statuses);
+
+    // Queued jobs and running ones whose node stopped renewing the lease, oldest first
+    @Query("select j.id from ExportJob j where j.status = :queued or (j.status = :running and j.leaseUntil < :now) order by j.id")
+    List<Long> findClaimable(@Param("queued") ExportStatus queued, @Param("running") ExportStatus running,
+                             @Param("now") Instant now, Limit limit);
+
+    List<ExportJob> findByStatusInAndUpdatedAtBefore(Collection<ExportStatus> statuses, Instant before, Limit limit);
+
+    // Only one node wins a job, the others update nothing
+    @Modifying
+    @Query("update ExportJob j set j.status = :running, j.attempt = j.attempt + 1, j.leaseUntil = :leaseUntil, j.updatedAt = :now " +
+            "where j.id = :id and (j.status = :queued or (j.status = :running and j.leaseUntil < :now))")
+    int claim(@Param("id") Long id, @Param("queued") ExportStatus queued, @Param("running") ExportStatus running,
+              @Param("leaseUntil") Instant leaseUntil, @Param("now") Instant now);
+
+    // Refused (0 rows) once another node took the job over
+    @Modifying
+    @Query("update ExportJob j set j.rowsExported = :rows, j.lastProductId = :lastProductId, j.bytesWritten = :bytes, " +
+            "j.leaseUntil = :leaseUntil, j.updatedAt = :now where j.id = :id and j.attempt = :attempt and j.status = :running")
+    int checkpoint(@Param("id") Long id, @Param("attempt") int attempt, @Param("running") ExportStatus running,
+                   @Param("rows") long rows, @Param("lastProductId") long lastProductId, @Param("bytes") long bytes,
+                   @Param("leaseUntil") Instant leaseUntil, @Param("now") Instant now);
+
+    // Ends the claim: COMPLETED, FAILED, or QUEUED again when the node shuts down mid-export
+    @Modifying
+    @Query("update ExportJob j set j.status = :status, j.error = :error, j.leaseUntil = null, j.updatedAt = :now, " +
+            "j.completedAt = :completedAt where j.id = :id and j.attempt = :attempt and j.status = :running")
+    int release(@Param("id") Long id, @Param("attempt") int attempt, @Param("running") ExportStatus running,
+                @Param("status") ExportStatus status, @Param("error") String error,
+                @Param("completedAt") Instant completedAt, @Param("now") Instant now);
+}
@@ -0,0 +1,23 @@
+package com.inventory.inventory_backend.repository;
+
+import com.inventory.inventory_backend.model.ImageBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+    // Row lock so reference counting and file removal can't interleave with another upload of the same image
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from ImageBlob b where b.name = :name")
+    Optional<ImageBlob> findForUpdate(@Param("name") String name);
+
+    @Query("select b.name from ImageBlob b where b.name in :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+}
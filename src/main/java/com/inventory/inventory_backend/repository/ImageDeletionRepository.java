@@ -0,0 +1,22 @@
+package com.inventory.inventory_backend.repository;
+
+import com.inventory.inventory_backend.model.ImageDeletion;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ImageDeletionRepository extends JpaRepository<ImageDeletion, Long> {
+
+    // Oldest first, rows that failed too often stay in the table for inspection
+    List<ImageDeletion> findByAttemptsLessThanOrderByIdAsc(int maxAttempts, Limit limit);
+
+    boolean existsByImageName(String imageName);
+
+    @Modifying
+    @Query("update ImageDeletion d set d.attempts = d.attempts + 1 where d.id = :id")
+    int incrementAttempts(@Param("id") Long id);
+}
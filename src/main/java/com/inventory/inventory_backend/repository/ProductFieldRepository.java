@@ -0,0 +1,14 @@
+package com.inventory.inventory_backend.repository;
+
+import com.inventory.inventory_backend.dto.ProductFields;
+import com.inventory.inventory_backend.dto.ProductView;
+
+import java.util.List;
+
+// Listing queries that read only the columns of a sparse field selection (implemented in ProductFieldRepositoryImpl)
+public interface ProductFieldRepository {
+
+    // Keyset page in id order; 'pattern' as in ProductRepository.NAME_LIKE or null, 'limit' null for every row.
+    // Unselected fields of the returned views are empty (null, or 0 for quantity and version)
+    List<ProductView> findFieldsByUserIdAfter(Long userId, ProductFields fields, String pattern, Long afterId, Integer limit);
+}
@@ -0,0 +1,87 @@
+package com.inventory.inventory_backend.repository;
+
+import com.inventory.inventory_backend.dto.ProductField;
+import com.inventory.inventory_backend.dto.ProductFields;
+import com.inventory.inventory_backend.dto.ProductView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductFieldRepositoryImpl implements ProductFieldRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductView> findFieldsByUserIdAfter(Long userId, ProductFields fields, String pattern, Long afterId, Integer limit) {
+        boolean name = fields.contains(ProductField.NAME);
+        boolean description = fields.contains(ProductField.DESCRIPTION);
+        boolean quantity = fields.contains(ProductField.QUANTITY);
+        boolean price = fields.contains(ProductField.PRICE);
+        boolean image = fields.contains(ProductField.IMAGE_URL) || fields.contains(ProductField.IMAGE_VARIANTS);
+        boolean username = fields.contains(ProductField.USERNAME);
+
+        // The id is always read, it is the keyset cursor. users is joined only for the username
+        StringBuilder jpql = new StringBuilder("select p.id");
+        if (name) {
+            jpql.append(", p.name");
+        }
+        if (description) {
+            jpql.append(", p.description");
+        }
+        if (quantity) {
+            jpql.append(", p.quantity");
+        }
+        if (price) {
+            jpql.append(", p.price");
+        }
+        if (image) {
+            jpql.append(", p.imageName");
+        }
+        if (username) {
+            jpql.append(", u.username");
+        }
+
+        jpql.append(" from Product p");
+        if (username) {
+            jpql.append(" join p.user u");
+        }
+        jpql.append(" where p.user.id = :userId and p.id > :afterId");
+        if (pattern != null) {
+            jpql.append(" and ").append(ProductRepository.NAME_LIKE);
+        }
+        jpql.append(" order by p.id");
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setParameter("userId", userId)
+                .setParameter("afterId", afterId);
+        if (pattern != null) {
+            query.setParameter("pattern", pattern);
+        }
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+
+        List<Object[]> rows = query.getResultList();
+        List<ProductView> views = new ArrayList<>(rows.size());
+
+        for (Object[] row : rows) {
+            int column = 1;
+            Long id = (Long) row[0];
+            String productName = name ? (String) row[column++] : null;
+            String productDescription = description ? (String) row[column++] : null;
+            int productQuantity = quantity ? (Integer) row[column++] : 0;
+            BigDecimal productPrice = price ? (BigDecimal) row[column++] : null;
+            String imageName = image ? (String) row[column++] : null;
+            String productUsername = username ? (String) row[column] : null;
+
+            views.add(new ProductView(id, productName, productDescription, productQuantity, productPrice, imageName,
+                    userId, productUsername, 0));
+        }
+        return views;
+    }
+}
@@ -1,16 +1,98 @@
 package com.inventory.inventory_backend.repository;
 
+import com.inventory.inventory_backend.dto.InventoryTotals;
+import com.inventory.inventory_backend.dto.ProductListVersion;
+import com.inventory.inventory_backend.dto.ProductValue;
+import com.inventory.inventory_backend.dto.ProductView;
 import com.inventory.inventory_backend.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductFieldRepository {
+
+    // Selects only the columns ProductResponse needs, users joined once for the whole result
+    String VIEW_SELECT = "select new com.inventory.inventory_backend.dto.ProductView(" +
+            "p.id, p.name, p.description, p.quantity, p.price, p.imageName, u.id, u.username, p.version) " +
+            "from Product p join p.user u ";
+
+    // Name filter for the view queries, ':pattern' is a lower-cased LIKE pattern escaped with '!'
+    // ('!' rather than backslash, which MySQL treats as an escape inside string literals).
+    // On the generated lower(name) column, which is indexed together with user_id
+    String NAME_LIKE = "p.nameLower like :pattern escape '!' ";
 
     List<Product> findByUserId(Long userId);
 
     List<Product> findByUserIdAndNameContainingIgnoreCase(Long userId, String keyword);
 
+    @Query(VIEW_SELECT + "where u.id = :userId order by p.id")
+    List<ProductView> findViewsByUserId(@Param("userId") Long userId);
+
+    @Query(VIEW_SELECT + "where u.id = :userId and " + NAME_LIKE + "order by p.id")
+    List<ProductView> findViewsByUserIdAndNameLike(@Param("userId") Long userId, @Param("pattern") String pattern);
+
+    // Keyset pagination: next 'limit' products after the given id
+    @Query(VIEW_SELECT + "where u.id = :userId and p.id > :afterId order by p.id")
+    List<ProductView> findViewsByUserIdAfter(@Param("userId") Long userId, @Param("afterId") Long afterId, Limit limit);
+
+    @Query(VIEW_SELECT + "where u.id = :userId and p.id > :afterId and " + NAME_LIKE + "order by p.id")
+    List<ProductView> findViewsByUserIdAndNameLikeAfter(@Param("userId") Long userId, @Param("pattern") String pattern,
+                                                        @Param("afterId") Long afterId, Limit limit);
+
+    // Cheap fingerprint of a user's list for ETags, no rows are read or serialized
+    @Query("select new com.inventory.inventory_backend.dto.ProductListVersion(count(p), max(p.id), max(p.updatedAt)) " +
+            "from Product p where p.user.id = :userId")
+    ProductListVersion findListVersion(@Param("userId") Long userId);
+
+    // Inventory summary in one pass over the user's rows, instead of summing the whole listing client-side
+    @Query("select new com.inventory.inventory_backend.dto.InventoryTotals(count(p), sum(p.quantity), " +
+            "sum(p.price * p.quantity), sum(case when p.quantity <= :threshold then 1 else 0 end)) " +
+            "from Product p where p.user.id = :userId")
+    InventoryTotals findTotals(@Param("userId") Long userId, @Param("threshold") int threshold);
+
+    @Query("select new com.inventory.inventory_backend.dto.ProductValue(p.id, p.name, p.quantity, p.price) " +
+            "from Product p where p.user.id = :userId order by p.price * p.quantity desc, p.id")
+    List<ProductValue> findTopByValue(@Param("userId") Long userId, Limit limit);
+
+    // Every user's products in id order, for rebuilding derived state in chunks
+    @Query(VIEW_SELECT + "where p.id > :afterId order by p.id")
+    List<ProductView> findViewsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(VIEW_SELECT + "where p.id = :id")
+    Optional<ProductView> findViewById(@Param("id") Long id);
+
+    @Query(VIEW_SELECT + "where p.id in :ids order by p.id")
+    List<ProductView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Ownership check of a batch: products of the list that exist and belong to the user
+    @Query(VIEW_SELECT + "where u.id = :userId and p.id in :ids order by p.id")
+    List<ProductView> findViewsByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    // Atomic stock adjustments: a single conditional UPDATE instead of read-modify-write, returns rows changed
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity + :amount, p.version = p.version + 1, p.updatedAt = :now " +
+            "where p.id = :id and p.user.id = :userId")
+    int incrementQuantity(@Param("id") Long id, @Param("userId") Long userId, @Param("amount") int amount, @Param("now") Instant now);
+
+    // 0 rows when the product is missing, not owned or has less than 'amount' in stock
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity - :amount, p.version = p.version + 1, p.updatedAt = :now " +
+            "where p.id = :id and p.user.id = :userId and p.quantity >= :amount")
+    int decrementQuantity(@Param("id") Long id, @Param("userId") Long userId, @Param("amount") int amount, @Param("now") Instant now);
+
+    // Image cleanup: whether a file is still referenced (images stored before content addressing have no blob row)
+    boolean existsByImageName(String imageName);
+
+    @Query("select distinct p.imageName from Product p where p.imageName in :names")
+    List<String> findImageNamesIn(@Param("names") Collection<String> names);
+
     // Jpa repository methods (can be used directly)
     // save()
     // findOne()
@@ -0,0 +1,463 @@
+package com.inventory.inventory_backend.search;
+
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-process inverted index over product name and description, partitioned per user.
+// Tokens are indexed by their trigrams (substring matches) and 1-2 char prefixes (short queries while typing),
+// so a search only touches the posting lists of the query instead of scanning the user's products.
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    // Relevance of a query token matching a product token, a name match beats a description match
+    private static final int NAME_EXACT = 10;
+    private static final int NAME_PREFIX = 6;
+    private static final int NAME_CONTAINS = 3;
+    private static final int DESCRIPTION_EXACT = 4;
+    private static final int DESCRIPTION_PREFIX = 2;
+    private static final int DESCRIPTION_CONTAINS = 1;
+
+    private static final String PREFIX_MARK = "^";
+
+    // Best score first, then shorter names (closer matches), then id for a stable order
+    private static final Comparator<ScoredProduct> RANKING = Comparator.comparingInt(ScoredProduct::score).reversed()
+            .thenComparingInt((ScoredProduct match) -> match.product().getName().length())
+            .thenComparing(match -> match.product().getId());
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final int rebuildChunkSize;
+
+    private volatile Map<Long, UserIndex> indexes = new ConcurrentHashMap<>();
+    private volatile boolean ready = false;
+
+    // Changes seen while a rebuild reads the table, replayed on the new index before it is swapped in.
+    // The same for users whose index is reloaded after a BULK_CHANGED. Both are guarded by rebuildLock,
+    // which is never held while reading the database.
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private List<ProductChangedEvent> changesDuringRebuild;
+    private final Map<Long, List<ProductChangedEvent>> changesDuringReload = new HashMap<>();
+
+    // Reloads users' indexes after bulk changes, off the thread that published the event
+    private final ExecutorService reloader;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              @Value("${inventory.search.enabled:true}") boolean enabled,
+                              @Value("${inventory.search.rebuild-chunk-size:1000}") int rebuildChunkSize) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.rebuildChunkSize = rebuildChunkSize;
+
+        // One at a time, a user waiting for a reload is only queued once
+        this.reloader = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "product-search-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloader.shutdownNow();
+    }
+
+    // Until the first rebuild finishes callers should fall back to the database
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+
+        Thread thread = new Thread(this::rebuild, "product-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Reads every product in keyset chunks into a fresh index and swaps it in
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            if (changesDuringRebuild != null) {
+                log.info("Product search index rebuild already running");
+                return;
+            }
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            rebuildLock.unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        Map<Long, UserIndex> rebuilt = new ConcurrentHashMap<>();
+        long rows = 0;
+
+        try {
+            Long afterId = 0L;
+            List<ProductView> chunk;
+
+            do {
+                chunk = productRepository.findViewsAfter(afterId, Limit.of(rebuildChunkSize));
+
+                for (ProductView product : chunk) {
+                    rebuilt.computeIfAbsent(product.getUserId(), id -> new UserIndex()).put(product);
+                }
+
+                rows += chunk.size();
+                if (!chunk.isEmpty()) {
+                    afterId = chunk.get(chunk.size() - 1).getId();
+                }
+            } while (chunk.size() == rebuildChunkSize);
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild product search index", e);
+            rebuildLock.lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                rebuildLock.unlock();
+            }
+            return;
+        }
+
+        rebuildLock.lock();
+        try {
+            changesDuringRebuild.forEach(event -> apply(rebuilt, event));
+            changesDuringRebuild = null;
+            indexes = rebuilt;
+            ready = true;
+        } finally {
+            rebuildLock.unlock();
+        }
+
+        log.info("Product search index rebuilt with {} products in {} ms", rows, System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        rebuildLock.lock();
+        try {
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(event);
+            }
+            List<ProductChangedEvent> reloading = changesDuringReload.get(event.getUserId());
+            if (reloading != null) {
+                reloading.add(event);
+            }
+            apply(indexes, event);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Relevance-ranked search over one user's products, every query token has to match
+    public ProductSearchResult search(Long userId, String query, int offset, int limit) {
+        UserIndex index = indexes.get(userId);
+        String[] queryTokens = tokenize(query);
+
+        if (index == null || queryTokens.length == 0) {
+            return new ProductSearchResult(List.of(), 0);
+        }
+
+        List<ScoredProduct> matches = index.search(queryTokens);
+        int end = (int) Math.min((long) offset + limit, matches.size());
+
+        // Only the top 'end' matches are ordered, a bounded heap keeps big result sets cheap
+        PriorityQueue<ScoredProduct> top = new PriorityQueue<>(Math.max(end, 1), RANKING.reversed());
+        for (ScoredProduct match : matches) {
+            if (top.size() < end) {
+                top.add(match);
+            } else if (end > 0 && RANKING.compare(match, top.peek()) < 0) {
+                top.poll();
+                top.add(match);
+            }
+        }
+
+        List<ScoredProduct> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+
+        int from = Math.min(offset, ranked.size());
+        List<ProductView> items = ranked.subList(from, ranked.size()).stream().map(ScoredProduct::product).toList();
+
+        return new ProductSearchResult(items, matches.size());
+    }
+
+    private void apply(Map<Long, UserIndex> target, ProductChangedEvent event) {
+        switch (event.getType()) {
+            case CREATED, UPDATED -> target.computeIfAbsent(event.getUserId(), id -> new UserIndex()).put(event.getAfter());
+            case DELETED -> {
+                UserIndex index = target.get(event.getUserId());
+                if (index != null) {
+                    index.remove(event.getProductId());
+                }
+            }
+            // The current index keeps serving searches until the reloaded one replaces it
+            case BULK_CHANGED -> scheduleReload(event.getUserId());
+        }
+    }
+
+    // Caller holds rebuildLock. A reload already waiting or running picks up this user's later changes,
+    // and another bulk change among them makes it run again
+    private void scheduleReload(Long userId) {
+        if (changesDuringReload.putIfAbsent(userId, new ArrayList<>()) == null) {
+            reloader.execute(() -> reload(userId));
+        }
+    }
+
+    // Reads the user's products in keyset chunks into a fresh index without holding rebuildLock, then replays
+    // the changes seen meanwhile and swaps it in, like rebuild()
+    private void reload(Long userId) {
+        Map<Long, UserIndex> reloaded = new HashMap<>();
+        UserIndex index = new UserIndex();
+        reloaded.put(userId, index);
+
+        try {
+            Long afterId = 0L;
+            List<ProductView> chunk;
+
+            do {
+                chunk = productRepository.findViewsByUserIdAfter(userId, afterId, Limit.of(rebuildChunkSize));
+                chunk.forEach(index::put);
+                if (!chunk.isEmpty()) {
+                    afterId = chunk.get(chunk.size() - 1).getId();
+                }
+            } while (chunk.size() == rebuildChunkSize);
+        } catch (RuntimeException e) {
+            log.error("Failed to reload the product search index of user {}, keeping the previous one", userId, e);
+            rebuildLock.lock();
+            try {
+                changesDuringReload.remove(userId);
+            } finally {
+                rebuildLock.unlock();
+            }
+            return;
+        }
+
+        rebuildLock.lock();
+        try {
+            List<ProductChangedEvent> changes = changesDuringReload.remove(userId);
+            changes.forEach(event -> apply(reloaded, event));
+            indexes.put(userId, index);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    // Grams stored in the posting lists for one product token
+    private static void addGrams(String token, Set<String> grams) {
+        grams.add(PREFIX_MARK + token.substring(0, 1));
+        if (token.length() >= 2) {
+            grams.add(PREFIX_MARK + token.substring(0, 2));
+        }
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            grams.add(token.substring(i, i + 3));
+        }
+    }
+
+    // Grams a query token must hit, short tokens are matched as prefixes
+    private static List<String> queryGrams(String token) {
+        if (token.length() <= 2) {
+            return List.of(PREFIX_MARK + token);
+        }
+
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            grams.add(token.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static int score(String[] tokens, String queryToken, int exact, int prefix, int contains) {
+        int best = 0;
+
+        for (String token : tokens) {
+            if (token.equals(queryToken)) {
+                return exact;
+            }
+            if (token.startsWith(queryToken)) {
+                best = Math.max(best, prefix);
+            } else if (best < contains && token.contains(queryToken)) {
+                best = contains;
+            }
+        }
+        return best;
+    }
+
+    private record ScoredProduct(ProductView product, int score) {
+    }
+
+    private static final class IndexedProduct {
+
+        private final ProductView product;
+        private final String[] nameTokens;
+        private final String[] descriptionTokens;
+        private final Set<String> grams = new HashSet<>();
+
+        private IndexedProduct(ProductView product) {
+            this.product = product;
+            this.nameTokens = tokenize(product.getName());
+            this.descriptionTokens = tokenize(product.getDescription());
+
+            for (String token : nameTokens) {
+                addGrams(token, grams);
+            }
+            for (String token : descriptionTokens) {
+                addGrams(token, grams);
+            }
+        }
+
+        // 0 when the query token doesn't really occur (trigram candidates can be false positives)
+        private int score(String queryToken) {
+            int name = ProductSearchIndex.score(nameTokens, queryToken, NAME_EXACT, NAME_PREFIX, NAME_CONTAINS);
+            int description = ProductSearchIndex.score(descriptionTokens, queryToken,
+                    DESCRIPTION_EXACT, DESCRIPTION_PREFIX, DESCRIPTION_CONTAINS);
+            return Math.max(name, description);
+        }
+    }
+
+    private static final class UserIndex {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, IndexedProduct> products = new HashMap<>();
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+
+        private void put(ProductView product) {
+            IndexedProduct indexed = new IndexedProduct(product);
+
+            lock.writeLock().lock();
+            try {
+                removeLocked(product.getId());
+                products.put(product.getId(), indexed);
+                for (String gram : indexed.grams) {
+                    postings.computeIfAbsent(gram, key -> new HashSet<>()).add(product.getId());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(Long productId) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeLocked(Long productId) {
+            IndexedProduct previous = products.remove(productId);
+            if (previous == null) {
+                return;
+            }
+
+            for (String gram : previous.grams) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.remove(productId);
+                    if (ids.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+
+        private List<ScoredProduct> search(String[] queryTokens) {
+            lock.readLock().lock();
+            try {
+                Set<Long> candidates = null;
+
+                for (String queryToken : queryTokens) {
+                    Set<Long> tokenCandidates = candidates(queryToken);
+                    if (tokenCandidates.isEmpty()) {
+                        return new ArrayList<>();
+                    }
+
+                    if (candidates == null) {
+                        candidates = new HashSet<>(tokenCandidates);
+                    } else {
+                        candidates.retainAll(tokenCandidates);
+                    }
+                }
+
+                List<ScoredProduct> matches = new ArrayList<>();
+
+                for (Long id : candidates) {
+                    IndexedProduct product = products.get(id);
+                    int total = 0;
+
+                    for (String queryToken : queryTokens) {
+                        int score = product.score(queryToken);
+                        if (score == 0) {
+                            total = 0;
+                            break;
+                        }
+                        total += score;
+                    }
+
+                    if (total > 0) {
+                        matches.add(new ScoredProduct(product.product, total));
+                    }
+                }
+                return matches;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Intersection of the query token's posting lists, smallest list first
+        private Set<Long> candidates(String queryToken) {
+            List<Set<Long>> lists = new ArrayList<>();
+
+            for (String gram : queryGrams(queryToken)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return Set.of();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+
+            Set<Long> result = new HashSet<>(lists.get(0));
+            for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                result.retainAll(lists.get(i));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.inventory.inventory_backend.search;
+
+import com.inventory.inventory_backend.dto.ProductView;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ProductSearchResult {
+
+    private List<ProductView> items;    // requested slice, best match first
+    private long total;                 // number of matching products
+}
@@ -1,44 +1,126 @@
 package com.inventory.inventory_backend.security;
 
+import com.inventory.inventory_backend.model.ERole;
 import com.inventory.inventory_backend.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtils {
 
+    // Compact claims, only in tokens issued while inventory.security.jwt.compact-claims is on
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_USERNAME = "name";
+    static final String CLAIM_ROLE = "role";
+
     private final SecretKey secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
-    private final long jwtExpirationMs = 86400000; // 1 day
 
+    // Immutable and thread-safe, built once instead of per request
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(secretKey).build();
+
+    private final TokenDenylist denylist;
+    private final long jwtExpirationMs;
+    private final boolean compactClaims;
+
+    public JwtUtils(TokenDenylist denylist,
+                    @Value("${inventory.security.jwt.expiration:24h}") Duration expiration,
+                    @Value("${inventory.security.jwt.compact-claims:true}") boolean compactClaims) {
+        this.denylist = denylist;
+        this.jwtExpirationMs = expiration.toMillis();
+        this.compactClaims = compactClaims;
+    }
+
+    // Subject only, the principal is loaded by email on every request
     public String generateToken(String username) {
+        return builder(username).compact();
+    }
+
+    // With compact claims JwtAuthFilter builds the principal from the token itself
+    public String generateToken(User user) {
+        JwtBuilder builder = builder(user.getEmail());
+        if (compactClaims) {
+            builder.claim(CLAIM_USER_ID, user.getId())
+                    .claim(CLAIM_USERNAME, user.getUsername())
+                    .claim(CLAIM_ROLE, user.getRole().name());
+        }
+        return builder.compact();
+    }
+
+    private JwtBuilder builder(String subject) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(SignatureAlgorithm.HS256, secretKey)
-                .compact();
+                .setId(UUID.randomUUID().toString())        // lets a single token be revoked on logout
+                .setSubject(subject)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + jwtExpirationMs))
+                .signWith(secretKey, SignatureAlgorithm.HS256);
+    }
+
+    // Verifies the signature/expiry/revocation and returns the claims, null when the token is not valid
+    public Claims parseClaims(String token) {
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (Exception e) {
+            return null;
+        }
+
+        Date issuedAt = claims.getIssuedAt();
+        if (denylist.isRevoked(claims.getId(), userId(claims), issuedAt == null ? null : issuedAt.toInstant())) {
+            return null;
+        }
+        return claims;
+    }
+
+    // Principal straight from verified claims, null when the token doesn't carry them (or the mode is off)
+    public UserDetailsImpl principalFromClaims(Claims claims) {
+        if (!compactClaims) {
+            return null;
+        }
+
+        Long userId = userId(claims);
+        String username = claims.get(CLAIM_USERNAME, String.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || username == null || role == null) {
+            return null;
+        }
+
+        try {
+            return UserDetailsImpl.fromClaims(userId, claims.getSubject(), username, ERole.valueOf(role));
+        } catch (IllegalArgumentException e) {
+            return null;       // role renamed since the token was issued
+        }
+    }
+
+    // Logout, the token is rejected until it expires
+    public void revoke(Claims claims) {
+        if (claims.getId() != null) {
+            denylist.revokeToken(claims.getId(), claims.getExpiration().toInstant());
+        }
     }
 
     public String getUsernameFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(secretKey)
-                .parseClaimsJws(token)
+        return parser.parseClaimsJws(token)
                 .getBody()
                 .getSubject();
     }
 
     public boolean validateJwt(String token) {
-        try {
-            Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return parseClaims(token) != null;
+    }
+
+    private static Long userId(Claims claims) {
+        return claims.get(CLAIM_USER_ID, Long.class);
     }
 }
@@ -0,0 +1,106 @@
+package com.inventory.inventory_backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inventory.inventory_backend.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Token buckets per email and per client IP, checked before any password is hashed.
+// The email bucket stops guessing one account's password, the IP bucket stops one client trying many accounts.
+// Behind a proxy set server.forward-headers-strategy so the client IP is the real one.
+@Component
+public class LoginThrottle {
+
+    private final BucketSpec emailSpec;
+    private final BucketSpec ipSpec;
+    private final Cache<String, TokenBucket> emailBuckets;
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public LoginThrottle(@Value("${inventory.auth.throttle.email.capacity:5}") int emailCapacity,
+                         @Value("${inventory.auth.throttle.email.refill-interval:12s}") Duration emailRefill,
+                         @Value("${inventory.auth.throttle.ip.capacity:30}") int ipCapacity,
+                         @Value("${inventory.auth.throttle.ip.refill-interval:2s}") Duration ipRefill,
+                         @Value("${inventory.auth.throttle.max-tracked:100000}") long maxTracked) {
+        this(new BucketSpec(emailCapacity, emailRefill), new BucketSpec(ipCapacity, ipRefill), maxTracked, System::nanoTime);
+    }
+
+    LoginThrottle(BucketSpec emailSpec, BucketSpec ipSpec, long maxTracked, LongSupplier nanoClock) {
+        this.emailSpec = emailSpec;
+        this.ipSpec = ipSpec;
+        this.nanoClock = nanoClock;
+
+        // An idle bucket is full again after capacity * refill, it can be dropped by then
+        this.emailBuckets = Caffeine.newBuilder()
+                .maximumSize(maxTracked)
+                .expireAfterAccess(emailSpec.refillInterval().multipliedBy(emailSpec.capacity()))
+                .build();
+        this.ipBuckets = Caffeine.newBuilder()
+                .maximumSize(maxTracked)
+                .expireAfterAccess(ipSpec.refillInterval().multipliedBy(ipSpec.capacity()))
+                .build();
+    }
+
+    // Takes one attempt from both buckets, throws a 429 with Retry-After when either is empty
+    public void acquire(String email, String clientIp) {
+        long now = nanoClock.getAsLong();
+
+        long ipWait = ipBuckets.get(clientIp, ip -> new TokenBucket(ipSpec, now)).tryConsume(now);
+        if (ipWait > 0) {
+            throw tooManyAttempts(ipWait);
+        }
+
+        String key = email.toLowerCase(Locale.ROOT);
+        long emailWait = emailBuckets.get(key, address -> new TokenBucket(emailSpec, now)).tryConsume(now);
+        if (emailWait > 0) {
+            throw tooManyAttempts(emailWait);
+        }
+    }
+
+    private static TooManyRequestsException tooManyAttempts(long waitNanos) {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        return new TooManyRequestsException("general", "Too many login attempts, try again in " + seconds + " seconds", seconds);
+    }
+
+    record BucketSpec(int capacity, Duration refillInterval) {
+    }
+
+    // Starts full, one token back every refill interval up to the capacity
+    static final class TokenBucket {
+
+        private final int capacity;
+        private final long refillNanos;
+        private double tokens;
+        private long updatedAt;
+
+        TokenBucket(BucketSpec spec, long now) {
+            this.capacity = spec.capacity();
+            this.refillNanos = spec.refillInterval().toNanos();
+            this.tokens = spec.capacity();
+            this.updatedAt = now;
+        }
+
+        // 0 when a token was taken, otherwise nanoseconds until the next one (no blocking inside)
+        synchronized long tryConsume(long now) {
+            // 'now' is read before the lock, a concurrent caller may already have moved past it
+            if (now > updatedAt) {
+                tokens = Math.min(capacity, tokens + (double) (now - updatedAt) / refillNanos);
+                updatedAt = now;
+            }
+
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) * refillNanos);
+        }
+    }
+}
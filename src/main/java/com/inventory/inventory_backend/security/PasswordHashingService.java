@@ -0,0 +1,129 @@
+package com.inventory.inventory_backend.security;
+
+import com.inventory.inventory_backend.exception.TooManyRequestsException;
+import com.inventory.inventory_backend.metrics.StageMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// BCrypt on a small dedicated pool, so a burst of logins can use at most 'threads' cores and
+// product requests keep the rest. When the queue is full callers get a 429 right away.
+@Component
+public class PasswordHashingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final StageMetrics stageMetrics;
+    private final int strength;
+    private final Duration timeout;
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  StageMetrics stageMetrics,
+                                  @Value("${inventory.auth.bcrypt.strength:10}") int strength,
+                                  @Value("${inventory.auth.hashing.threads:0}") int threads,
+                                  @Value("${inventory.auth.hashing.queue-size:32}") int queueSize,
+                                  @Value("${inventory.auth.hashing.timeout:5s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.stageMetrics = stageMetrics;
+        this.strength = strength;
+        this.timeout = timeout;
+
+        // 0 = half of the cores
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return call(() -> {
+            long start = System.nanoTime();
+            boolean matches = passwordEncoder.matches(rawPassword, encodedPassword);
+            stageMetrics.record(StageMetrics.Stage.PASSWORD_CHECK, start);
+            return matches;
+        });
+    }
+
+    public String encode(String rawPassword) {
+        return call(() -> {
+            long start = System.nanoTime();
+            String encoded = passwordEncoder.encode(rawPassword);
+            stageMetrics.record(StageMetrics.Stage.PASSWORD_HASH, start);
+            return encoded;
+        });
+    }
+
+    // True when the hash was made with another work factor than the configured one (raised or lowered)
+    public boolean needsRehash(String encodedPassword) {
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    // Hashes again with the current work factor in the background, skipped while the pool is busy
+    // (the next login tries again)
+    public void rehashLater(String rawPassword, Consumer<String> store) {
+        try {
+            executor.execute(() -> {
+                try {
+                    store.accept(passwordEncoder.encode(rawPassword));
+                } catch (RuntimeException e) {
+                    log.warn("Failed to rehash password", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Password hashing pool busy, rehash skipped");
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private <T> T call(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("general", "Server is busy, please try again shortly", 1);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new TooManyRequestsException("general", "Server is busy, please try again shortly", 1);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
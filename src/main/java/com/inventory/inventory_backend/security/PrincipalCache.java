@@ -0,0 +1,86 @@
+package com.inventory.inventory_backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inventory.inventory_backend.metrics.StageMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded, TTL-evicting cache of authenticated principals keyed by JWT subject (email),
+// so JwtAuthFilter doesn't run a findByEmail query on every request
+@Component
+public class PrincipalCache {
+
+    private final UserDetailServiceImpl userDetailService;
+    private final StageMetrics stageMetrics;
+    private final Cache<String, UserDetailsImpl> cache;
+
+    // Bumped by every invalidation, a principal loaded across one is not kept
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PrincipalCache(UserDetailServiceImpl userDetailService,
+                          StageMetrics stageMetrics,
+                          MeterRegistry meterRegistry,
+                          @Value("${inventory.security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${inventory.security.principal-cache.ttl:5m}") Duration ttl) {
+        this.userDetailService = userDetailService;
+        this.stageMetrics = stageMetrics;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        // Hits, misses and evictions as cache_gets_total{cache="principals"} etc.
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    // Throws UsernameNotFoundException (nothing cached) when the user doesn't exist anymore.
+    // Loaded outside cache.get(key, loader): that runs the query inside a ConcurrentHashMap bin lock,
+    // which pins the carrier of a virtual thread for the whole DB round trip
+    public UserDetailsImpl get(String email) {
+        UserDetailsImpl principal = cache.getIfPresent(email);
+        if (principal != null) {
+            return principal;
+        }
+
+        long seen = invalidations.get();
+        principal = load(email);
+        cache.put(email, principal);
+
+        // An invalidation during the load may have run before the put, drop the possibly stale entry again
+        if (invalidations.get() != seen) {
+            cache.asMap().remove(email, principal);
+        }
+        return principal;
+    }
+
+    // Keyed by email but a user can change it, so evict by id
+    public void invalidateUser(Long userId) {
+        invalidations.incrementAndGet();
+        cache.asMap().values().removeIf(principal -> principal.getId().equals(userId));
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private UserDetailsImpl load(String email) {
+        long start = System.nanoTime();
+        try {
+            return userDetailService.loadUserByUsername(email);
+        } finally {
+            stageMetrics.record(StageMetrics.Stage.PRINCIPAL_LOAD, start);
+        }
+    }
+
+    public Cache<String, UserDetailsImpl> getCache() {
+        return cache;
+    }
+}
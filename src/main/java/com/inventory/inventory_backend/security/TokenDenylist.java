@@ -0,0 +1,60 @@
+package com.inventory.inventory_backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// In-memory revocation list checked on every token parse. Two kinds of entries:
+// - token ids revoked by logout, kept until the token would have expired anyway
+// - per-user cut-off times, every token of that user issued before it is rejected (user changed or deleted)
+// Entries don't outlive the token lifetime so the lists stay small. Not shared between nodes and lost on restart.
+@Component
+public class TokenDenylist {
+
+    private final Cache<String, Instant> revokedTokens;
+    private final Cache<Long, Instant> revokedBefore;
+
+    public TokenDenylist(@Value("${inventory.security.jwt.expiration:24h}") Duration tokenLifetime,
+                         @Value("${inventory.security.jwt.denylist.max-size:100000}") long maxSize) {
+        this.revokedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.<String, Instant>creating((tokenId, expiresAt) -> untilExpiry(expiresAt)))
+                .build();
+        this.revokedBefore = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(tokenLifetime)
+                .build();
+    }
+
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        revokedTokens.put(tokenId, expiresAt);
+    }
+
+    public void revokeUser(Long userId) {
+        revokedBefore.put(userId, Instant.now());
+    }
+
+    // Token timestamps have second precision, a token issued in the same second as the cut-off stays valid
+    // (otherwise a login right after the change would be rejected)
+    public boolean isRevoked(String tokenId, Long userId, Instant issuedAt) {
+        if (tokenId != null && revokedTokens.getIfPresent(tokenId) != null) {
+            return true;
+        }
+        if (userId == null || issuedAt == null) {
+            return false;
+        }
+
+        Instant cutOff = revokedBefore.getIfPresent(userId);
+        return cutOff != null && issuedAt.getEpochSecond() < cutOff.getEpochSecond();
+    }
+
+    private static Duration untilExpiry(Instant expiresAt) {
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+}
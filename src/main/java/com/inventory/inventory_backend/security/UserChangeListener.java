@@ -0,0 +1,51 @@
+package com.inventory.inventory_backend.security;
+
+import com.inventory.inventory_backend.cache.ProductListingCache;
+import com.inventory.inventory_backend.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// JPA entity listener on User, evicts the cached principal and product listing (which shows the username)
+// whenever the user row changes, and revokes the user's tokens issued before (their claims may be stale)
+@Component
+public class UserChangeListener {
+
+    // ObjectProvider because Hibernate may build this listener in contexts without the cache (e.g. JPA test slices)
+    private final ObjectProvider<PrincipalCache> principalCache;
+    private final ObjectProvider<ProductListingCache> productListingCache;
+    private final ObjectProvider<TokenDenylist> tokenDenylist;
+
+    public UserChangeListener(ObjectProvider<PrincipalCache> principalCache,
+                              ObjectProvider<ProductListingCache> productListingCache,
+                              ObjectProvider<TokenDenylist> tokenDenylist) {
+        this.principalCache = principalCache;
+        this.productListingCache = productListingCache;
+        this.tokenDenylist = tokenDenylist;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        Long userId = user.getId();
+
+        principalCache.ifAvailable(cache -> cache.invalidateUser(userId));
+        productListingCache.ifAvailable(cache -> cache.invalidateUser(userId));
+        tokenDenylist.ifAvailable(denylist -> denylist.revokeUser(userId));
+
+        // Evict again once committed, a concurrent request may have re-cached the old row in between
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principalCache.ifAvailable(cache -> cache.invalidateUser(userId));
+                    productListingCache.ifAvailable(cache -> cache.invalidateUser(userId));
+                    tokenDenylist.ifAvailable(denylist -> denylist.revokeUser(userId));
+                }
+            });
+        }
+    }
+}
@@ -1,24 +1,40 @@
 package com.inventory.inventory_backend.security;
 
 import com.inventory.inventory_backend.repository.UserRepository;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
 
 @Service
 public class UserDetailServiceImpl implements UserDetailsService {
     private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
 
-    public UserDetailServiceImpl(UserRepository userRepository) {
+    public UserDetailServiceImpl(UserRepository userRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 @Qualifier("readOnlyTransactionTemplate") TransactionTemplate readOnlyTransactionTemplate) {
         this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransactionTemplate = readOnlyTransactionTemplate;
     }
 
+    // Looked up on a read replica. A user who registered moments ago may not be there yet, a miss is asked the primary
     @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+    public UserDetailsImpl loadUserByUsername(String email) throws UsernameNotFoundException {
+
+        Optional<UserDetailsImpl> user = readOnlyTransactionTemplate.execute(status -> find(email));
+        if (user.isEmpty()) {
+            user = transactionTemplate.execute(status -> find(email));
+        }
+        return user.orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    }
 
-        return userRepository.findByEmail(email)
-                .map(UserDetailsImpl::new)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    private Optional<UserDetailsImpl> find(String email) {
+        return userRepository.findByEmail(email).map(UserDetailsImpl::new);
     }
 }
@@ -1,5 +1,6 @@
 package com.inventory.inventory_backend.security;
 
+import com.inventory.inventory_backend.model.ERole;
 import com.inventory.inventory_backend.model.User;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -15,6 +16,16 @@ public class UserDetailsImpl implements UserDetails {
         this.user = user;
     }
 
+    // Built from verified token claims, without the password (only needed at login, which doesn't use this)
+    public static UserDetailsImpl fromClaims(Long id, String email, String username, ERole role) {
+        return new UserDetailsImpl(User.builder()
+                .id(id)
+                .email(email)
+                .username(username)
+                .role(role)
+                .build());
+    }
+
     // This is where the Spring Boot know who the user is
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
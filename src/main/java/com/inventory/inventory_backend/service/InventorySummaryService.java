@@ -0,0 +1,58 @@
+package com.inventory.inventory_backend.service;
+
+import com.inventory.inventory_backend.dto.InventorySummaryResponse;
+import com.inventory.inventory_backend.dto.InventoryTotals;
+import com.inventory.inventory_backend.dto.ProductValue;
+import com.inventory.inventory_backend.exception.FieldValidationException;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import com.inventory.inventory_backend.summary.InventoryRollup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// Dashboard totals: from the in-memory rollup when it can answer, otherwise two aggregate queries
+@Service
+public class InventorySummaryService {
+
+    private final ProductRepository productRepository;
+    private final InventoryRollup inventoryRollup;
+    private final int defaultTop;
+    private final int maxTop;
+
+    public InventorySummaryService(ProductRepository productRepository,
+                                   InventoryRollup inventoryRollup,
+                                   @Value("${inventory.summary.top.default-size:5}") int defaultTop,
+                                   @Value("${inventory.summary.top.max-size:100}") int maxTop) {
+        this.productRepository = productRepository;
+        this.inventoryRollup = inventoryRollup;
+        this.defaultTop = defaultTop;
+        this.maxTop = maxTop;
+    }
+
+    public InventorySummaryResponse summarize(Long userId, Integer lowStockThreshold, Integer top) {
+        int threshold = lowStockThreshold != null ? lowStockThreshold : inventoryRollup.getLowStockThreshold();
+        int topSize = top != null ? top : defaultTop;
+
+        if (threshold < 0) {
+            throw new FieldValidationException("lowStockThreshold", "Threshold must not be negative");
+        }
+        if (topSize < 0 || topSize > maxTop) {
+            throw new FieldValidationException("top", "Top must be between 0 and " + maxTop);
+        }
+
+        if (inventoryRollup.isEnabled() && threshold == inventoryRollup.getLowStockThreshold()) {
+            return inventoryRollup.summary(userId, topSize);
+        }
+        return fromDatabase(userId, threshold, topSize);
+    }
+
+    public InventorySummaryResponse fromDatabase(Long userId, int threshold, int top) {
+        InventoryTotals totals = productRepository.findTotals(userId, threshold);
+        List<ProductValue> topByValue = top > 0 ? productRepository.findTopByValue(userId, Limit.of(top)) : List.of();
+
+        return new InventorySummaryResponse(totals.getSkus(), totals.getUnits(), totals.getTotalValue(),
+                threshold, totals.getLowStockCount(), topByValue, "database");
+    }
+}
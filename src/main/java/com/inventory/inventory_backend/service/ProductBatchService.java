@@ -0,0 +1,219 @@
+package com.inventory.inventory_backend.service;
+
+import com.inventory.inventory_backend.dto.ProductBatchReport;
+import com.inventory.inventory_backend.dto.ProductBatchUpdateRequest;
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.exception.FieldValidationException;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import com.inventory.inventory_backend.storage.ImageStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Updates or deletes many products of a user in one transaction. Per chunk of ids: one query checks ownership
+// (and reads the state before), one JDBC batch writes the changes, instead of a findById and a save per product.
+// Rows are written in id order so concurrent batches can't deadlock.
+@Service
+public class ProductBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductBatchService.class);
+
+    // null parameters keep the current value, like the single product update
+    private static final String UPDATE_SQL = "update products set name = coalesce(?, name), " +
+            "description = coalesce(?, description), quantity = coalesce(?, quantity), price = coalesce(?, price), " +
+            "version = version + 1, updated_at = ? where id = ? and user_id = ?";
+
+    private static final int[] UPDATE_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.DECIMAL,
+            Types.TIMESTAMP, Types.BIGINT, Types.BIGINT};
+
+    private static final String DELETE_SQL = "delete from products where id = ? and user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductRepository productRepository;
+    private final ImageStorageService imageStorageService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxSize;
+    private final int chunkSize;
+    private final int bulkEventThreshold;
+
+    public ProductBatchService(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               ProductRepository productRepository,
+                               ImageStorageService imageStorageService,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${inventory.products.batch.max-size:5000}") int maxSize,
+                               @Value("${inventory.products.batch.chunk-size:1000}") int chunkSize,
+                               @Value("${inventory.products.batch.bulk-event-threshold:100}") int bulkEventThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.productRepository = productRepository;
+        this.imageStorageService = imageStorageService;
+        this.eventPublisher = eventPublisher;
+        this.maxSize = maxSize;
+        this.chunkSize = chunkSize;
+        this.bulkEventThreshold = bulkEventThreshold;
+    }
+
+    public ProductBatchReport update(Long userId, List<ProductBatchUpdateRequest.Item> items) {
+        checkSize(items.size(), "items");
+
+        // First item of each id (later ones are reported as duplicates), in id order
+        Map<Long, ProductBatchUpdateRequest.Item> first = new HashMap<>();
+        items.forEach(item -> first.putIfAbsent(item.getId(), item));
+
+        Map<Long, ProductBatchUpdateRequest.Item> changes = new TreeMap<>();
+        first.forEach((id, item) -> {
+            if (item.hasChanges()) {
+                changes.put(id, item);
+            }
+        });
+
+        List<ProductChangedEvent> events = new ArrayList<>();
+        Timestamp now = Timestamp.from(Instant.now());
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (List<Long> chunk : chunks(changes.keySet())) {
+                    Map<Long, ProductView> before = owned(userId, chunk);
+
+                    List<Long> ids = new ArrayList<>(before.keySet());
+                    List<Object[]> rows = new ArrayList<>(ids.size());
+                    for (Long id : ids) {
+                        ProductBatchUpdateRequest.Item item = changes.get(id);
+                        rows.add(new Object[]{item.getName(), item.getDescription(), item.getQuantity(), item.getPrice(),
+                                now, id, userId});
+                    }
+
+                    List<Long> updated = applied(ids, jdbcTemplate.batchUpdate(UPDATE_SQL, rows, UPDATE_TYPES));
+                    for (ProductView after : productRepository.findViewsByIdIn(updated)) {
+                        events.add(ProductChangedEvent.updated(before.get(after.getId()), after));
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to update a batch of {} products for user {}", changes.size(), userId, e);
+            throw new FieldValidationException("general", "Failed to update products");
+        }
+
+        Set<Long> updated = events.stream().map(ProductChangedEvent::getProductId).collect(Collectors.toSet());
+        ProductBatchReport report = report(items, ProductBatchUpdateRequest.Item::getId, item ->
+                !item.hasChanges() ? ProductBatchReport.Status.NO_CHANGES
+                        : updated.contains(item.getId()) ? ProductBatchReport.Status.UPDATED
+                        : ProductBatchReport.Status.NOT_FOUND);
+
+        log.info("User {} batch updated {} products, {} items failed", userId, report.getSucceeded(), report.getFailed());
+        publish(userId, events);
+        return report;
+    }
+
+    public ProductBatchReport delete(Long userId, List<Long> ids) {
+        checkSize(ids.size(), "ids");
+
+        List<ProductChangedEvent> events = new ArrayList<>();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (List<Long> chunk : chunks(new TreeSet<>(ids))) {
+                    Map<Long, ProductView> before = owned(userId, chunk);
+
+                    List<Long> owned = new ArrayList<>(before.keySet());
+                    List<Object[]> rows = owned.stream().map(id -> new Object[]{id, userId}).toList();
+
+                    for (Long id : applied(owned, jdbcTemplate.batchUpdate(DELETE_SQL, rows))) {
+                        ProductView product = before.get(id);
+                        // Same transaction: the files are queued for removal only if the delete commits
+                        imageStorageService.release(product.getImageName());
+                        events.add(ProductChangedEvent.deleted(product));
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to delete a batch of {} products for user {}", ids.size(), userId, e);
+            throw new FieldValidationException("general", "Failed to delete products");
+        }
+
+        Set<Long> deleted = events.stream().map(ProductChangedEvent::getProductId).collect(Collectors.toSet());
+        ProductBatchReport report = report(ids, Function.identity(), id ->
+                deleted.contains(id) ? ProductBatchReport.Status.DELETED : ProductBatchReport.Status.NOT_FOUND);
+
+        log.info("User {} batch deleted {} products, {} ids failed", userId, report.getSucceeded(), report.getFailed());
+        publish(userId, events);
+        return report;
+    }
+
+    private void checkSize(int size, String field) {
+        if (size > maxSize) {
+            throw new FieldValidationException(field, "At most " + maxSize + " products per request");
+        }
+    }
+
+    private Map<Long, ProductView> owned(Long userId, List<Long> ids) {
+        Map<Long, ProductView> owned = new LinkedHashMap<>();
+        for (ProductView product : productRepository.findViewsByUserIdAndIdIn(userId, ids)) {
+            owned.put(product.getId(), product);
+        }
+        return owned;
+    }
+
+    private List<List<Long>> chunks(Collection<Long> ids) {
+        List<Long> sorted = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < sorted.size(); from += chunkSize) {
+            chunks.add(sorted.subList(from, Math.min(sorted.size(), from + chunkSize)));
+        }
+        return chunks;
+    }
+
+    // Ids whose statement changed a row (0 when the product was deleted meanwhile); a driver that rewrites
+    // the batch may only report SUCCESS_NO_INFO
+    private static List<Long> applied(List<Long> ids, int[] counts) {
+        List<Long> applied = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                applied.add(ids.get(i));
+            }
+        }
+        return applied;
+    }
+
+    private static <T> ProductBatchReport report(List<T> requested, Function<T, Long> id,
+                                                 Function<T, ProductBatchReport.Status> status) {
+        Set<Long> seen = new HashSet<>();
+        List<ProductBatchReport.Result> results = new ArrayList<>(requested.size());
+        int succeeded = 0;
+
+        for (T item : requested) {
+            Long productId = id.apply(item);
+            ProductBatchReport.Status result = seen.add(productId) ? status.apply(item) : ProductBatchReport.Status.DUPLICATE;
+
+            if (result == ProductBatchReport.Status.UPDATED || result == ProductBatchReport.Status.DELETED) {
+                succeeded++;
+            }
+            results.add(new ProductBatchReport.Result(productId, result));
+        }
+        return new ProductBatchReport(succeeded, results.size() - succeeded, results);
+    }
+
+    // Past the threshold one BULK_CHANGED is cheaper for the listeners than an event per product
+    private void publish(Long userId, List<ProductChangedEvent> events) {
+        if (events.size() > bulkEventThreshold) {
+            eventPublisher.publishEvent(ProductChangedEvent.bulkChanged(userId));
+        } else {
+            events.forEach(eventPublisher::publishEvent);
+        }
+    }
+}
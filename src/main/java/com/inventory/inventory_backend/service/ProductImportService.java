@@ -0,0 +1,240 @@
+package com.inventory.inventory_backend.service;
+
+import com.inventory.inventory_backend.dto.ProductImportReport;
+import com.inventory.inventory_backend.dto.ProductRequest;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.exception.FieldValidationException;
+import com.inventory.inventory_backend.storage.ImageStorageService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+// Bulk product import: rows are parsed and validated one at a time from the request stream
+// and written with JDBC batch inserts, one transaction per batch
+@Service
+public class ProductImportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    // Plain JDBC because Hibernate can't batch inserts of IDENTITY ids, MySQL still assigns them per row
+    private static final String INSERT_SQL = "insert into products " +
+            "(name, description, quantity, price, image_name, user_id, updated_at, version) values (?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final Set<String> REQUIRED_COLUMNS = Set.of("name", "quantity", "price");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final JsonMapper jsonMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                Validator validator,
+                                JsonMapper jsonMapper,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${inventory.import.batch-size:1000}") int batchSize,
+                                @Value("${inventory.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.jsonMapper = jsonMapper;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public ProductImportReport importProducts(Long userId, Format format, InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        ImportRun run = new ImportRun(userId);
+
+        if (format == Format.CSV) {
+            readCsv(reader, run);
+        } else {
+            readNdjson(reader, run);
+        }
+        run.flush();
+
+        log.info("User {} imported {} products, {} rows failed", userId, run.imported, run.failed);
+
+        if (run.imported > 0) {
+            eventPublisher.publishEvent(ProductChangedEvent.bulkChanged(userId));
+        }
+
+        return new ProductImportReport(run.imported, run.failed, run.errors, run.failed > run.errors.size());
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            throw new FieldValidationException("file", "CSV header is missing");
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new FieldValidationException("file", "CSV column '" + column + "' is missing");
+            }
+        }
+
+        long row = 0;
+        List<String> record;
+
+        while ((record = csv.readRecord()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            row++;
+
+            run.accept(row,
+                    column(record, columns.get("name")),
+                    column(record, columns.get("description")),
+                    column(record, columns.get("quantity")),
+                    column(record, columns.get("price")));
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        long row = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+
+            JsonNode node;
+            try {
+                node = jsonMapper.readTree(line);
+            } catch (JacksonException e) {
+                run.reject(row, "general", "Row is not valid JSON");
+                continue;
+            }
+
+            if (!node.isObject()) {
+                run.reject(row, "general", "Row must be a JSON object");
+                continue;
+            }
+
+            run.accept(row, text(node, "name"), text(node, "description"), text(node, "quantity"), text(node, "price"));
+        }
+    }
+
+    private static String column(List<String> record, Integer index) {
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asString();
+    }
+
+    // State of one import: the pending batch, counters and the first reported errors
+    private class ImportRun {
+
+        private final Long userId;
+        private final List<Object[]> batch = new ArrayList<>();
+        private final List<Long> batchRows = new ArrayList<>();
+        private final List<ProductImportReport.RowError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        private ImportRun(Long userId) {
+            this.userId = userId;
+        }
+
+        private void accept(long row, String name, String description, String quantity, String price) {
+            ProductRequest product = new ProductRequest();
+            product.setName(name != null ? name.trim() : null);
+            product.setDescription(description == null || description.isBlank() ? null : description.trim());
+
+            try {
+                product.setQuantity(Integer.parseInt(quantity == null ? "" : quantity.trim()));
+            } catch (NumberFormatException e) {
+                reject(row, "quantity", "Quantity must be a whole number");
+                return;
+            }
+
+            try {
+                product.setPrice(price == null || price.isBlank() ? null : new BigDecimal(price.trim()));
+            } catch (NumberFormatException e) {
+                reject(row, "price", "Price must be a number");
+                return;
+            }
+
+            Set<ConstraintViolation<ProductRequest>> violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                ConstraintViolation<ProductRequest> violation = violations.iterator().next();
+                reject(row, violation.getPropertyPath().toString(), violation.getMessage());
+                return;
+            }
+
+            batch.add(new Object[]{product.getName(), product.getDescription(), product.getQuantity(), product.getPrice(),
+                    ImageStorageService.DEFAULT_IMAGE, userId, Timestamp.from(Instant.now())});
+            batchRows.add(row);
+
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void reject(long row, String field, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ProductImportReport.RowError(row, field, message));
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch));
+                imported += batch.size();
+            } catch (RuntimeException e) {
+                log.error("Failed to insert import batch of {} products for user {}", batch.size(), userId, e);
+                batchRows.forEach(row -> reject(row, "general", "Failed to save product"));
+            }
+
+            batch.clear();
+            batchRows.clear();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.inventory.inventory_backend.service;
+
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Optional coalescing of stock increments on hot SKUs. Increments are added to a striped LongAdder per product
+// instead of each updating (and locking) the same row, and are flushed in one JDBC batch.
+// A product is hot once it got at least 'hot-threshold' direct adjustments between two flushes.
+@Component
+public class StockDeltaAccumulator {
+
+    private static final Logger log = LoggerFactory.getLogger(StockDeltaAccumulator.class);
+
+    private static final String FLUSH_SQL =
+            "update products set quantity = quantity + ?, version = version + 1, updated_at = ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int hotThreshold;
+
+    // Entries are never removed: an add racing with a removal could be lost, and only hot products get one
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    // Owner of each product that had a verified direct adjustment, ownership never changes
+    private final Map<Long, Long> owners = new ConcurrentHashMap<>();
+
+    // Adjustments (direct or buffered) since the last flush, decides which products are hot
+    private final Map<Long, LongAdder> recentAdjustments = new ConcurrentHashMap<>();
+    private volatile Set<Long> hotProducts = Set.of();
+
+    // Not 'synchronized': a virtual thread blocked on JDBC inside a monitor would pin its carrier
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public StockDeltaAccumulator(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 ProductRepository productRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${inventory.stock.accumulator.enabled:false}") boolean enabled,
+                                 @Value("${inventory.stock.accumulator.hot-threshold:50}") int hotThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.hotThreshold = hotThreshold;
+    }
+
+    // Buffers the increment when the product is hot, false when it must be applied directly
+    public boolean tryAdd(Long userId, Long productId, int amount) {
+        if (!enabled || !hotProducts.contains(productId) || !userId.equals(owners.get(productId))) {
+            return false;
+        }
+
+        pending.computeIfAbsent(productId, id -> new LongAdder()).add(amount);
+        countAdjustment(productId);
+        return true;
+    }
+
+    // Called after a direct adjustment succeeded (so the owner is verified)
+    public void recordDirect(Long userId, Long productId) {
+        if (!enabled) {
+            return;
+        }
+
+        owners.put(productId, userId);
+        countAdjustment(productId);
+    }
+
+    public boolean hasPending(Long productId) {
+        LongAdder adder = pending.get(productId);
+        return adder != null && adder.sum() != 0;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.stock.accumulator.flush-interval-ms:200}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        Set<Long> hot = new HashSet<>();
+        recentAdjustments.forEach((productId, count) -> {
+            long adjustments = count.sumThenReset();
+            if (adjustments >= hotThreshold) {
+                hot.add(productId);
+            } else if (adjustments == 0) {
+                // A count racing with this removal only delays the product becoming hot
+                recentAdjustments.remove(productId, count);
+            }
+        });
+        hotProducts = Set.copyOf(hot);
+
+        flush(pending.keySet());
+    }
+
+    // Applies the pending deltas of the given products in one batch, returns how many products changed
+    public int flush(Collection<Long> productIds) {
+        flushLock.lock();
+        try {
+            return flushLocked(productIds);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushLocked(Collection<Long> productIds) {
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+
+        for (Long productId : productIds) {
+            LongAdder adder = pending.get(productId);
+            if (adder != null) {
+                long delta = adder.sumThenReset();
+                if (delta != 0) {
+                    deltas.put(productId, delta);
+                }
+            }
+        }
+
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> batch = deltas.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), now, entry.getKey()})
+                .toList();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batch));
+        } catch (RuntimeException e) {
+            // Put the deltas back, they are retried on the next flush
+            log.error("Failed to flush stock deltas for {} products", deltas.size(), e);
+            deltas.forEach((productId, delta) -> pending.computeIfAbsent(productId, id -> new LongAdder()).add(delta));
+            return 0;
+        }
+
+        for (ProductView after : productRepository.findViewsByIdIn(deltas.keySet())) {
+            ProductView before = after.withQuantity((int) (after.getQuantity() - deltas.get(after.getId())));
+            eventPublisher.publishEvent(ProductChangedEvent.updated(before, after));
+        }
+
+        return deltas.size();
+    }
+
+    private void countAdjustment(Long productId) {
+        recentAdjustments.computeIfAbsent(productId, id -> new LongAdder()).increment();
+    }
+}
@@ -0,0 +1,128 @@
+package com.inventory.inventory_backend.service;
+
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.dto.StockLevelResponse;
+import com.inventory.inventory_backend.dto.StockReservationRequest;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.exception.ConflictException;
+import com.inventory.inventory_backend.exception.FieldValidationException;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Stock changes as conditional atomic UPDATEs, so concurrent scanners never lose an update
+// and a quantity can't go below zero
+@Service
+public class StockService {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StockDeltaAccumulator accumulator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockService(ProductRepository productRepository,
+                        TransactionTemplate transactionTemplate,
+                        StockDeltaAccumulator accumulator,
+                        ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.accumulator = accumulator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public StockLevelResponse increment(Long userId, Long productId, int amount) {
+        if (accumulator.tryAdd(userId, productId, amount)) {
+            return new StockLevelResponse(productId, null, true);
+        }
+
+        ProductView after = transactionTemplate.execute(status -> {
+            if (productRepository.incrementQuantity(productId, userId, amount, Instant.now()) == 0) {
+                throw new FieldValidationException("general", "Product not found");
+            }
+            return productRepository.findViewById(productId).orElseThrow();
+        });
+
+        accumulator.recordDirect(userId, productId);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(after.withQuantity(after.getQuantity() - amount), after));
+
+        return new StockLevelResponse(productId, after.getQuantity(), false);
+    }
+
+    public StockLevelResponse decrement(Long userId, Long productId, int amount) {
+        ProductView after = tryDecrement(userId, productId, amount);
+
+        // Buffered increments may cover the missing stock, apply them and try once more
+        if (after == null && accumulator.hasPending(productId)) {
+            accumulator.flush(List.of(productId));
+            after = tryDecrement(userId, productId, amount);
+        }
+
+        if (after == null) {
+            throw insufficientStockOrNotFound(userId, productId);
+        }
+
+        accumulator.recordDirect(userId, productId);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(after.withQuantity(after.getQuantity() + amount), after));
+
+        return new StockLevelResponse(productId, after.getQuantity(), false);
+    }
+
+    // Takes every item or nothing, rows are updated in id order so concurrent reservations can't deadlock
+    public List<StockLevelResponse> reserve(Long userId, List<StockReservationRequest.Item> items) {
+        Map<Long, Integer> amounts = new TreeMap<>();
+        for (StockReservationRequest.Item item : items) {
+            amounts.merge(item.getProductId(), item.getAmount(), Integer::sum);
+        }
+
+        amounts.keySet().stream().filter(accumulator::hasPending).toList()
+                .forEach(productId -> accumulator.flush(List.of(productId)));
+
+        List<ProductView> reserved = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+
+            for (Map.Entry<Long, Integer> entry : amounts.entrySet()) {
+                if (productRepository.decrementQuantity(entry.getKey(), userId, entry.getValue(), now) == 0) {
+                    // Thrown inside the transaction, so the items decremented before are rolled back
+                    throw insufficientStockOrNotFound(userId, entry.getKey());
+                }
+            }
+            return productRepository.findViewsByIdIn(amounts.keySet());
+        });
+
+        for (ProductView after : reserved) {
+            int amount = amounts.get(after.getId());
+            accumulator.recordDirect(userId, after.getId());
+            eventPublisher.publishEvent(ProductChangedEvent.updated(after.withQuantity(after.getQuantity() + amount), after));
+        }
+
+        return reserved.stream()
+                .map(product -> new StockLevelResponse(product.getId(), product.getQuantity(), false))
+                .toList();
+    }
+
+    private ProductView tryDecrement(Long userId, Long productId, int amount) {
+        return transactionTemplate.execute(status -> {
+            if (productRepository.decrementQuantity(productId, userId, amount, Instant.now()) == 0) {
+                return null;
+            }
+            return productRepository.findViewById(productId).orElseThrow();
+        });
+    }
+
+    private RuntimeException insufficientStockOrNotFound(Long userId, Long productId) {
+        boolean owned = productRepository.findViewById(productId)
+                .map(product -> product.getUserId().equals(userId))
+                .orElse(false);
+
+        if (!owned) {
+            return new FieldValidationException("general", "Product " + productId + " not found");
+        }
+        return new ConflictException("quantity", "Insufficient stock for product " + productId);
+    }
+}
@@ -0,0 +1,111 @@
+package com.inventory.inventory_backend.storage;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// AWS Signature Version 4 for S3 requests, accepted by S3 and the compatible stores (MinIO, Ceph, R2...)
+final class AwsV4Signer {
+
+    static final String EMPTY_PAYLOAD = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+    static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+    private final String service;
+
+    AwsV4Signer(String accessKey, String secretKey, String region, String service) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+        this.service = service;
+    }
+
+    static String amzDate(Instant time) {
+        return AMZ_DATE.format(time);
+    }
+
+    // 'headers' are the headers to sign with lower-case names, including host, x-amz-date and x-amz-content-sha256
+    String authorization(String method, String path, Map<String, String> query, Map<String, String> headers) {
+        Map<String, String> sortedHeaders = new TreeMap<>(headers);
+        String signedHeaders = String.join(";", sortedHeaders.keySet());
+        String amzDate = headers.get("x-amz-date");
+        String scope = amzDate.substring(0, 8) + "/" + region + "/" + service + "/aws4_request";
+
+        String canonicalRequest = method + "\n"
+                + encode(path, true) + "\n"
+                + canonicalQuery(query) + "\n"
+                + sortedHeaders.entrySet().stream()
+                        .map(header -> header.getKey() + ":" + header.getValue().trim() + "\n")
+                        .collect(Collectors.joining()) + "\n"
+                + signedHeaders + "\n"
+                + headers.get("x-amz-content-sha256");
+
+        String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n" + sha256Hex(canonicalRequest);
+
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), amzDate.substring(0, 8));
+        key = hmac(key, region);
+        key = hmac(key, service);
+        key = hmac(key, "aws4_request");
+        String signature = HexFormat.of().formatHex(hmac(key, stringToSign));
+
+        return "AWS4-HMAC-SHA256 Credential=" + accessKey + "/" + scope
+                + ", SignedHeaders=" + signedHeaders
+                + ", Signature=" + signature;
+    }
+
+    static String canonicalQuery(Map<String, String> query) {
+        Map<String, String> sorted = new TreeMap<>();
+        query.forEach((name, value) -> sorted.put(encode(name, false), encode(value, false)));
+
+        return sorted.entrySet().stream()
+                .map(parameter -> parameter.getKey() + "=" + parameter.getValue())
+                .collect(Collectors.joining("&"));
+    }
+
+    // RFC 3986 percent-encoding, every byte except the unreserved characters (and '/' in paths)
+    static String encode(String value, boolean path) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (path && c == '/')) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(HexFormat.of().withUpperCase().toHexDigits(b));
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String value) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.inventory.inventory_backend.storage;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.*;
+
+// Runs blocking file I/O on a few platform threads when requests run on virtual threads.
+// Unlike sockets, file system calls keep the virtual thread mounted, so a slow disk would hold carrier
+// threads that every other request needs; waiting on the Future unmounts instead. Inline when disabled.
+@Component
+public class BlockingIoExecutor {
+
+    public interface IoTask<T> {
+        T call() throws IOException;
+    }
+
+    private final ExecutorService executor;
+
+    public BlockingIoExecutor(@Value("${inventory.io.offload.enabled:false}") boolean enabled,
+                              @Value("${inventory.io.offload.threads:8}") int threads,
+                              @Value("${inventory.io.offload.queue-size:1000}") int queueSize) {
+        if (!enabled) {
+            this.executor = null;
+            return;
+        }
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "blocking-io");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public <T> T run(IoTask<T> task) throws IOException {
+        if (executor == null) {
+            return task.call();
+        }
+
+        Future<T> future;
+        try {
+            future = executor.submit(task::call);
+        } catch (RejectedExecutionException e) {
+            // Queue full, slower for this caller but never fails the request
+            return task.call();
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for file I/O");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new UncheckedIOException(new IOException(cause));
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.inventory.inventory_backend.storage;
+
+import com.inventory.inventory_backend.model.ImageBlob;
+import com.inventory.inventory_backend.model.ImageDeletion;
+import com.inventory.inventory_backend.repository.ImageBlobRepository;
+import com.inventory.inventory_backend.repository.ImageDeletionRepository;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+
+// Removes image files in the background. ImageStorageService.release() queues a file in image_deletions in the
+// same transaction as the product change, so a file is only removed once that change committed, and never
+// while a request is waiting. A periodic sweep of the ImageStore queues files nothing refers to
+// (e.g. a crash between writing the file and the database) and drops orphaned variants and stale staging files.
+@Component
+public class ImageGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageGarbageCollector.class);
+
+    // Files looked up per query during the sweep
+    private static final int SWEEP_CHUNK = 500;
+
+    private enum Claim { IN_USE, CLAIMED, REMOVING_ELSEWHERE }
+
+    private final ImageDeletionRepository imageDeletionRepository;
+    private final ImageBlobRepository imageBlobRepository;
+    private final ProductRepository productRepository;
+    private final ImageStorageService imageStorageService;
+    private final ImageVariantService imageVariantService;
+    private final ImageStore imageStore;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration claimTimeout;
+    private final Duration orphanMinAge;
+
+    public ImageGarbageCollector(ImageDeletionRepository imageDeletionRepository,
+                                 ImageBlobRepository imageBlobRepository,
+                                 ProductRepository productRepository,
+                                 ImageStorageService imageStorageService,
+                                 ImageVariantService imageVariantService,
+                                 ImageStore imageStore,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${inventory.images.gc.enabled:true}") boolean enabled,
+                                 @Value("${inventory.images.gc.batch-size:100}") int batchSize,
+                                 @Value("${inventory.images.gc.max-attempts:10}") int maxAttempts,
+                                 @Value("${inventory.images.gc.claim-timeout:10m}") Duration claimTimeout,
+                                 @Value("${inventory.images.reconcile.min-age:1h}") Duration orphanMinAge) {
+        this.imageDeletionRepository = imageDeletionRepository;
+        this.imageBlobRepository = imageBlobRepository;
+        this.productRepository = productRepository;
+        this.imageStorageService = imageStorageService;
+        this.imageVariantService = imageVariantService;
+        this.imageStore = imageStore;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.claimTimeout = claimTimeout;
+        this.orphanMinAge = orphanMinAge;
+    }
+
+    // Works through the queue in batches, returns the number of files removed
+    @Scheduled(fixedDelayString = "${inventory.images.gc.interval-ms:30000}")
+    public int collect() {
+        if (!enabled) {
+            return 0;
+        }
+
+        int removed = 0;
+        List<ImageDeletion> batch;
+        boolean failed;
+
+        do {
+            batch = imageDeletionRepository.findByAttemptsLessThanOrderByIdAsc(maxAttempts, Limit.of(batchSize));
+            failed = false;
+
+            for (ImageDeletion deletion : batch) {
+                try {
+                    if (remove(deletion)) {
+                        removed++;
+                    }
+                } catch (RuntimeException e) {
+                    failed(deletion, e);
+                    failed = true;
+                }
+            }
+            // Failed rows would be picked up again right away, they wait for the next run
+        } while (batch.size() == batchSize && !failed);
+
+        if (removed > 0) {
+            log.info("Removed {} unused image files", removed);
+        }
+        return removed;
+    }
+
+    // Queues unreferenced images of the store, returns how many were queued
+    @Scheduled(initialDelayString = "${inventory.images.reconcile.initial-delay-ms:300000}",
+            fixedDelayString = "${inventory.images.reconcile.interval-ms:21600000}")
+    public int reconcile() {
+        if (!enabled) {
+            return 0;
+        }
+
+        // Newer files may belong to an upload still in progress
+        Instant cutoff = Instant.now().minus(orphanMinAge);
+        Set<String> storedBaseNames = new HashSet<>();
+        List<String> candidates = new ArrayList<>();
+        int[] queued = {0};
+
+        try {
+            removeStagingLeftovers(cutoff);
+
+            imageStore.forEach("", image -> {
+                String name = image.key();
+                if (name.startsWith(ImageVariantService.VARIANT_PREFIX)) {
+                    return;
+                }
+
+                storedBaseNames.add(baseName(name));
+                if (name.equals(ImageStorageService.DEFAULT_IMAGE) || !image.lastModified().isBefore(cutoff)) {
+                    return;
+                }
+
+                candidates.add(name);
+                if (candidates.size() == SWEEP_CHUNK) {
+                    queued[0] += queueOrphans(candidates);
+                    candidates.clear();
+                }
+            });
+            queued[0] += queueOrphans(candidates);
+
+            int variants = removeOrphanVariants(storedBaseNames, cutoff);
+            log.info("Image reconciliation queued {} orphaned files, removed {} orphaned variants", queued[0], variants);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Image reconciliation failed", e);
+        }
+        return queued[0];
+    }
+
+    // Only the decision runs under the image row lock. A file that is not in use is claimed with a row without
+    // references, removed outside of the transaction and the claim dropped after: an upload of the same content
+    // either committed its reference before (the file stays) or waits for the claim to go (and writes it again).
+    private boolean remove(ImageDeletion deletion) {
+        String name = deletion.getImageName();
+
+        Claim claim = transactionTemplate.execute(status -> claim(deletion));
+        if (claim != Claim.CLAIMED) {
+            return false;
+        }
+
+        try {
+            deleteFiles(name);
+        } catch (RuntimeException e) {
+            // Uploads of the content go on, the file is still there
+            transactionTemplate.executeWithoutResult(status -> unclaim(name));
+            throw e;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            unclaim(name);
+            imageDeletionRepository.deleteById(deletion.getId());
+        });
+        return true;
+    }
+
+    private Claim claim(ImageDeletion deletion) {
+        String name = deletion.getImageName();
+
+        boolean inUse;
+        if (name.equals(ImageStorageService.DEFAULT_IMAGE)) {
+            inUse = true;
+        } else if (ImageStorageService.isContentAddressed(name)) {
+            Optional<ImageBlob> blob = imageBlobRepository.findForUpdate(name);
+            if (blob.isEmpty()) {
+                imageBlobRepository.saveAndFlush(ImageBlob.builder()
+                        .name(name)
+                        .size(0)
+                        .refCount(0)
+                        .createdAt(Instant.now())
+                        .build());
+                return Claim.CLAIMED;
+            }
+
+            ImageBlob image = blob.get();
+            if (image.getRefCount() == 0) {
+                // Claimed by another node, or by one that stopped before dropping the claim
+                if (image.getCreatedAt().isAfter(Instant.now().minus(claimTimeout))) {
+                    return Claim.REMOVING_ELSEWHERE;
+                }
+                image.setCreatedAt(Instant.now());
+                return Claim.CLAIMED;
+            }
+            inUse = true;
+        } else {
+            // Uploaded before content addressing, owned by a single product and never written again
+            inUse = productRepository.existsByImageName(name);
+        }
+
+        if (inUse) {
+            imageDeletionRepository.deleteById(deletion.getId());
+            return Claim.IN_USE;
+        }
+        return Claim.CLAIMED;
+    }
+
+    private void deleteFiles(String name) {
+        imageStorageService.deleteFile(name);
+        try {
+            imageVariantService.deleteVariants(name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void unclaim(String name) {
+        imageBlobRepository.findForUpdate(name)
+                .filter(blob -> blob.getRefCount() == 0)
+                .ifPresent(imageBlobRepository::delete);
+    }
+
+    private void failed(ImageDeletion deletion, RuntimeException e) {
+        int attempts = deletion.getAttempts() + 1;
+        transactionTemplate.executeWithoutResult(status -> imageDeletionRepository.incrementAttempts(deletion.getId()));
+
+        if (attempts >= maxAttempts) {
+            log.error("Giving up removing image {} after {} attempts, left in image_deletions",
+                    deletion.getImageName(), attempts, e);
+        } else {
+            log.warn("Failed to remove image {} (attempt {}), retrying later", deletion.getImageName(), attempts, e);
+        }
+    }
+
+    // The collector checks the references again before removing anything
+    private int queueOrphans(List<String> names) {
+        if (names.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> referenced = new HashSet<>(imageBlobRepository.findExistingNames(names));
+        referenced.addAll(productRepository.findImageNamesIn(names));
+
+        int queued = 0;
+        for (String name : names) {
+            if (!referenced.contains(name) && !imageDeletionRepository.existsByImageName(name)) {
+                imageDeletionRepository.save(ImageDeletion.builder()
+                        .imageName(name)
+                        .createdAt(Instant.now())
+                        .build());
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    // Variants are derived data: removed when their original is gone, regenerated on demand otherwise
+    private int removeOrphanVariants(Set<String> storedBaseNames, Instant cutoff) throws IOException {
+        List<String> orphans = new ArrayList<>();
+
+        imageStore.forEach(ImageVariantService.VARIANT_PREFIX, variant -> {
+            String name = variant.key().substring(variant.key().lastIndexOf('/') + 1);
+            if (variant.lastModified().isBefore(cutoff) && !storedBaseNames.contains(baseName(name))) {
+                orphans.add(variant.key());
+            }
+        });
+
+        for (String key : orphans) {
+            imageStore.delete(key);
+        }
+        return orphans.size();
+    }
+
+    // Left by an interrupted upload or variant generation, staged files are never in the store's listing
+    private void removeStagingLeftovers(Instant cutoff) throws IOException {
+        Path stagingDir = imageStorageService.getUploadDir();
+        if (!Files.isDirectory(stagingDir)) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.list(stagingDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if ((isTempFile(name, "upload-") || isTempFile(name, "variant-"))
+                        && Files.isRegularFile(file) && olderThan(file, cutoff)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static boolean isTempFile(String name, String prefix) {
+        return name.startsWith(prefix) && name.endsWith(".tmp");
+    }
+
+    private static String baseName(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static boolean olderThan(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            // Removed in the meantime
+            return false;
+        }
+    }
+}
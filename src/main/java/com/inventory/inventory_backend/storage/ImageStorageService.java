@@ -0,0 +1,254 @@
+package com.inventory.inventory_backend.storage;
+
+import com.inventory.inventory_backend.metrics.StageMetrics;
+import com.inventory.inventory_backend.model.ImageBlob;
+import com.inventory.inventory_backend.model.ImageDeletion;
+import com.inventory.inventory_backend.repository.ImageBlobRepository;
+import com.inventory.inventory_backend.repository.ImageDeletionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+// Content-addressed image storage: uploads are streamed to a local staging file through a SHA-256 digest and
+// stored once per distinct content as <hash>.<ext> in the ImageStore, with a reference count of the products
+// using each file. Files are never removed inline: release() queues them in image_deletions for ImageGarbageCollector.
+// Store I/O never runs under the image row lock, the transactions only count references.
+@Service
+public class ImageStorageService {
+
+    public static final String DEFAULT_IMAGE = "default.png";
+
+    private static final Logger log = LoggerFactory.getLogger(ImageStorageService.class);
+
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+    // How often, and how far apart, an upload checks whether the collector finished removing the same content
+    private static final int REMOVAL_WAIT_ATTEMPTS = 50;
+    private static final long REMOVAL_WAIT_MILLIS = 100;
+
+    private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z]+");
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", ".jpg",
+            "image/jpg", ".jpg",
+            "image/png", ".png",
+            "image/webp", ".webp"
+    );
+
+    private final ImageBlobRepository imageBlobRepository;
+    private final ImageDeletionRepository imageDeletionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StageMetrics stageMetrics;
+    private final BlockingIoExecutor blockingIoExecutor;
+    private final ImageStore imageStore;
+    private final Path uploadDir;
+
+    public ImageStorageService(ImageBlobRepository imageBlobRepository,
+                               ImageDeletionRepository imageDeletionRepository,
+                               TransactionTemplate transactionTemplate,
+                               StageMetrics stageMetrics,
+                               BlockingIoExecutor blockingIoExecutor,
+                               ImageStore imageStore,
+                               @Value("${inventory.images.upload-dir:uploads/products}") String uploadDir) {
+        this.imageBlobRepository = imageBlobRepository;
+        this.imageDeletionRepository = imageDeletionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.stageMetrics = stageMetrics;
+        this.blockingIoExecutor = blockingIoExecutor;
+        this.imageStore = imageStore;
+        this.uploadDir = Paths.get(uploadDir);
+    }
+
+    // Staging directory of uploads and generated variants (also the root of the local store)
+    public Path getUploadDir() {
+        return uploadDir;
+    }
+
+    // Names produced by store(), their content can never change
+    public static boolean isContentAddressed(String name) {
+        return name != null && CONTENT_ADDRESSED_NAME.matcher(name).matches();
+    }
+
+    // Returns the stored image name, the same name for every upload of identical content
+    public String store(MultipartFile image) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(uploadDir);
+        Path temp = Files.createTempFile(uploadDir, "upload-", ".tmp");
+
+        try {
+            MessageDigest digest = sha256();
+
+            // The copy is the long blocking part of an upload, off the request thread in virtual thread mode
+            long size = blockingIoExecutor.run(() -> {
+                try (InputStream input = new DigestInputStream(image.getInputStream(), digest);
+                     ReadableByteChannel source = Channels.newChannel(input);
+                     FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    return transfer(source, target);
+                }
+            });
+
+            String name = HexFormat.of().formatHex(digest.digest()) + extension(image.getContentType());
+
+            try {
+                register(name, temp, size);
+            } catch (DataIntegrityViolationException e) {
+                // Same new image uploaded concurrently, the other upload created the row first
+                register(name, temp, size);
+            }
+            return name;
+        } finally {
+            Files.deleteIfExists(temp);
+            stageMetrics.record(StageMetrics.Stage.IMAGE_STORE, start);
+        }
+    }
+
+    // Drops one product's reference. Joins the caller's transaction, so when the product change rolls back
+    // the reference and the file stay; the file is queued for removal once no product uses it anymore.
+    public void release(String name) {
+        if (name == null || name.isEmpty() || name.equals(DEFAULT_IMAGE)) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Optional<ImageBlob> blob = imageBlobRepository.findForUpdate(name);
+
+            if (blob.isPresent()) {
+                ImageBlob image = blob.get();
+                image.setRefCount(image.getRefCount() - 1);
+                if (image.getRefCount() > 0) {
+                    return;
+                }
+                imageBlobRepository.delete(image);
+            }
+
+            // Last reference, or uploaded before content addressing (owned by a single product)
+            imageDeletionRepository.save(ImageDeletion.builder()
+                    .imageName(name)
+                    .createdAt(Instant.now())
+                    .build());
+        });
+    }
+
+    // Takes the reference first and writes the file after it committed: the collector either saw the reference
+    // (the file stays) or already removed the file (it is written again). A row without references is the
+    // collector removing the file, the upload waits for that to finish.
+    private void register(String name, Path temp, long size) throws IOException {
+        for (int attempt = 1; !reference(name, size); attempt++) {
+            if (attempt == REMOVAL_WAIT_ATTEMPTS) {
+                throw new IOException("Image " + name + " is still being removed");
+            }
+            try {
+                Thread.sleep(REMOVAL_WAIT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for the removal of image " + name, e);
+            }
+        }
+
+        try {
+            // Keeps the stored file when the content is there already
+            imageStore.put(name, temp);
+        } catch (IOException | RuntimeException e) {
+            release(name);
+            throw e;
+        }
+    }
+
+    // false while the collector removes the file
+    private boolean reference(String name, long size) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Optional<ImageBlob> existing = imageBlobRepository.findForUpdate(name);
+
+            if (existing.isEmpty()) {
+                imageBlobRepository.saveAndFlush(ImageBlob.builder()
+                        .name(name)
+                        .size(size)
+                        .refCount(1)
+                        .createdAt(Instant.now())
+                        .build());
+                return true;
+            }
+
+            ImageBlob image = existing.get();
+            if (image.getRefCount() == 0) {
+                return false;
+            }
+            image.setRefCount(image.getRefCount() + 1);
+            return true;
+        }));
+    }
+
+    private static long transfer(ReadableByteChannel source, FileChannel target) throws IOException {
+        long position = 0;
+        long transferred;
+
+        // transferFrom returns 0 once the source is exhausted
+        while ((transferred = target.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+            position += transferred;
+        }
+        return position;
+    }
+
+    void deleteFile(String name) {
+        try {
+            imageStore.delete(name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The placeholder ships with every node's upload directory, a shared store gets a copy on first start
+    @EventListener(ApplicationReadyEvent.class)
+    public void publishDefaultImage() {
+        Path placeholder = uploadDir.resolve(DEFAULT_IMAGE);
+
+        try {
+            if (Files.isRegularFile(placeholder) && imageStore.find(DEFAULT_IMAGE).isEmpty()) {
+                Path copy = Files.createTempFile(uploadDir, "upload-", ".tmp");
+                Files.copy(placeholder, copy, StandardCopyOption.REPLACE_EXISTING);
+                imageStore.put(DEFAULT_IMAGE, copy);
+                log.info("Copied {} to the image store", DEFAULT_IMAGE);
+            }
+        } catch (IOException e) {
+            log.warn("Could not copy {} to the image store", DEFAULT_IMAGE, e);
+        }
+    }
+
+    private static String extension(String contentType) {
+        return EXTENSIONS.getOrDefault(contentType, "");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.inventory.inventory_backend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Where image files live. Keys are image names ("<hash>.png", older uploads under their own name) and
+// variant keys ("variants/128/<hash>.jpg"), each implementation decides the physical layout.
+// Reference counting and garbage collection stay in ImageStorageService and ImageGarbageCollector.
+public interface ImageStore {
+
+    // Takes over a finished local file (moved or uploaded, the file is gone afterwards).
+    // An existing object is kept, content under a key never changes.
+    void put(String key, Path file) throws IOException;
+
+    Optional<StoredImage> find(String key) throws IOException;
+
+    InputStream open(String key) throws IOException;
+
+    // Writes 'length' bytes of the object starting at 'position', for whole files and range requests
+    void copyTo(String key, long position, long length, OutputStream output) throws IOException;
+
+    // The object as a file on this node's disk, which the container can send without copying through the JVM
+    default Optional<Path> localFile(String key) {
+        return Optional.empty();
+    }
+
+    void delete(String key) throws IOException;
+
+    // Every object under a directory-like prefix ("" or ending with '/'), in no particular order
+    void forEach(String prefix, Consumer<StoredImage> action) throws IOException;
+
+    record StoredImage(String key, long size, Instant lastModified) {
+    }
+}
@@ -0,0 +1,228 @@
+package com.inventory.inventory_backend.storage;
+
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.metrics.StageMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+
+// Generates downscaled JPEG variants of product images in the background, so listings
+// don't have to download the full-size upload
+@Service
+public class ImageVariantService {
+
+    // Longest side in pixels of each generated variant
+    public static final int[] VARIANT_SIZES = {128, 512};
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    // Key prefix of the variants in the ImageStore, variants/<size>/<image base name>.jpg
+    static final String VARIANT_PREFIX = "variants/";
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final ImageStore imageStore;
+    private final Path stagingDir;
+    private final ExecutorService executor;
+    private final StageMetrics stageMetrics;
+
+    // Images queued or being processed, so repeated requests don't generate the same variants twice
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public ImageVariantService(ImageStore imageStore, ImageStorageService imageStorageService, StageMetrics stageMetrics) {
+        this.imageStore = imageStore;
+        this.stagingDir = imageStorageService.getUploadDir();
+        this.stageMetrics = stageMetrics;
+
+        // Small pool with a bounded queue, missing variants are generated again on the next request
+        this.executor = new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getAfter() == null) {
+            return;
+        }
+
+        String imageName = event.getAfter().getImageName();
+        String previous = event.getBefore() != null ? event.getBefore().getImageName() : null;
+
+        if (imageName != null && !imageName.equals(previous)) {
+            generateAsync(imageName);
+        }
+    }
+
+    public void generateAsync(String imageName) {
+        if (!inFlight.add(imageName)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(imageName);
+                } finally {
+                    inFlight.remove(imageName);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(imageName);
+        }
+    }
+
+    // Smallest variant at least as large as requested, or the largest one
+    public static int resolveSize(int requested) {
+        for (int size : VARIANT_SIZES) {
+            if (size >= requested) {
+                return size;
+            }
+        }
+        return VARIANT_SIZES[VARIANT_SIZES.length - 1];
+    }
+
+    // Variant if it was generated already
+    public Optional<ImageStore.StoredImage> findVariant(String imageName, int size) throws IOException {
+        return imageStore.find(variantKey(imageName, size));
+    }
+
+    public Optional<ImageStore.StoredImage> findOriginal(String imageName) throws IOException {
+        return imageStore.find(imageName);
+    }
+
+    // Removes every generated variant of the image, they are regenerated if the image is uploaded again
+    void deleteVariants(String imageName) throws IOException {
+        for (int size : VARIANT_SIZES) {
+            imageStore.delete(variantKey(imageName, size));
+        }
+    }
+
+    static String variantKey(String imageName, int size) {
+        int dot = imageName.lastIndexOf('.');
+        String baseName = dot > 0 ? imageName.substring(0, dot) : imageName;
+        return VARIANT_PREFIX + size + "/" + baseName + ".jpg";
+    }
+
+    void generate(String imageName) {
+        try {
+            if (findOriginal(imageName).isEmpty()) {
+                return;
+            }
+
+            BufferedImage source = null;
+
+            for (int size : VARIANT_SIZES) {
+                String key = variantKey(imageName, size);
+                if (imageStore.find(key).isPresent()) {
+                    continue;
+                }
+
+                if (source == null) {
+                    try (InputStream input = imageStore.open(imageName)) {
+                        source = ImageIO.read(input);
+                    }
+                    if (source == null) {
+                        // No ImageIO reader for this format (e.g. WebP), the original is served instead
+                        log.debug("Cannot decode image {}, no variants generated", imageName);
+                        return;
+                    }
+                }
+
+                long start = System.nanoTime();
+                imageStore.put(key, writeJpeg(scale(source, size)));
+                stageMetrics.record(StageMetrics.Stage.IMAGE_VARIANT, start);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to generate variants for image {}", imageName, e);
+        }
+    }
+
+    // Fits the longest side into 'size', halving step by step for a smoother result (never upscales)
+    private static BufferedImage scale(BufferedImage source, int size) {
+        int longest = Math.max(source.getWidth(), source.getHeight());
+        double ratio = Math.min(1.0, (double) size / longest);
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height);
+        } while (width != targetWidth || height != targetHeight);
+
+        return current;
+    }
+
+    // JPEG has no alpha channel, transparent areas are drawn on white
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    // Staged locally, the store takes the file over
+    private Path writeJpeg(BufferedImage image) throws IOException {
+        Files.createDirectories(stagingDir);
+        Path temp = Files.createTempFile(stagingDir, "variant-", ".tmp");
+
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+
+            return temp;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.inventory.inventory_backend.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Images on the local disk (or a shared volume). Content-addressed files are spread over two levels of
+// directories by their hash, <root>/ab/cd/abcd....png, so no directory grows to millions of entries.
+// Files stored flat before sharding, and other names, are still found at <root>/<name>.
+public class LocalImageStore implements ImageStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalImageStore.class);
+
+    private static final Pattern HASH_PREFIX = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public LocalImageStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void put(String key, Path file) throws IOException {
+        if (existing(key).isPresent()) {
+            Files.deleteIfExists(file);
+            return;
+        }
+
+        Path target = resolve(key);
+        if (target == null) {
+            throw new IOException("Invalid image key " + key);
+        }
+
+        Files.createDirectories(target.getParent());
+        // Uploads are staged under the same root, so this is a rename
+        Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public Optional<StoredImage> find(String key) throws IOException {
+        Optional<Path> file = existing(key);
+        if (file.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.get(), BasicFileAttributes.class);
+            return Optional.of(new StoredImage(key, attributes.size(), attributes.lastModifiedTime().toInstant()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(existing(key).orElseThrow(() -> new NoSuchFileException(key)));
+    }
+
+    @Override
+    public void copyTo(String key, long position, long length, OutputStream output) throws IOException {
+        Path file = existing(key).orElseThrow(() -> new NoSuchFileException(key));
+
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(output);
+            long end = position + length;
+            long transferred;
+
+            while (position < end && (transferred = source.transferTo(position, end - position, target)) > 0) {
+                position += transferred;
+            }
+        }
+    }
+
+    @Override
+    public Optional<Path> localFile(String key) {
+        return existing(key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Path sharded = resolve(key);
+        Path flat = flat(key);
+        if (sharded == null || flat == null) {
+            log.warn("Not removing image {}, outside of the image directory", key);
+            return;
+        }
+
+        Files.deleteIfExists(sharded);
+        Files.deleteIfExists(flat);
+    }
+
+    @Override
+    public void forEach(String prefix, Consumer<StoredImage> action) throws IOException {
+        Path start = root.resolve(prefix).normalize();
+        if (!start.startsWith(root) || !Files.isDirectory(start)) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.walk(start)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    // Staged uploads and variants, not stored yet
+                    continue;
+                }
+
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (attributes.isRegularFile()) {
+                    action.accept(new StoredImage(key(file), attributes.size(), attributes.lastModifiedTime().toInstant()));
+                }
+            }
+        }
+    }
+
+    // Where the key is stored, null when it points outside the root
+    Path resolve(String key) {
+        int slash = key.lastIndexOf('/');
+        String name = key.substring(slash + 1);
+        Path directory = root.resolve(key.substring(0, slash + 1));
+
+        if (isSharded(name)) {
+            directory = directory.resolve(name.substring(0, 2)).resolve(name.substring(2, 4));
+        }
+        return inside(directory.resolve(name));
+    }
+
+    private Optional<Path> existing(String key) {
+        Path sharded = resolve(key);
+        if (sharded != null && Files.isRegularFile(sharded)) {
+            return Optional.of(sharded);
+        }
+
+        Path flat = flat(key);
+        if (flat != null && !flat.equals(sharded) && Files.isRegularFile(flat)) {
+            return Optional.of(flat);
+        }
+        return Optional.empty();
+    }
+
+    private Path flat(String key) {
+        return inside(root.resolve(key));
+    }
+
+    private Path inside(Path path) {
+        Path normalized = path.normalize();
+        return normalized.startsWith(root) && !normalized.equals(root) ? normalized : null;
+    }
+
+    // Strips the shard directories, when the file is where resolve() puts it
+    private String key(Path file) {
+        List<String> segments = new ArrayList<>();
+        root.relativize(file).forEach(segment -> segments.add(segment.toString()));
+
+        String name = segments.get(segments.size() - 1);
+        int parents = segments.size() - 1;
+        if (isSharded(name) && parents >= 2
+                && segments.get(parents - 2).equals(name.substring(0, 2))
+                && segments.get(parents - 1).equals(name.substring(2, 4))) {
+            segments.subList(parents - 2, parents).clear();
+        }
+        return String.join("/", segments);
+    }
+
+    private static boolean isSharded(String name) {
+        return HASH_PREFIX.matcher(name).lookingAt();
+    }
+}
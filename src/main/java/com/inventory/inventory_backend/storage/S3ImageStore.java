@@ -0,0 +1,227 @@
+package com.inventory.inventory_backend.storage;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Images in an S3-compatible bucket, so every node serves the same files. Path-style requests
+// (<endpoint>/<bucket>/<key prefix><key>) signed with SigV4, which S3, MinIO and most others accept.
+// Objects are streamed from the bucket through the node; a CDN in front keeps that off the hot path.
+public class S3ImageStore implements ImageStore {
+
+    private final HttpClient client;
+    private final URI endpoint;
+    private final String bucket;
+    private final String keyPrefix;
+    private final Duration timeout;
+    private final AwsV4Signer signer;
+
+    public S3ImageStore(URI endpoint, String region, String bucket, String keyPrefix,
+                        String accessKey, String secretKey, Duration timeout) {
+        this.endpoint = endpoint;
+        this.bucket = bucket;
+        this.keyPrefix = keyPrefix;
+        this.timeout = timeout;
+        this.signer = new AwsV4Signer(accessKey, secretKey, region, "s3");
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    @Override
+    public void put(String key, Path file) throws IOException {
+        try {
+            if (find(key).isPresent()) {
+                return;
+            }
+
+            String contentType = MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+            HttpResponse<Void> response = send("PUT", objectPath(key), Map.of(), Map.of("Content-Type", contentType),
+                    HttpRequest.BodyPublishers.ofFile(file), AwsV4Signer.UNSIGNED_PAYLOAD, HttpResponse.BodyHandlers.discarding());
+            check(response, key);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public Optional<StoredImage> find(String key) throws IOException {
+        HttpResponse<Void> response = send("HEAD", objectPath(key), Map.of(), Map.of(),
+                HttpRequest.BodyPublishers.noBody(), AwsV4Signer.EMPTY_PAYLOAD, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        check(response, key);
+
+        long size = response.headers().firstValueAsLong("Content-Length").orElse(0);
+        Instant lastModified = response.headers().firstValue("Last-Modified")
+                .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant())
+                .orElse(Instant.EPOCH);
+        return Optional.of(new StoredImage(key, size, lastModified));
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return get(key, Map.of());
+    }
+
+    @Override
+    public void copyTo(String key, long position, long length, OutputStream output) throws IOException {
+        if (length == 0) {
+            return;
+        }
+
+        try (InputStream input = get(key, Map.of("Range", "bytes=" + position + "-" + (position + length - 1)))) {
+            input.transferTo(output);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<Void> response = send("DELETE", objectPath(key), Map.of(), Map.of(),
+                HttpRequest.BodyPublishers.noBody(), AwsV4Signer.EMPTY_PAYLOAD, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 404) {
+            check(response, key);
+        }
+    }
+
+    // ListObjectsV2, a page of up to 1000 keys per request
+    @Override
+    public void forEach(String prefix, Consumer<StoredImage> action) throws IOException {
+        String continuationToken = null;
+
+        do {
+            Map<String, String> query = new HashMap<>();
+            query.put("list-type", "2");
+            query.put("prefix", keyPrefix + prefix);
+            if (continuationToken != null) {
+                query.put("continuation-token", continuationToken);
+            }
+
+            HttpResponse<InputStream> response = send("GET", "/" + bucket, query, Map.of(),
+                    HttpRequest.BodyPublishers.noBody(), AwsV4Signer.EMPTY_PAYLOAD, HttpResponse.BodyHandlers.ofInputStream());
+
+            Document page;
+            try (InputStream body = response.body()) {
+                check(response, prefix);
+                page = parse(body);
+            }
+
+            NodeList contents = page.getElementsByTagName("Contents");
+            for (int i = 0; i < contents.getLength(); i++) {
+                Element object = (Element) contents.item(i);
+                String key = text(object, "Key");
+                if (key.startsWith(keyPrefix)) {
+                    action.accept(new StoredImage(key.substring(keyPrefix.length()),
+                            Long.parseLong(text(object, "Size")), Instant.parse(text(object, "LastModified"))));
+                }
+            }
+
+            continuationToken = "true".equals(text(page.getDocumentElement(), "IsTruncated"))
+                    ? text(page.getDocumentElement(), "NextContinuationToken")
+                    : null;
+        } while (continuationToken != null);
+    }
+
+    private InputStream get(String key, Map<String, String> headers) throws IOException {
+        HttpResponse<InputStream> response = send("GET", objectPath(key), Map.of(), headers,
+                HttpRequest.BodyPublishers.noBody(), AwsV4Signer.EMPTY_PAYLOAD, HttpResponse.BodyHandlers.ofInputStream());
+
+        if (response.statusCode() / 100 != 2) {
+            response.body().close();
+            if (response.statusCode() == 404) {
+                throw new NoSuchFileException(key);
+            }
+            check(response, key);
+        }
+        return response.body();
+    }
+
+    private <T> HttpResponse<T> send(String method, String path, Map<String, String> query, Map<String, String> headers,
+                                     HttpRequest.BodyPublisher body, String payloadHash,
+                                     HttpResponse.BodyHandler<T> handler) throws IOException {
+        String fullPath = endpoint.getRawPath().replaceAll("/+$", "") + path;
+
+        Map<String, String> signedHeaders = new LinkedHashMap<>();
+        signedHeaders.put("host", endpoint.getRawAuthority());
+        signedHeaders.put("x-amz-content-sha256", payloadHash);
+        signedHeaders.put("x-amz-date", AwsV4Signer.amzDate(Instant.now()));
+
+        String queryString = query.isEmpty() ? "" : "?" + AwsV4Signer.canonicalQuery(query);
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(endpoint.getScheme() + "://"
+                        + endpoint.getRawAuthority() + AwsV4Signer.encode(fullPath, true) + queryString))
+                .timeout(timeout)
+                .method(method, body)
+                .header("Authorization", signer.authorization(method, fullPath, query, signedHeaders))
+                .header("x-amz-content-sha256", payloadHash)
+                .header("x-amz-date", signedHeaders.get("x-amz-date"));
+        headers.forEach(request::header);
+
+        HttpRequest built = request.build();
+        try {
+            try {
+                return client.send(built, handler);
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                // Stores close idle keep-alive connections, every request here is idempotent so it is sent once more
+                return client.send(built, handler);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during S3 " + method + " " + path);
+        }
+    }
+
+    private String objectPath(String key) {
+        return "/" + bucket + "/" + keyPrefix + key;
+    }
+
+    private static void check(HttpResponse<?> response, String key) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("S3 " + response.request().method() + " of " + key + " failed with status " + response.statusCode());
+        }
+    }
+
+    private static Document parse(InputStream body) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(body);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Unreadable S3 listing", e);
+        }
+    }
+
+    private static String text(Element parent, String name) {
+        NodeList nodes = parent.getElementsByTagName(name);
+        return nodes.getLength() > 0 ? nodes.item(0).getTextContent() : null;
+    }
+}
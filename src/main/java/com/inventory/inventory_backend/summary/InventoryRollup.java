@@ -0,0 +1,96 @@
+package com.inventory.inventory_backend.summary;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inventory.inventory_backend.dto.InventorySummaryResponse;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Optional per-user inventory rollup, loaded once from the database and then kept current by
+// ProductChangedEvent (create, update, delete, stock changes), so the dashboard summary costs no query.
+// Only answers for the configured low-stock threshold, other thresholds go to the aggregate queries.
+@Component
+public class InventoryRollup {
+
+    private static final int CHANGE_STRIPES = 64;
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final int lowStockThreshold;
+    private final Cache<Long, UserRollup> rollups;
+
+    // Changes per user stripe, a rollup loaded while its user changed is not kept (see ProductListingCache)
+    private final AtomicLongArray changes = new AtomicLongArray(CHANGE_STRIPES);
+
+    public InventoryRollup(ProductRepository productRepository,
+                           @Value("${inventory.summary.rollup.enabled:true}") boolean enabled,
+                           @Value("${inventory.summary.low-stock-threshold:5}") int lowStockThreshold,
+                           @Value("${inventory.summary.rollup.max-products:500000}") long maxProducts,
+                           @Value("${inventory.summary.rollup.expire-after-access:30m}") Duration expireAfterAccess) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.lowStockThreshold = lowStockThreshold;
+        this.rollups = Caffeine.newBuilder()
+                .maximumWeight(maxProducts)
+                .weigher((Long userId, UserRollup rollup) -> rollup.weight())
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    public InventorySummaryResponse summary(Long userId, int top) {
+        UserRollup rollup = rollups.getIfPresent(userId);
+        if (rollup != null) {
+            return rollup.summary(top);
+        }
+
+        // Loaded outside the cache's compute lock, see PrincipalCache
+        long seen = changes.get(stripe(userId));
+        rollup = new UserRollup(lowStockThreshold, productRepository.findViewsByUserId(userId));
+        rollups.put(userId, rollup);
+
+        // A change during the load had no rollup to patch, the loaded rows may miss it
+        if (changes.get(stripe(userId)) != seen) {
+            rollups.asMap().remove(userId, rollup);
+        }
+        return rollup.summary(top);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        Long userId = event.getUserId();
+        changes.incrementAndGet(stripe(userId));
+
+        UserRollup rollup = rollups.getIfPresent(userId);
+        if (rollup == null) {
+            return;
+        }
+
+        switch (event.getType()) {
+            case CREATED, UPDATED -> rollup.upsert(event.getAfter());
+            case DELETED -> rollup.remove(event.getProductId());
+            case BULK_CHANGED -> rollups.invalidate(userId);
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return (int) (userId & (CHANGE_STRIPES - 1));
+    }
+}
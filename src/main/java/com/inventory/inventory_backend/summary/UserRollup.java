@@ -0,0 +1,91 @@
+package com.inventory.inventory_backend.summary;
+
+import com.inventory.inventory_backend.dto.InventorySummaryResponse;
+import com.inventory.inventory_backend.dto.ProductValue;
+import com.inventory.inventory_backend.dto.ProductView;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+// Running totals of one user's products, patched by every product change instead of recomputed.
+// Keeps each product's last seen row version, so a late event can't undo a newer one, and the products
+// ordered by value for the top-N list. Pure CPU under the lock, no I/O.
+final class UserRollup {
+
+    private static final Comparator<ProductValue> BY_VALUE_DESC =
+            Comparator.comparing(ProductValue::getValue).reversed().thenComparing(ProductValue::getId);
+
+    private final int lowStockThreshold;
+
+    private final Map<Long, ProductValue> products = new HashMap<>();
+    private final Map<Long, Long> versions = new HashMap<>();
+    private final TreeSet<ProductValue> byValue = new TreeSet<>(BY_VALUE_DESC);
+
+    // Ids deleted since the rollup was loaded, a late update event must not bring them back
+    private final Set<Long> deletedIds = new HashSet<>();
+
+    private long units;
+    private BigDecimal totalValue = BigDecimal.ZERO;
+    private long lowStockCount;
+
+    UserRollup(int lowStockThreshold, List<ProductView> products) {
+        this.lowStockThreshold = lowStockThreshold;
+        products.forEach(this::apply);
+    }
+
+    synchronized void upsert(ProductView product) {
+        if (deletedIds.contains(product.getId())) {
+            return;
+        }
+
+        Long version = versions.get(product.getId());
+        if (version != null && version > product.getVersion()) {
+            return;
+        }
+        apply(product);
+    }
+
+    synchronized void remove(Long productId) {
+        deletedIds.add(productId);
+        versions.remove(productId);
+        subtract(products.remove(productId));
+    }
+
+    synchronized InventorySummaryResponse summary(int top) {
+        List<ProductValue> topByValue = byValue.stream().limit(top).toList();
+        return new InventorySummaryResponse(products.size(), units, totalValue,
+                lowStockThreshold, lowStockCount, topByValue, "rollup");
+    }
+
+    // Number of products when loaded, the cache size bound doesn't follow later changes
+    synchronized int weight() {
+        return products.size() + 1;
+    }
+
+    private void apply(ProductView product) {
+        ProductValue value = ProductValue.of(product);
+
+        versions.put(product.getId(), product.getVersion());
+        subtract(products.put(product.getId(), value));
+
+        byValue.add(value);
+        units += value.getQuantity();
+        totalValue = totalValue.add(value.getValue());
+        if (value.getQuantity() <= lowStockThreshold) {
+            lowStockCount++;
+        }
+    }
+
+    private void subtract(ProductValue value) {
+        if (value == null) {
+            return;
+        }
+
+        byValue.remove(value);
+        units -= value.getQuantity();
+        totalValue = totalValue.subtract(value.getValue());
+        if (value.getQuantity() <= lowStockThreshold) {
+            lowStockCount--;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- Listing and keyset pagination: where user_id = ? [and id > ?] order by id
+create index idx_products_user_id_id on products (user_id, id);
+
+-- Name lookups and name-ordered listings within one user's products
+create index idx_products_user_name on products (user_id, name);
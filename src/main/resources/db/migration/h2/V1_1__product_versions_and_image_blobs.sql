@@ -0,0 +1,12 @@
+-- Same as mysql/V1_1__product_versions_and_image_blobs.sql
+
+alter table products add column version bigint default 0 not null;
+alter table products add column updated_at timestamp(6) with time zone;
+
+create table image_blobs (
+    name varchar(80) not null,
+    size bigint not null,
+    ref_count integer not null,
+    created_at timestamp(6) with time zone not null,
+    primary key (name)
+);
@@ -0,0 +1,24 @@
+-- Same schema as mysql/V1__baseline.sql, for the embedded database used by tests and benchmarks
+
+create table users (
+    id bigint generated by default as identity,
+    username varchar(20),
+    email varchar(50),
+    password varchar(120),
+    role enum ('ROLE_ADMIN','ROLE_USER'),
+    primary key (id),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+);
+
+create table products (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    description varchar(500),
+    quantity integer not null,
+    price numeric(38,2) not null,
+    image_name varchar(255),
+    user_id bigint not null,
+    primary key (id),
+    constraint fk_products_user foreign key (user_id) references users (id)
+);
@@ -0,0 +1,4 @@
+-- Same as mysql/V3__product_name_lower_index.sql
+alter table products add column name_lower varchar(255) generated always as (lower(name));
+
+create index idx_products_user_name_lower on products (user_id, name_lower);
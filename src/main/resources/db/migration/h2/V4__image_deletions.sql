@@ -0,0 +1,11 @@
+-- Same table as mysql/V4__image_deletions.sql
+
+create table image_deletions (
+    id bigint generated by default as identity,
+    image_name varchar(255) not null,
+    created_at timestamp(6) with time zone not null,
+    attempts integer not null,
+    primary key (id)
+);
+
+create index idx_image_deletions_image_name on image_deletions (image_name);
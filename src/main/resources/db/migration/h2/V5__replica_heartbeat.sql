@@ -0,0 +1,9 @@
+-- Same table as mysql/V5__replica_heartbeat.sql
+
+create table replica_heartbeat (
+    id integer not null,
+    beat_at bigint not null,
+    primary key (id)
+);
+
+insert into replica_heartbeat (id, beat_at) values (1, 0);
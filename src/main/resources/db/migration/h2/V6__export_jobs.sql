@@ -0,0 +1,23 @@
+-- Same table as mysql/V6__export_jobs.sql
+
+create table export_jobs (
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    format varchar(20) not null,
+    status varchar(20) not null,
+    total_rows bigint not null,
+    rows_exported bigint not null,
+    last_product_id bigint not null,
+    bytes_written bigint not null,
+    attempt integer not null,
+    lease_until timestamp(6) with time zone,
+    error varchar(500),
+    created_at timestamp(6) with time zone not null,
+    updated_at timestamp(6) with time zone not null,
+    completed_at timestamp(6) with time zone,
+    primary key (id),
+    constraint fk_export_jobs_user foreign key (user_id) references users (id)
+);
+
+create index idx_export_jobs_user_id on export_jobs (user_id);
+create index idx_export_jobs_status on export_jobs (status);
@@ -0,0 +1,14 @@
+-- Added by the application before the schema moved to Flyway, so databases baselined at V1 lack them.
+-- Existing products start at version 0 and without an update time.
+
+alter table products
+    add column version bigint not null default 0,
+    add column updated_at datetime(6);
+
+create table image_blobs (
+    name varchar(80) not null,
+    size bigint not null,
+    ref_count integer not null,
+    created_at datetime(6) not null,
+    primary key (name)
+) engine=InnoDB;
@@ -0,0 +1,25 @@
+-- Schema as created by spring.jpa.hibernate.ddl-auto=update before the move to Flyway. Existing databases
+-- are baselined at this version (spring.flyway.baseline-on-migrate), skip it and get the later migrations.
+
+create table users (
+    id bigint not null auto_increment,
+    username varchar(20),
+    email varchar(50),
+    password varchar(120),
+    role enum ('ROLE_ADMIN','ROLE_USER'),
+    primary key (id),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+) engine=InnoDB;
+
+create table products (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    description varchar(500),
+    quantity integer not null,
+    price decimal(38,2) not null,
+    image_name varchar(255),
+    user_id bigint not null,
+    primary key (id),
+    constraint fk_products_user foreign key (user_id) references users (id)
+) engine=InnoDB;
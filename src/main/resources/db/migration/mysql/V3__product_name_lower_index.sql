@@ -0,0 +1,5 @@
+-- Case-insensitive name search filters on lower(name). A virtual generated column takes no row space,
+-- only the index stores its values, so the LIKE is checked on index entries of that user alone
+alter table products
+    add column name_lower varchar(255) generated always as (lower(name)) virtual,
+    add index idx_products_user_name_lower (user_id, name_lower);
@@ -0,0 +1,12 @@
+-- Outbox of image files to remove, written in the same transaction as the product change that released them
+-- and processed by ImageGarbageCollector after commit
+
+create table image_deletions (
+    id bigint not null auto_increment,
+    image_name varchar(255) not null,
+    created_at datetime(6) not null,
+    attempts integer not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_image_deletions_image_name on image_deletions (image_name);
@@ -0,0 +1,10 @@
+-- A single row the primary stamps every second while read replicas are configured (ReadReplicas).
+-- Its copy on a replica tells how far behind the replica is. beat_at is epoch milliseconds.
+
+create table replica_heartbeat (
+    id integer not null,
+    beat_at bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+insert into replica_heartbeat (id, beat_at) values (1, 0);
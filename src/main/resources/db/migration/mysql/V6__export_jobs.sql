@@ -0,0 +1,25 @@
+-- Background product exports (ProductExportService). last_product_id, rows_exported and bytes_written are
+-- the last checkpoint: a job picked up again truncates its file to bytes_written and continues after
+-- last_product_id. lease_until is renewed by every checkpoint, a RUNNING job past it is taken over.
+
+create table export_jobs (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    format varchar(20) not null,
+    status varchar(20) not null,
+    total_rows bigint not null,
+    rows_exported bigint not null,
+    last_product_id bigint not null,
+    bytes_written bigint not null,
+    attempt integer not null,
+    lease_until datetime(6),
+    error varchar(500),
+    created_at datetime(6) not null,
+    updated_at datetime(6) not null,
+    completed_at datetime(6),
+    primary key (id),
+    constraint fk_export_jobs_user foreign key (user_id) references users (id)
+) engine=InnoDB;
+
+create index idx_export_jobs_user_id on export_jobs (user_id);
+create index idx_export_jobs_status on export_jobs (status);
@@ -0,0 +1,11 @@
+package com.inventory.inventory_backend;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.context.annotation.Configuration;
+
+// Entities and repositories for @DataJpaTest slices without InventoryBackendApplication,
+// whose startup runner expects an already seeded database
+@Configuration
+@AutoConfigurationPackage(basePackageClasses = InventoryBackendApplication.class)
+public class JpaTestConfiguration {
+}
@@ -0,0 +1,115 @@
+package com.inventory.inventory_backend.cache;
+
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ProductListingCacheTests {
+
+    private ProductRepository productRepository;
+    private InProcessInvalidationBus bus;
+    private ProductListingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findViewsByUserId(1L)).thenReturn(List.of(product(1L, "Laptop", 0), product(2L, "Mouse", 0)));
+
+        bus = new InProcessInvalidationBus();
+        cache = newCache();
+    }
+
+    @Test
+    void servesRepeatedReadsFromMemory() {
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(1L);
+
+        verify(productRepository, times(1)).findViewsByUserId(1L);
+        assertThat(cache.getStats().hitCount()).isEqualTo(2);
+        assertThat(cache.getStats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void patchesCreatesUpdatesAndDeletesInPlace() {
+        String etag = cache.get(1L).getEtag();
+
+        cache.onProductChanged(ProductChangedEvent.created(product(3L, "Keyboard", 0)));
+        cache.onProductChanged(ProductChangedEvent.updated(product(1L, "Laptop", 0), product(1L, "Laptop Pro", 1)));
+        cache.onProductChanged(ProductChangedEvent.deleted(product(2L, "Mouse", 0)));
+
+        CachedListing listing = cache.get(1L);
+        assertThat(listing.getProducts()).extracting(ProductView::getName).containsExactly("Laptop Pro", "Keyboard");
+        assertThat(listing.getEtag()).isNotEqualTo(etag);
+        verify(productRepository, times(1)).findViewsByUserId(1L);
+    }
+
+    @Test
+    void ignoresEventsOlderThanTheCachedRow() {
+        cache.get(1L);
+
+        cache.onProductChanged(ProductChangedEvent.updated(product(1L, "Laptop", 1), product(1L, "Laptop v3", 3)));
+        cache.onProductChanged(ProductChangedEvent.updated(product(1L, "Laptop", 0), product(1L, "Laptop v2", 2)));
+        cache.onProductChanged(ProductChangedEvent.deleted(product(2L, "Mouse", 0)));
+        cache.onProductChanged(ProductChangedEvent.updated(product(2L, "Mouse", 0), product(2L, "Mouse v1", 1)));
+
+        assertThat(cache.get(1L).getProducts()).extracting(ProductView::getName).containsExactly("Laptop v3");
+    }
+
+    @Test
+    void sameRowsGiveTheSameEtagOnEveryNode() {
+        ProductListingCache otherNode = newCache();
+
+        assertThat(otherNode.get(1L).getEtag()).isEqualTo(cache.get(1L).getEtag());
+    }
+
+    @Test
+    void changesInvalidateOtherNodesButNotTheWritingNode() {
+        ProductListingCache otherNode = newCache();
+        cache.get(1L);
+        otherNode.get(1L);
+
+        cache.onProductChanged(ProductChangedEvent.created(product(3L, "Keyboard", 0)));
+        cache.get(1L);
+        otherNode.get(1L);
+
+        // Two initial loads plus the other node's reload
+        verify(productRepository, times(3)).findViewsByUserId(1L);
+    }
+
+    @Test
+    void dropsListingLoadedWhileTheUserChanged() {
+        when(productRepository.findViewsByUserId(1L)).thenAnswer(invocation -> {
+            // A write commits between the query and the cache put
+            cache.onProductChanged(ProductChangedEvent.created(product(3L, "Keyboard", 0)));
+            return List.of(product(1L, "Laptop", 0));
+        });
+
+        cache.get(1L);
+        cache.get(1L);
+
+        verify(productRepository, times(2)).findViewsByUserId(1L);
+    }
+
+    private ProductListingCache newCache() {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("bus", bus));
+        return new ProductListingCache(productRepository, beans.getBeanProvider(ProductCacheInvalidationBus.class),
+                new SimpleMeterRegistry(), true, 1000, Duration.ofMinutes(5));
+    }
+
+    private static ProductView product(Long id, String name, long version) {
+        return new ProductView(id, name, null, 1, BigDecimal.ONE, "default.png", 1L, "user1", version);
+    }
+}
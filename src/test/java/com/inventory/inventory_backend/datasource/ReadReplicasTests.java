@@ -0,0 +1,172 @@
+package com.inventory.inventory_backend.datasource;
+
+import com.inventory.inventory_backend.JpaTestConfiguration;
+import com.inventory.inventory_backend.config.DataSourceTuning;
+import com.inventory.inventory_backend.config.TransactionConfig;
+import com.inventory.inventory_backend.model.ERole;
+import com.inventory.inventory_backend.model.User;
+import com.inventory.inventory_backend.repository.UserRepository;
+import com.inventory.inventory_backend.security.UserDetailServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The test database is the primary, a second embedded database the replica. Nothing replicates between them:
+// rows only on the replica show where a read went, and the test stamps the replica's heartbeat itself.
+@DataJpaTest
+@ActiveProfiles("test")
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@ImportAutoConfiguration(PropertyPlaceholderAutoConfiguration.class)     // @Value on the DataSourceTuning post-processor
+@Import({DataSourceTuning.class, ReadReplicas.class, TransactionConfig.class, UserDetailServiceImpl.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "inventory.datasource.replicas.urls=" + ReadReplicasTests.REPLICA_URL,
+        "inventory.datasource.replicas.username=sa",
+        "inventory.datasource.replicas.password="
+})
+class ReadReplicasTests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-tests;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private ReadReplicas readReplicas;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailServiceImpl userDetailService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("readOnlyTransactionTemplate")
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    private JdbcTemplate replica;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        caughtUp();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        String email = onReplicaOnly();
+
+        assertThat(readOnly(email)).isPresent();
+        assertThat(readWrite(email)).isEmpty();
+        // Repository calls outside a transaction (e.g. cache loads) stay on the primary
+        assertThat(userRepository.findByEmail(email)).isEmpty();
+    }
+
+    @Test
+    void laggingReplicaGetsNoReads() {
+        String email = onReplicaOnly();
+
+        replica.update("update replica_heartbeat set beat_at = ? where id = 1", System.currentTimeMillis() - 60_000);
+        readReplicas.probeReplicas();
+        assertThat(readOnly(email)).isEmpty();
+
+        caughtUp();
+        assertThat(readOnly(email)).isPresent();
+    }
+
+    @Test
+    void usersReadTheirOwnWritesFromThePrimary() {
+        signIn("alice@example.com");
+        User written = transactionTemplate.execute(status -> userRepository.save(newUser()));
+
+        // The replica's last heartbeat is older than Alice's write
+        assertThat(readOnly(written.getEmail())).isPresent();
+
+        signIn("bob@example.com");
+        assertThat(readOnly(written.getEmail())).isEmpty();
+
+        // Once the replica has applied a heartbeat newer than the write Alice reads from it again
+        caughtUp();
+        signIn("alice@example.com");
+        assertThat(readOnly(written.getEmail())).isEmpty();
+    }
+
+    @Test
+    void principalLookupFallsBackToThePrimary() {
+        String onReplica = onReplicaOnly();
+        User registered = userRepository.save(newUser());
+
+        assertThat(userDetailService.loadUserByUsername(onReplica).getUsername()).isEqualTo(onReplica.substring(0, 20));
+        assertThat(userDetailService.loadUserByUsername(registered.getEmail()).getId()).isEqualTo(registered.getId());
+    }
+
+    private Optional<User> readOnly(String email) {
+        return readOnlyTransactionTemplate.execute(status -> userRepository.findByEmail(email));
+    }
+
+    private Optional<User> readWrite(String email) {
+        return transactionTemplate.execute(status -> userRepository.findByEmail(email));
+    }
+
+    // The replica has applied everything up to now
+    private void caughtUp() {
+        replica.update("update replica_heartbeat set beat_at = ? where id = 1", System.currentTimeMillis());
+        readReplicas.probeReplicas();
+    }
+
+    private String onReplicaOnly() {
+        String email = UUID.randomUUID() + "@example.com";
+        replica.update("insert into users (username, email, password, role) values (?, ?, 'x', 'ROLE_USER')",
+                email.substring(0, 20), email);
+        return email;
+    }
+
+    private static User newUser() {
+        String email = UUID.randomUUID() + "@example.com";
+        return User.builder().username(email.substring(0, 20)).email(email).password("x").role(ERole.ROLE_USER).build();
+    }
+
+    private static void signIn(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(email, null, List.of()));
+    }
+}
@@ -0,0 +1,337 @@
+package com.inventory.inventory_backend.export;
+
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Reads the files back with parquet-java, and with a small decoder of the footer and the data pages written by
+// ParquetExportWriter, also used by ProductExportServiceTests
+class ParquetExportWriterTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesRowsColumnByColumnWithFooter() throws IOException {
+        List<ExportRow> rows = rows(1, 600);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (ParquetExportWriter writer = new ParquetExportWriter(ExportOutput.stream(out), null)) {
+            for (ExportRow row : rows) {
+                writer.write(row);
+            }
+            writer.finish();
+        }
+
+        ParquetFile file = ParquetFile.read(out.toByteArray());
+        assertThat(file.columnNames()).containsExactly(
+                "id", "name", "description", "quantity", "price", "image_name", "version", "updated_at");
+        assertThat(file.rowGroups()).isEqualTo(1);
+        assertThat(file.rows()).containsExactlyElementsOf(rows);
+    }
+
+    @Test
+    void continuesAfterTheCheckpoint() throws IOException {
+        Path path = dir.resolve("export.parquet");
+        Path index = dir.resolve("export.rowgroups");
+        List<ExportRow> rows = rows(1, 10);
+        long checkpoint;
+
+        try (ParquetExportWriter writer = new ParquetExportWriter(ExportOutput.file(path, 0), index)) {
+            rows.subList(0, 4).forEach(row -> write(writer, row));
+            checkpoint = writer.checkpoint();
+
+            // Written and indexed, but the job's checkpoint never got saved
+            rows.subList(4, 6).forEach(row -> write(writer, row));
+            writer.checkpoint();
+        }
+
+        try (ParquetExportWriter writer = new ParquetExportWriter(ExportOutput.file(path, checkpoint), index)) {
+            rows.subList(4, 10).forEach(row -> write(writer, row));
+            assertThat(writer.finish()).isEqualTo(Files.size(path));
+        }
+
+        ParquetFile file = ParquetFile.read(Files.readAllBytes(path));
+        assertThat(file.rowGroups()).isEqualTo(2);
+        assertThat(file.rows()).containsExactlyElementsOf(rows);
+        assertThat(index).doesNotExist();
+    }
+
+    @Test
+    void refusesCheckpointsBetweenRowGroups() throws IOException {
+        Path path = dir.resolve("export.parquet");
+        Path index = dir.resolve("export.rowgroups");
+        long checkpoint;
+
+        try (ParquetExportWriter writer = new ParquetExportWriter(ExportOutput.file(path, 0), index)) {
+            rows(1, 4).forEach(row -> write(writer, row));
+            checkpoint = writer.checkpoint();
+        }
+
+        assertThatThrownBy(() -> new ParquetExportWriter(ExportOutput.file(path, checkpoint - 1), index))
+                .isInstanceOf(IOException.class);
+    }
+
+    // Against the reference implementation (parquet-java) rather than the decoder below, this is the
+    // writer's compatibility contract
+    @Test
+    void readableByParquetJava() throws IOException {
+        Path path = dir.resolve("export.parquet");
+        List<ExportRow> rows = rows(1, 600);
+
+        try (ParquetExportWriter writer = new ParquetExportWriter(ExportOutput.file(path, 0), dir.resolve("export.rowgroups"))) {
+            rows.subList(0, 250).forEach(row -> write(writer, row));
+            writer.checkpoint();
+            rows.subList(250, 600).forEach(row -> write(writer, row));
+            writer.finish();
+        }
+
+        List<ExportRow> read = new ArrayList<>();
+        ParquetReadOptions options = ParquetReadOptions.builder(new PlainParquetConfiguration()).build();
+        try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(path), options)) {
+            MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+            assertThat(schema.getType("name").asPrimitiveType().getLogicalTypeAnnotation())
+                    .isEqualTo(LogicalTypeAnnotation.stringType());
+            assertThat(schema.getType("price").asPrimitiveType().getLogicalTypeAnnotation())
+                    .isEqualTo(LogicalTypeAnnotation.decimalType(2, 38));
+            assertThat(schema.getType("updated_at").asPrimitiveType().getLogicalTypeAnnotation())
+                    .isEqualTo(LogicalTypeAnnotation.timestampType(true, LogicalTypeAnnotation.TimeUnit.MILLIS));
+            assertThat(reader.getRowGroups()).hasSize(2);
+
+            PageReadStore rowGroup;
+            while ((rowGroup = reader.readNextRowGroup()) != null) {
+                RecordReader<Group> records = new ColumnIOFactory().getColumnIO(schema)
+                        .getRecordReader(rowGroup, new GroupRecordConverter(schema));
+                for (long r = 0; r < rowGroup.getRowCount(); r++) {
+                    read.add(row(records.read()));
+                }
+            }
+        }
+
+        assertThat(read).containsExactlyElementsOf(rows);
+    }
+
+    private static void write(ProductExportWriter writer, ExportRow row) {
+        try {
+            writer.write(row);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static ExportRow row(Group group) {
+        return new ExportRow(group.getLong("id", 0), group.getString("name", 0), optionalString(group, "description"),
+                group.getInteger("quantity", 0),
+                new BigDecimal(new BigInteger(group.getBinary("price", 0).getBytes()), 2),
+                optionalString(group, "image_name"), group.getLong("version", 0),
+                group.getFieldRepetitionCount("updated_at") > 0 ? Instant.ofEpochMilli(group.getLong("updated_at", 0)) : null);
+    }
+
+    private static String optionalString(Group group, String field) {
+        return group.getFieldRepetitionCount(field) > 0 ? group.getString(field, 0) : null;
+    }
+
+    // Every third row without the optional values
+    private static List<ExportRow> rows(long firstId, int count) {
+        List<ExportRow> rows = new ArrayList<>();
+        for (long id = firstId; id < firstId + count; id++) {
+            boolean nulls = id % 3 == 0;
+            rows.add(new ExportRow(id, "Product " + id + " é", nulls ? null : "Description, \"quoted\"",
+                    (int) id * 7, new BigDecimal(id % 2 == 0 ? "1234.56" : "-0.05"),
+                    nulls ? null : "image-" + id + ".png", id, nulls ? null : Instant.ofEpochMilli(1_700_000_000_000L + id)));
+        }
+        return rows;
+    }
+
+    record ParquetFile(List<String> columnNames, int rowGroups, List<ExportRow> rows) {
+
+        static ParquetFile read(byte[] bytes) throws IOException {
+            ByteBuffer file = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            assertThat(Arrays.copyOfRange(bytes, 0, 4)).isEqualTo(ParquetExportWriter.MAGIC);
+            assertThat(Arrays.copyOfRange(bytes, bytes.length - 4, bytes.length)).isEqualTo(ParquetExportWriter.MAGIC);
+
+            int footerLength = file.getInt(bytes.length - 8);
+            Map<Integer, Object> footer = Thrift.struct(ByteBuffer.wrap(bytes, bytes.length - 8 - footerLength, footerLength));
+
+            List<Map<Integer, Object>> schema = Thrift.structs(footer.get(2));
+            List<String> names = schema.subList(1, schema.size()).stream()
+                    .map(element -> new String((byte[]) element.get(4), StandardCharsets.UTF_8))
+                    .toList();
+
+            List<ExportRow> rows = new ArrayList<>();
+            List<Map<Integer, Object>> rowGroups = Thrift.structs(footer.get(4));
+            for (Map<Integer, Object> rowGroup : rowGroups) {
+                int count = ((Long) rowGroup.get(3)).intValue();
+                List<List<Object>> columns = new ArrayList<>();
+                List<Map<Integer, Object>> chunks = Thrift.structs(rowGroup.get(1));
+                for (int i = 0; i < chunks.size(); i++) {
+                    Map<Integer, Object> meta = Thrift.struct(chunks.get(i).get(3));
+                    boolean optional = (Long) schema.get(i + 1).get(3) == 1;
+                    columns.add(column(bytes, meta, optional, count));
+                }
+
+                for (int r = 0; r < count; r++) {
+                    Long updatedAt = (Long) columns.get(7).get(r);
+                    rows.add(new ExportRow((Long) columns.get(0).get(r), string(columns.get(1).get(r)),
+                            string(columns.get(2).get(r)), (Integer) columns.get(3).get(r),
+                            new BigDecimal(new BigInteger((byte[]) columns.get(4).get(r)), 2),
+                            string(columns.get(5).get(r)), (Long) columns.get(6).get(r),
+                            updatedAt != null ? Instant.ofEpochMilli(updatedAt) : null));
+                }
+            }
+
+            long numRows = (Long) footer.get(3);
+            assertThat(numRows).isEqualTo(rows.size());
+            return new ParquetFile(names, rowGroups.size(), rows);
+        }
+
+        private static List<Object> column(byte[] bytes, Map<Integer, Object> meta, boolean optional, int count) throws IOException {
+            long type = (Long) meta.get(1);
+            assertThat((Long) meta.get(4)).isEqualTo(2L);      // GZIP
+
+            ByteBuffer in = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            in.position(((Long) meta.get(9)).intValue());
+            Map<Integer, Object> header = Thrift.struct(in);
+            byte[] compressed = new byte[((Long) header.get(3)).intValue()];
+            in.get(compressed);
+
+            byte[] page;
+            try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                page = gzip.readAllBytes();
+            }
+            assertThat(page).hasSize(((Long) header.get(2)).intValue());
+
+            ByteBuffer values = ByteBuffer.wrap(page).order(ByteOrder.LITTLE_ENDIAN);
+            boolean[] present = new boolean[count];
+            Arrays.fill(present, true);
+            if (optional) {
+                int end = values.getInt() + values.position();
+                int level = 0;
+                while (values.position() < end) {
+                    int groups = values.get() >>> 1;
+                    for (int g = 0; g < groups; g++) {
+                        int packed = values.get();
+                        for (int bit = 0; bit < 8 && level < count; bit++) {
+                            present[level++] = (packed >>> bit & 1) == 1;
+                        }
+                    }
+                }
+            }
+
+            List<Object> column = new ArrayList<>();
+            for (int r = 0; r < count; r++) {
+                if (!present[r]) {
+                    column.add(null);
+                } else if (type == 1) {
+                    column.add(values.getInt());
+                } else if (type == 2) {
+                    column.add(values.getLong());
+                } else {
+                    byte[] value = new byte[values.getInt()];
+                    values.get(value);
+                    column.add(value);
+                }
+            }
+            assertThat(values.hasRemaining()).isFalse();
+            return column;
+        }
+
+        private static String string(Object value) {
+            return value != null ? new String((byte[]) value, StandardCharsets.UTF_8) : null;
+        }
+    }
+
+    // Thrift compact protocol: structs as field id -> value, integers as Long, binary as byte[]
+    private static class Thrift {
+
+        static Map<Integer, Object> struct(Object value) {
+            @SuppressWarnings("unchecked")
+            Map<Integer, Object> struct = (Map<Integer, Object>) value;
+            return struct;
+        }
+
+        static List<Map<Integer, Object>> structs(Object value) {
+            return ((List<?>) value).stream().map(Thrift::struct).toList();
+        }
+
+        static Map<Integer, Object> struct(ByteBuffer in) {
+            Map<Integer, Object> fields = new HashMap<>();
+            int last = 0;
+            while (true) {
+                int header = in.get() & 0xFF;
+                if (header == 0) {
+                    return fields;
+                }
+                int delta = header >>> 4;
+                int id = delta != 0 ? last + delta : (int) unzigzag(varint(in));
+                fields.put(id, value(in, header & 0x0F));
+                last = id;
+            }
+        }
+
+        private static Object value(ByteBuffer in, int type) {
+            return switch (type) {
+                case 5, 6 -> unzigzag(varint(in));
+                case 8 -> {
+                    byte[] bytes = new byte[(int) varint(in)];
+                    in.get(bytes);
+                    yield bytes;
+                }
+                case 9 -> {
+                    int header = in.get() & 0xFF;
+                    int size = header >>> 4 == 15 ? (int) varint(in) : header >>> 4;
+                    List<Object> list = new ArrayList<>();
+                    for (int i = 0; i < size; i++) {
+                        list.add(value(in, header & 0x0F));
+                    }
+                    yield list;
+                }
+                case 12 -> struct(in);
+                default -> throw new IllegalStateException("Unexpected type " + type);
+            };
+        }
+
+        private static long varint(ByteBuffer in) {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = in.get() & 0xFF;
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        private static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
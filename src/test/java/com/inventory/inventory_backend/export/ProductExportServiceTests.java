@@ -0,0 +1,238 @@
+package com.inventory.inventory_backend.export;
+
+import com.inventory.inventory_backend.JpaTestConfiguration;
+import com.inventory.inventory_backend.config.TransactionConfig;
+import com.inventory.inventory_backend.exception.FieldValidationException;
+import com.inventory.inventory_backend.exception.TooManyRequestsException;
+import com.inventory.inventory_backend.model.*;
+import com.inventory.inventory_backend.repository.ExportJobRepository;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import com.inventory.inventory_backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Not transactional itself, export jobs run on their own threads and only see committed products
+@DataJpaTest
+@ActiveProfiles("test")
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@Import({ProductExportService.class, TransactionConfig.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "inventory.export.dir=" + ProductExportServiceTests.EXPORT_DIR,
+        "inventory.export.fetch-size=4",
+        "inventory.export.checkpoint-rows=3",
+        "inventory.export.max-active-per-user=1"
+})
+class ProductExportServiceTests {
+
+    static final String EXPORT_DIR = "target/test-exports";
+
+    @Autowired
+    private ProductExportService exportService;
+
+    @Autowired
+    private ExportJobRepository exportJobRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    private User user;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileSystemUtils.deleteRecursively(Path.of(EXPORT_DIR));
+
+        user = createUser();
+        products = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            products.add(createProduct(user, "Product " + i, i % 4 == 0 ? null : "Line " + i));
+        }
+        products.add(createProduct(user, "Mug, \"large\"", "Two\nlines"));
+        createProduct(createUser(), "Foreign", null);
+    }
+
+    @Test
+    void streamsTheUsersProductsAsCsv() throws IOException {
+        double exported = exportedRows();
+        List<String> lines = streamed(ExportFormat.CSV).lines().toList();
+
+        assertThat(lines).hasSize(11);      // header, the quoted description spans two lines
+        assertThat(lines.get(0)).isEqualTo(CsvExportWriter.HEADER);
+        assertThat(lines.get(1)).startsWith(products.get(0).getId() + ",Product 1,Line 1,5,10.00,,0,");
+        assertThat(lines.get(4)).startsWith(products.get(3).getId() + ",Product 4,,5,10.00,,0,");
+        assertThat(lines.get(9)).isEqualTo(products.get(8).getId() + ",\"Mug, \"\"large\"\"\",\"Two");
+        assertThat(exportedRows() - exported).isEqualTo(9);
+    }
+
+    @Test
+    void backgroundJobWritesTheExportAndReportsProgress() throws Exception {
+        ExportJob started = exportService.start(user.getId(), ExportFormat.PARQUET);
+        assertThat(started.getTotalRows()).isEqualTo(9);
+
+        ExportJob job = awaitFinished(started.getId());
+
+        assertThat(job.getStatus()).isEqualTo(ExportStatus.COMPLETED);
+        assertThat(job.getRowsExported()).isEqualTo(9);
+        assertThat(job.getLastProductId()).isEqualTo(products.get(8).getId());
+        assertThat(job.getCompletedAt()).isNotNull();
+
+        Path file = exportService.completedFile(job);
+        assertThat(Files.size(file)).isEqualTo(job.getBytesWritten());
+        // A row group per checkpoint
+        ParquetExportWriterTests.ParquetFile parquet = ParquetExportWriterTests.ParquetFile.read(Files.readAllBytes(file));
+        assertThat(parquet.rowGroups()).isEqualTo(3);
+        assertThat(parquet.rows()).extracting(ExportRow::id).containsExactlyElementsOf(products.stream().map(Product::getId).toList());
+        assertThat(Path.of(EXPORT_DIR, "export-" + job.getId() + ".rowgroups")).doesNotExist();
+    }
+
+    @Test
+    void resumedJobContinuesAfterItsCheckpoint() throws Exception {
+        ExportJob job = failedJob();
+        Path file = exportService.file(job);
+        Files.createDirectories(file.getParent());
+
+        long checkpoint;
+        try (CsvExportWriter writer = new CsvExportWriter(ExportOutput.file(file, 0))) {
+            for (Product product : products.subList(0, 3)) {
+                writer.write(row(product));
+            }
+            checkpoint = writer.checkpoint();
+        }
+        // Written after the checkpoint by the failed attempt
+        Files.writeString(file, "999,partial", StandardOpenOption.APPEND);
+        checkpoint(job, 3, products.get(2).getId(), checkpoint);
+
+        exportService.resume(user.getId(), job.getId());
+        ExportJob resumed = awaitFinished(job.getId());
+
+        assertThat(resumed.getStatus()).isEqualTo(ExportStatus.COMPLETED);
+        assertThat(resumed.getRowsExported()).isEqualTo(9);
+        assertThat(resumed.getAttempt()).isEqualTo(1);
+        assertThat(Files.readString(file)).isEqualTo(streamed(ExportFormat.CSV));
+    }
+
+    @Test
+    void resumedJobStartsOverWithoutItsFile() throws Exception {
+        ExportJob job = failedJob();
+        checkpoint(job, 3, products.get(2).getId(), 1000);
+
+        exportService.resume(user.getId(), job.getId());
+        ExportJob resumed = awaitFinished(job.getId());
+
+        assertThat(resumed.getStatus()).isEqualTo(ExportStatus.COMPLETED);
+        assertThat(resumed.getRowsExported()).isEqualTo(9);
+        assertThat(Files.readString(exportService.file(resumed))).isEqualTo(streamed(ExportFormat.CSV));
+    }
+
+    @Test
+    void limitsActiveJobsAndHidesOtherUsersJobs() {
+        ExportJob job = exportJobRepository.save(ExportJob.builder().userId(user.getId()).format(ExportFormat.CSV)
+                .status(ExportStatus.RUNNING).leaseUntil(Instant.now().plusSeconds(600))
+                .createdAt(Instant.now()).updatedAt(Instant.now()).build());
+
+        assertThatThrownBy(() -> exportService.start(user.getId(), ExportFormat.CSV))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThatThrownBy(() -> exportService.stream(user.getId(), ExportFormat.CSV))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThatThrownBy(() -> exportService.get(user.getId() + 1000, job.getId()))
+                .isInstanceOf(FieldValidationException.class);
+    }
+
+    @Test
+    void directStreamsCountTowardsTheLimit() throws IOException {
+        ProductExportService.DirectExport first = exportService.stream(user.getId(), ExportFormat.CSV);
+
+        assertThatThrownBy(() -> exportService.stream(user.getId(), ExportFormat.CSV))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThatThrownBy(() -> exportService.start(user.getId(), ExportFormat.CSV))
+                .isInstanceOf(TooManyRequestsException.class);
+
+        // Written, the place is free again
+        first.writeTo(new ByteArrayOutputStream());
+        assertThat(streamed(ExportFormat.CSV)).contains("Product 8");
+    }
+
+    private String streamed(ExportFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.stream(user.getId(), format).writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private double exportedRows() {
+        return meterRegistry.get("inventory.export.rows").tag("format", "csv").counter().count();
+    }
+
+    private ExportJob failedJob() {
+        return exportJobRepository.save(ExportJob.builder().userId(user.getId()).format(ExportFormat.CSV)
+                .status(ExportStatus.FAILED).totalRows(9).error("Export failed, it can be resumed")
+                .createdAt(Instant.now()).updatedAt(Instant.now()).build());
+    }
+
+    private void checkpoint(ExportJob job, long rows, long lastProductId, long bytes) {
+        job.setRowsExported(rows);
+        job.setLastProductId(lastProductId);
+        job.setBytesWritten(bytes);
+        exportJobRepository.save(job);
+    }
+
+    private ExportJob awaitFinished(Long id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            ExportJob job = exportJobRepository.findById(id).orElseThrow();
+            if (job.getStatus() == ExportStatus.COMPLETED || job.getStatus() == ExportStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Export " + id + " did not finish");
+    }
+
+    private ExportRow row(Product product) {
+        Product stored = productRepository.findById(product.getId()).orElseThrow();
+        return new ExportRow(stored.getId(), stored.getName(), stored.getDescription(), stored.getQuantity(),
+                stored.getPrice(), stored.getImageName(), stored.getVersion(), stored.getUpdatedAt());
+    }
+
+    private User createUser() {
+        String name = UUID.randomUUID().toString().substring(0, 20);
+        return userRepository.save(User.builder()
+                .username(name).email(name + "@example.com").password("x").role(ERole.ROLE_USER).build());
+    }
+
+    private Product createProduct(User owner, String name, String description) {
+        return productRepository.save(Product.builder()
+                .name(name).description(description).quantity(5).price(new BigDecimal("10.00")).user(owner).build());
+    }
+}
@@ -0,0 +1,211 @@
+package com.inventory.inventory_backend.feed;
+
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductChangeFeedTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        feed = new ProductChangeFeed(new JsonMapper(), meterRegistry, true, 4, 4, 2, 5,
+                Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void sendsReadyThenCompactDeltas() throws InterruptedException {
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.subscribe(1L, null, emitter);
+        assertThat(emitter.next()).contains("event:ready");
+
+        feed.onProductChanged(ProductChangedEvent.created(product(1L, 5, 0)));
+        feed.onProductChanged(ProductChangedEvent.updated(product(1L, 5, 0), product(1L, 3, 1)));
+        // Another user's product
+        feed.onProductChanged(ProductChangedEvent.created(
+                new ProductView(2L, "Mouse", null, 5, BigDecimal.TEN, "default.png", 2L, "other", 0)));
+        feed.onProductChanged(ProductChangedEvent.deleted(product(1L, 3, 1)));
+
+        assertThat(emitter.next()).contains("event:created", "\"name\":\"Laptop\"", "\"quantity\":5");
+        // Only what changed
+        assertThat(emitter.next()).contains("event:updated", "{\"op\":\"updated\",\"id\":1,\"version\":1,\"quantity\":3}");
+        assertThat(emitter.next()).contains("event:deleted", "{\"op\":\"deleted\",\"id\":1}");
+        assertThat(emitter.events).isEmpty();
+    }
+
+    @Test
+    void resumesFromTheLastEventId() throws InterruptedException {
+        RecordingEmitter first = new RecordingEmitter();
+        feed.subscribe(1L, null, first);
+        first.next();
+
+        feed.onProductChanged(ProductChangedEvent.created(product(1L, 5, 0)));
+        feed.onProductChanged(ProductChangedEvent.updated(product(1L, 5, 0), product(1L, 4, 1)));
+        feed.onProductChanged(ProductChangedEvent.updated(product(1L, 4, 1), product(1L, 3, 2)));
+        String seen = eventId(first.next());
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        feed.subscribe(1L, seen, resumed);
+
+        assertThat(resumed.next()).contains("\"quantity\":4");
+        assertThat(resumed.next()).contains("\"quantity\":3");
+        assertThat(resumed.events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void resetsWhenTheMissedDeltasAreGone() throws InterruptedException {
+        RecordingEmitter first = new RecordingEmitter();
+        feed.subscribe(1L, null, first);
+        String ready = eventId(first.next());
+        // Dropped below, leaving room for the two reconnects
+        first.gate = new CountDownLatch(1);
+
+        // More changes than the buffer holds
+        for (int i = 0; i < 6; i++) {
+            feed.onProductChanged(ProductChangedEvent.updated(product(1L, i, i), product(1L, i + 1, i + 1)));
+        }
+
+        RecordingEmitter tooOld = new RecordingEmitter();
+        feed.subscribe(1L, ready, tooOld);
+        assertThat(tooOld.next()).contains("event:reset");
+
+        RecordingEmitter otherNode = new RecordingEmitter();
+        feed.subscribe(1L, "0123456789abcdef-3", otherNode);
+        assertThat(otherNode.next()).contains("event:reset");
+        first.gate.countDown();
+    }
+
+    @Test
+    void disconnectsSubscribersThatFallBehind() throws InterruptedException {
+        RecordingEmitter slow = new RecordingEmitter();
+        slow.gate = new CountDownLatch(1);
+        feed.subscribe(1L, null, slow);
+
+        for (int i = 0; i < 6; i++) {
+            feed.onProductChanged(ProductChangedEvent.updated(product(1L, i, i), product(1L, i + 1, i + 1)));
+        }
+
+        // While its sender is still blocked writing
+        assertThat(slow.failed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get("inventory.feed.dropped_subscribers").counter().count()).isEqualTo(1);
+        assertThat(feed.subscriberCount()).isZero();
+        slow.gate.countDown();
+    }
+
+    @Test
+    void blockedClientsDoNotHoldUpOthers() throws InterruptedException {
+        for (long userId = 1; userId <= 4; userId++) {
+            RecordingEmitter blocked = new RecordingEmitter();
+            blocked.gate = new CountDownLatch(1);
+            feed.subscribe(userId, null, blocked);
+        }
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.subscribe(5L, null, emitter);
+        assertThat(emitter.next()).contains("event:ready");
+    }
+
+    @Test
+    void limitsConnectionsPerUser() {
+        feed.subscribe(1L, null, new RecordingEmitter());
+        feed.subscribe(1L, null, new RecordingEmitter());
+
+        assertThatThrownBy(() -> feed.subscribe(1L, null, new RecordingEmitter()))
+                .isInstanceOf(TooManyRequestsException.class);
+        feed.subscribe(2L, null, new RecordingEmitter());
+        assertThat(feed.subscriberCount()).isEqualTo(3);
+    }
+
+    @Test
+    void boundsConnectionsAndSenderThreadsPerServer() throws InterruptedException {
+        List<RecordingEmitter> blocked = new ArrayList<>();
+        for (long userId = 1; userId <= 5; userId++) {
+            RecordingEmitter emitter = new RecordingEmitter();
+            emitter.gate = new CountDownLatch(1);
+            feed.subscribe(userId, null, emitter);
+            blocked.add(emitter);
+        }
+        assertThatThrownBy(() -> feed.subscribe(6L, null, new RecordingEmitter()))
+                .isInstanceOf(TooManyRequestsException.class);
+
+        // Dropping user 1 frees a place, its disconnect and the newcomer's 'ready' wait for a sender thread
+        for (int i = 0; i < 6; i++) {
+            feed.onProductChanged(ProductChangedEvent.updated(product(1L, i, i), product(1L, i + 1, i + 1)));
+        }
+        RecordingEmitter newcomer = new RecordingEmitter();
+        feed.subscribe(6L, null, newcomer);
+        assertThat(newcomer.events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(feed.largestSenderPoolSize()).isEqualTo(5);
+
+        blocked.forEach(emitter -> emitter.gate.countDown());
+        assertThat(newcomer.next()).contains("event:ready");
+        assertThat(blocked.get(0).failed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(feed.largestSenderPoolSize()).isEqualTo(5);
+    }
+
+    private static ProductView product(Long id, int quantity, long version) {
+        return new ProductView(id, "Laptop", "A laptop", quantity, new BigDecimal("999.00"), "default.png",
+                1L, "user", version);
+    }
+
+    private static String eventId(String event) {
+        return event.lines().filter(line -> line.startsWith("id:")).findFirst().orElseThrow().substring(3);
+    }
+
+    // Records what would be written to the client; a closed gate blocks the sender like a client that stopped reading
+    private static class RecordingEmitter extends SseEmitter {
+
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        final CountDownLatch failed = new CountDownLatch(1);
+        volatile CountDownLatch gate = new CountDownLatch(0);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            events.add(event.toString());
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failed.countDown();
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertThat(event).isNotNull();
+            return event;
+        }
+    }
+}
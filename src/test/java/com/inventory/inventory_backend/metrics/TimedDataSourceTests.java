@@ -0,0 +1,35 @@
+package com.inventory.inventory_backend.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TimedDataSourceTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StageMetrics stageMetrics = new StageMetrics(registry);
+
+    @Test
+    void recordsEveryAcquireAndCountsSlowOnes() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection).thenAnswer(invocation -> {
+            Thread.sleep(30);
+            return connection;
+        });
+
+        TimedDataSource dataSource = new TimedDataSource(target, stageMetrics, registry, Duration.ofMillis(20));
+        assertThat(dataSource.getConnection()).isSameAs(connection);
+        assertThat(dataSource.getConnection()).isSameAs(connection);
+
+        assertThat(stageMetrics.getTimer(StageMetrics.Stage.CONNECTION_ACQUIRE).count()).isEqualTo(2);
+        assertThat(registry.get("inventory.db.connection.slow_acquires").counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,87 @@
+package com.inventory.inventory_backend.repository;
+
+import com.inventory.inventory_backend.JpaTestConfiguration;
+import com.inventory.inventory_backend.dto.ProductFields;
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.exception.FieldValidationException;
+import com.inventory.inventory_backend.model.ERole;
+import com.inventory.inventory_backend.model.Product;
+import com.inventory.inventory_backend.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+class ProductFieldRepositoryTests {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("fields").email("fields@example.com").password("x").role(ERole.ROLE_USER).build());
+        for (String name : List.of("Laptop", "Mouse", "Laptop stand")) {
+            productRepository.save(Product.builder()
+                    .name(name).description(name + " description").quantity(2).price(new BigDecimal("10.00"))
+                    .imageName("default.png").user(user).build());
+        }
+    }
+
+    @Test
+    void selectedFieldsOnly() {
+        ProductFields selection = ProductFields.parse("name, id");
+
+        List<ProductView> views = productRepository.findFieldsByUserIdAfter(user.getId(), selection, null, 0L, null);
+
+        assertThat(views).extracting(ProductView::getName).containsExactly("Laptop", "Mouse", "Laptop stand");
+        assertThat(views).allSatisfy(view -> assertThat(view.getDescription()).isNull());
+
+        // Fields in ProductResponse order whatever the order asked for
+        Map<String, Object> row = selection.toMap(views.get(0));
+        assertThat(row.keySet()).containsExactly("id", "name");
+        assertThat(row.get("name")).isEqualTo("Laptop");
+    }
+
+    @Test
+    void keysetPageWithNameFilter() {
+        ProductFields selection = ProductFields.parse("id,username");
+        List<ProductView> all = productRepository.findFieldsByUserIdAfter(user.getId(), selection, "%laptop%", 0L, null);
+
+        List<ProductView> page = productRepository.findFieldsByUserIdAfter(user.getId(), selection, "%laptop%",
+                all.get(0).getId(), 1);
+
+        assertThat(all).hasSize(2);
+        assertThat(page).extracting(ProductView::getId).containsExactly(all.get(1).getId());
+        assertThat(selection.toMap(page.get(0))).containsEntry("username", "fields");
+    }
+
+    @Test
+    void parseRejectsUnknownAndEmptySelections() {
+        assertThat(ProductFields.parse(null)).isNull();
+        assertThat(ProductFields.parse("id").key()).isNotEqualTo(ProductFields.parse("id,name").key());
+
+        assertThatThrownBy(() -> ProductFields.parse("id,secret"))
+                .isInstanceOf(FieldValidationException.class)
+                .hasMessageContaining("secret");
+        assertThatThrownBy(() -> ProductFields.parse(" , "))
+                .isInstanceOf(FieldValidationException.class);
+    }
+}
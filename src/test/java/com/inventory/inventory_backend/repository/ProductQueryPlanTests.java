@@ -0,0 +1,132 @@
+package com.inventory.inventory_backend.repository;
+
+import com.inventory.inventory_backend.JpaTestConfiguration;
+import com.inventory.inventory_backend.config.SchemaIndexCheck;
+import com.inventory.inventory_backend.model.ERole;
+import com.inventory.inventory_backend.model.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs EXPLAIN on the SQL Hibernate generates for the listing queries, against the schema built by the
+// migrations (embedded H2), and checks the products table is read through an index instead of scanned
+@DataJpaTest
+@ActiveProfiles("test")
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@TestPropertySource(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "com.inventory.inventory_backend.repository.ProductQueryPlanTests$CapturingInspector")
+class ProductQueryPlanTests {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> rows = new ArrayList<>();
+        // Unique per run, the DDL of indexCheckReportsMissingIndexes commits the rows of its setup
+        for (int u = 0; u < 20; u++) {
+            String name = UUID.randomUUID().toString().substring(0, 20);
+            User user = userRepository.save(User.builder()
+                    .username(name).email(name + "@example.com").password("x").role(ERole.ROLE_USER).build());
+            userId = user.getId();
+            for (int i = 0; i < 100; i++) {
+                rows.add(new Object[]{"Product " + i, 1, 10, userId});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into products (name, quantity, price, user_id, version) values (?, ?, ?, ?, 0)", rows);
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void keysetListingUsesUserIndex() {
+        productRepository.findViewsByUserIdAfter(userId, 0L, Limit.of(50));
+
+        String plan = explain(capturedProductQuery(), userId, 0L, 50);
+
+        assertThat(plan).doesNotContainIgnoringCase("PRODUCTS.tableScan");
+        assertThat(plan).containsIgnoringCase("IDX_PRODUCTS_USER_ID_ID: USER_ID = U1_0.ID AND ID > ?2");
+    }
+
+    // A 'contains' pattern can't seek any index, the keyset page seeks (user_id, id) and filters the names
+    @Test
+    void keysetNameSearchUsesUserIndex() {
+        productRepository.findViewsByUserIdAndNameLikeAfter(userId, "%product 1%", 0L, Limit.of(50));
+
+        String plan = explain(capturedProductQuery(), userId, 0L, "%product 1%", 50);
+
+        assertThat(plan).doesNotContainIgnoringCase("PRODUCTS.tableScan");
+        assertThat(plan).containsIgnoringCase("IDX_PRODUCTS_USER_ID_ID: USER_ID = U1_0.ID AND ID > ?2");
+    }
+
+    // The LIKE on the generated name_lower column is served by its index
+    @Test
+    void nameFilterSeeksNameLowerIndex() {
+        productRepository.findViewsByUserIdAndNameLike(userId, "product 1%");
+
+        String plan = explain(capturedProductQuery(), userId, "product 1%");
+
+        assertThat(plan).containsIgnoringCase("IDX_PRODUCTS_USER_NAME_LOWER: USER_ID = U1_0.ID AND NAME_LOWER >= 'product 1'");
+    }
+
+    @Test
+    void indexCheckReportsMissingIndexes() throws Exception {
+        SchemaIndexCheck check = new SchemaIndexCheck(dataSource, true);
+        assertThat(check.findMissing()).isEmpty();
+
+        jdbcTemplate.execute("drop index idx_products_user_name");
+        try {
+            assertThat(check.findMissing()).containsExactly("products(user_id, name)");
+        } finally {
+            jdbcTemplate.execute("create index idx_products_user_name on products (user_id, name)");
+        }
+    }
+
+    private String capturedProductQuery() {
+        return CapturingInspector.STATEMENTS.stream()
+                .filter(sql -> sql.toLowerCase().contains("from products"))
+                .reduce((first, last) -> last)
+                .orElseThrow();
+    }
+
+    private String explain(String sql, Object... args) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class, args)).replaceAll("\\s+", " ");
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
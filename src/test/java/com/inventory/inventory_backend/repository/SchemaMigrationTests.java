@@ -0,0 +1,43 @@
+package com.inventory.inventory_backend.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A database created by ddl-auto=update before the migrations existed is baselined at V1 and must still get
+// everything the entities map since then
+class SchemaMigrationTests {
+
+    private static final String URL = "jdbc:h2:mem:schema-migration-tests;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void baselinedDatabaseGetsTheLaterSchema() {
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+        jdbc.execute("create table users (id bigint generated by default as identity, username varchar(20), " +
+                "email varchar(50), password varchar(120), role enum ('ROLE_ADMIN','ROLE_USER'), primary key (id))");
+        jdbc.execute("create table products (id bigint generated by default as identity, name varchar(255) not null, " +
+                "description varchar(500), quantity integer not null, price numeric(38,2) not null, " +
+                "image_name varchar(255), user_id bigint not null, primary key (id))");
+        jdbc.update("insert into users (username, email, password, role) values ('old', 'old@example.com', 'x', 'ROLE_USER')");
+        jdbc.update("insert into products (name, quantity, price, image_name, user_id) values ('Old Mug', 1, 5.00, 'default.png', 1)");
+
+        Flyway.configure()
+                .dataSource(URL, "sa", "")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        Map<String, Object> product = jdbc.queryForMap("select version, updated_at, name_lower from products");
+        assertThat(product).containsEntry("VERSION", 0L).containsEntry("NAME_LOWER", "old mug");
+        assertThat(product.get("UPDATED_AT")).isNull();
+        assertThat(jdbc.queryForObject("select count(*) from image_blobs", Integer.class)).isZero();
+        assertThat(jdbc.queryForObject("select count(*) from export_jobs", Integer.class)).isZero();
+    }
+}
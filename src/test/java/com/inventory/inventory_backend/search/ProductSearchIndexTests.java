@@ -0,0 +1,161 @@
+package com.inventory.inventory_backend.search;
+
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ProductSearchIndexTests {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(null, true, 100);
+        index.onProductChanged(ProductChangedEvent.created(product(1L, 1L, "Laptop", "14 inch business laptop")));
+        index.onProductChanged(ProductChangedEvent.created(product(2L, 1L, "Laptop bag", "Fits 14 inch")));
+        index.onProductChanged(ProductChangedEvent.created(product(3L, 1L, "Mouse", "Wireless mouse for laptop")));
+        index.onProductChanged(ProductChangedEvent.created(product(4L, 2L, "Laptop", "Other user's laptop")));
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        ProductSearchResult result = index.search(1L, "laptop", 0, 10);
+
+        assertThat(ids(result)).containsExactly(1L, 2L, 3L);
+        assertThat(result.getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void matchesPrefixesAndSubstrings() {
+        assertThat(ids(index.search(1L, "la", 0, 10))).containsExactly(1L, 2L, 3L);
+        assertThat(ids(index.search(1L, "ptop", 0, 10))).containsExactly(1L, 2L, 3L);
+        assertThat(ids(index.search(1L, "wirel", 0, 10))).containsExactly(3L);
+        assertThat(ids(index.search(1L, "xyz", 0, 10))).isEmpty();
+    }
+
+    @Test
+    void requiresEveryQueryToken() {
+        assertThat(ids(index.search(1L, "laptop bag", 0, 10))).containsExactly(2L);
+    }
+
+    @Test
+    void paginatesRankedResults() {
+        ProductSearchResult page = index.search(1L, "laptop", 1, 1);
+
+        assertThat(ids(page)).containsExactly(2L);
+        assertThat(page.getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        ProductView before = product(2L, 1L, "Laptop bag", "Fits 14 inch");
+        ProductView after = product(2L, 1L, "Backpack", "Fits 14 inch");
+
+        index.onProductChanged(ProductChangedEvent.updated(before, after));
+        index.onProductChanged(ProductChangedEvent.deleted(product(1L, 1L, "Laptop", "14 inch business laptop")));
+
+        assertThat(ids(index.search(1L, "laptop", 0, 10))).containsExactly(3L);
+        assertThat(ids(index.search(1L, "backpack", 0, 10))).containsExactly(2L);
+    }
+
+    @Test
+    void rebuildReadsEveryProductInChunks() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findViewsAfter(eq(0L), any())).thenReturn(List.of(
+                product(1L, 1L, "Wireless mouse", null), product(2L, 2L, "Laptop stand", "Wireless charger")));
+        when(productRepository.findViewsAfter(eq(2L), any())).thenReturn(List.of(
+                product(5L, 1L, "Wireless keyboard", null)));
+        ProductSearchIndex rebuiltIndex = new ProductSearchIndex(productRepository, true, 2);
+
+        try {
+            assertThat(rebuiltIndex.isReady()).isFalse();
+            rebuiltIndex.rebuild();
+
+            assertThat(rebuiltIndex.isReady()).isTrue();
+            assertThat(ids(rebuiltIndex.search(1L, "wire", 0, 10))).containsExactlyInAnyOrder(1L, 5L);
+            assertThat(ids(rebuiltIndex.search(2L, "wireless", 0, 10))).containsExactly(2L);
+            verify(productRepository, times(2)).findViewsAfter(any(), any());
+        } finally {
+            rebuiltIndex.shutdown();
+        }
+    }
+
+    @Test
+    void reloadsAfterBulkChangesWithoutHoldingUpPublishers() throws InterruptedException {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findViewsByUserIdAfter(eq(1L), eq(0L), any())).thenAnswer(invocation -> {
+            reading.countDown();
+            release.await();
+            return List.of(product(5L, 1L, "Imported laptop", null), product(6L, 1L, "Imported mouse", null));
+        });
+        ProductSearchIndex bulkIndex = new ProductSearchIndex(productRepository, true, 100);
+        bulkIndex.onProductChanged(ProductChangedEvent.created(product(1L, 1L, "Laptop", null)));
+
+        try {
+            bulkIndex.onProductChanged(ProductChangedEvent.bulkChanged(1L));
+            assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // While the reload reads: other users go on, the user's own changes are replayed on the new index
+            bulkIndex.onProductChanged(ProductChangedEvent.created(product(7L, 2L, "Laptop", null)));
+            bulkIndex.onProductChanged(ProductChangedEvent.deleted(product(6L, 1L, "Imported mouse", null)));
+            assertThat(ids(bulkIndex.search(2L, "laptop", 0, 10))).containsExactly(7L);
+            assertThat(ids(bulkIndex.search(1L, "laptop", 0, 10))).containsExactly(1L);
+
+            release.countDown();
+            awaitIds(bulkIndex, "imported", List.of(5L));
+            assertThat(ids(bulkIndex.search(1L, "laptop", 0, 10))).containsExactly(5L);
+        } finally {
+            release.countDown();
+            bulkIndex.shutdown();
+        }
+    }
+
+    @Test
+    void failedReloadKeepsThePreviousIndex() throws InterruptedException {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findViewsByUserIdAfter(any(), any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("database gone"));
+        ProductSearchIndex bulkIndex = new ProductSearchIndex(productRepository, true, 100);
+        bulkIndex.onProductChanged(ProductChangedEvent.created(product(1L, 1L, "Laptop", null)));
+
+        try {
+            bulkIndex.onProductChanged(ProductChangedEvent.bulkChanged(1L));
+            verify(productRepository, timeout(5000)).findViewsByUserIdAfter(any(), any(), any());
+
+            assertThat(ids(bulkIndex.search(1L, "laptop", 0, 10))).containsExactly(1L);
+        } finally {
+            bulkIndex.shutdown();
+        }
+    }
+
+    private static void awaitIds(ProductSearchIndex index, String query, List<Long> expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!ids(index.search(1L, query, 0, 10)).equals(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(ids(index.search(1L, query, 0, 10))).isEqualTo(expected);
+    }
+
+    private static ProductView product(Long id, Long userId, String name, String description) {
+        return new ProductView(id, name, description, 1, BigDecimal.ONE, "default.png", userId, "user" + userId, 0);
+    }
+
+    private static List<Long> ids(ProductSearchResult result) {
+        return result.getItems().stream().map(ProductView::getId).toList();
+    }
+}
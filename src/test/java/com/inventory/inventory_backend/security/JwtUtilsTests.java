@@ -0,0 +1,73 @@
+package com.inventory.inventory_backend.security;
+
+import com.inventory.inventory_backend.model.ERole;
+import com.inventory.inventory_backend.model.User;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilsTests {
+
+    private final TokenDenylist denylist = new TokenDenylist(Duration.ofDays(1), 1000);
+    private final JwtUtils jwtUtils = new JwtUtils(denylist, Duration.ofDays(1), true);
+
+    private final User user = User.builder()
+            .id(42L).username("alice").email("alice@example.com").password("hash").role(ERole.ROLE_ADMIN).build();
+
+    @Test
+    void buildsPrincipalFromCompactClaims() {
+        UserDetailsImpl principal = jwtUtils.principalFromClaims(jwtUtils.parseClaims(jwtUtils.generateToken(user)));
+
+        assertThat(principal.getId()).isEqualTo(42L);
+        assertThat(principal.getUsername()).isEqualTo("alice");
+        assertThat(principal.getPassword()).isNull();
+        assertThat(principal.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void fallsBackToLookupWithoutCompactClaims() {
+        Claims subjectOnly = jwtUtils.parseClaims(jwtUtils.generateToken("alice@example.com"));
+        assertThat(subjectOnly.getSubject()).isEqualTo("alice@example.com");
+        assertThat(jwtUtils.principalFromClaims(subjectOnly)).isNull();
+
+        JwtUtils disabled = new JwtUtils(denylist, Duration.ofDays(1), false);
+        Claims claims = disabled.parseClaims(disabled.generateToken(user));
+        assertThat(claims.get(JwtUtils.CLAIM_USER_ID)).isNull();
+        assertThat(disabled.principalFromClaims(claims)).isNull();
+    }
+
+    @Test
+    void rejectsTamperedAndForeignTokens() {
+        String token = jwtUtils.generateToken(user);
+        String otherKey = new JwtUtils(denylist, Duration.ofDays(1), true).generateToken(user);
+
+        assertThat(jwtUtils.parseClaims(token.substring(0, token.length() - 2) + "xx")).isNull();
+        assertThat(jwtUtils.parseClaims(otherKey)).isNull();
+        assertThat(jwtUtils.parseClaims("not-a-token")).isNull();
+    }
+
+    @Test
+    void logoutRevokesOnlyThatToken() {
+        String first = jwtUtils.generateToken(user);
+        String second = jwtUtils.generateToken(user);
+
+        jwtUtils.revoke(jwtUtils.parseClaims(first));
+
+        assertThat(jwtUtils.parseClaims(first)).isNull();
+        assertThat(jwtUtils.parseClaims(second)).isNotNull();
+    }
+
+    @Test
+    void userRevocationRejectsTokensIssuedBefore() {
+        denylist.revokeUser(42L);
+
+        assertThat(denylist.isRevoked("any", 42L, Instant.now().minusSeconds(5))).isTrue();
+        assertThat(denylist.isRevoked("any", 7L, Instant.now().minusSeconds(5))).isFalse();
+        // Issued in the same second as the change (e.g. a login right after it)
+        assertThat(jwtUtils.parseClaims(jwtUtils.generateToken(user))).isNotNull();
+    }
+}
@@ -0,0 +1,64 @@
+package com.inventory.inventory_backend.security;
+
+import com.inventory.inventory_backend.exception.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleTests {
+
+    private final AtomicLong clock = new AtomicLong();
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        throttle = new LoginThrottle(
+                new LoginThrottle.BucketSpec(3, Duration.ofSeconds(10)),
+                new LoginThrottle.BucketSpec(5, Duration.ofSeconds(1)),
+                1000, clock::get);
+    }
+
+    @Test
+    void limitsAttemptsPerEmailIgnoringCase() {
+        throttle.acquire("a@example.com", "10.0.0.1");
+        throttle.acquire("A@example.com", "10.0.0.2");
+        throttle.acquire("a@EXAMPLE.com", "10.0.0.3");
+
+        assertThatThrownBy(() -> throttle.acquire("a@example.com", "10.0.0.4"))
+                .isInstanceOfSatisfying(TooManyRequestsException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(10));
+
+        assertThatCode(() -> throttle.acquire("b@example.com", "10.0.0.4")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void limitsAttemptsPerClientAcrossEmails() {
+        for (int i = 0; i < 5; i++) {
+            throttle.acquire("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> throttle.acquire("other@example.com", "10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void refillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("a@example.com", "10.0.0." + i);
+        }
+        assertThatThrownBy(() -> throttle.acquire("a@example.com", "10.0.0.9"))
+                .isInstanceOf(TooManyRequestsException.class);
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertThatCode(() -> throttle.acquire("a@example.com", "10.0.0.9")).doesNotThrowAnyException();
+        assertThatThrownBy(() -> throttle.acquire("a@example.com", "10.0.0.9"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+}
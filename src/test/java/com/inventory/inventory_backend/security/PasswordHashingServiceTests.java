@@ -0,0 +1,91 @@
+package com.inventory.inventory_backend.security;
+
+import com.inventory.inventory_backend.exception.TooManyRequestsException;
+import com.inventory.inventory_backend.metrics.StageMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHashingServiceTests {
+
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void verifiesAndDetectsChangedWorkFactor() {
+        service = new PasswordHashingService(new BCryptPasswordEncoder(5), new StageMetrics(new SimpleMeterRegistry()),
+                5, 1, 4, Duration.ofSeconds(5));
+
+        String hash = service.encode("secret");
+        assertThat(service.matches("secret", hash)).isTrue();
+        assertThat(service.matches("wrong", hash)).isFalse();
+
+        assertThat(service.needsRehash(hash)).isFalse();
+        assertThat(service.needsRehash(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(service.needsRehash(new BCryptPasswordEncoder(6).encode("secret"))).isTrue();
+    }
+
+    @Test
+    void rejectsWithTooManyRequestsWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        // One worker and a queue of one: two calls are accepted, the third is rejected at once
+        service = new PasswordHashingService(blocking, new StageMetrics(new SimpleMeterRegistry()),
+                4, 1, 1, Duration.ofSeconds(10));
+
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        List<Future<Boolean>> accepted = new ArrayList<>();
+        accepted.add(callers.submit(() -> service.matches("a", "x")));
+        accepted.add(callers.submit(() -> service.matches("b", "x")));
+
+        while (service.getQueueDepth() < 1) {
+            Thread.sleep(5);
+        }
+
+        AtomicReference<Throwable> rejected = new AtomicReference<>();
+        long start = System.nanoTime();
+        try {
+            service.matches("c", "x");
+        } catch (TooManyRequestsException e) {
+            rejected.set(e);
+        }
+
+        assertThat(rejected.get()).isInstanceOf(TooManyRequestsException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+
+        release.countDown();
+        for (Future<Boolean> future : accepted) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+        callers.shutdownNow();
+    }
+}
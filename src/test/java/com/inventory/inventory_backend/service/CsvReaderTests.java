@@ -0,0 +1,60 @@
+package com.inventory.inventory_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTests {
+
+    @Test
+    void readsPlainRecordsAndEmptyFields() throws IOException {
+        assertThat(records("name,quantity,price\nLaptop,5,999.00\n,,\n")).containsExactly(
+                List.of("name", "quantity", "price"),
+                List.of("Laptop", "5", "999.00"),
+                List.of("", "", ""));
+    }
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        assertThat(records("\"Desk, oak\",\"The \"\"big\"\" one\",\"two\r\nlines\"\n\"\",x\n")).containsExactly(
+                List.of("Desk, oak", "The \"big\" one", "two\r\nlines"),
+                List.of("", "x"));
+    }
+
+    @Test
+    void acceptsCrLfCrAndLfLineEndings() throws IOException {
+        assertThat(records("a,b\r\nc,d\re,f\ng,h")).containsExactly(
+                List.of("a", "b"), List.of("c", "d"), List.of("e", "f"), List.of("g", "h"));
+    }
+
+    @Test
+    void quoteInsideAnUnquotedFieldIsKept() throws IOException {
+        assertThat(records("12\" screen,5\n")).containsExactly(List.of("12\" screen", "5"));
+    }
+
+    @Test
+    void rejectsAnUnterminatedQuotedField() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("name\n\"Laptop,5\n"));
+        reader.readRecord();
+
+        assertThatThrownBy(reader::readRecord)
+                .isInstanceOf(IOException.class)
+                .hasMessage("Unterminated quoted field");
+    }
+
+    private static List<List<String>> records(String csv) throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(csv));
+        List<List<String>> records = new ArrayList<>();
+        List<String> record;
+        while ((record = reader.readRecord()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,145 @@
+package com.inventory.inventory_backend.service;
+
+import com.inventory.inventory_backend.JpaTestConfiguration;
+import com.inventory.inventory_backend.dto.InventorySummaryResponse;
+import com.inventory.inventory_backend.dto.ProductValue;
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.exception.FieldValidationException;
+import com.inventory.inventory_backend.model.ERole;
+import com.inventory.inventory_backend.model.Product;
+import com.inventory.inventory_backend.model.User;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import com.inventory.inventory_backend.repository.UserRepository;
+import com.inventory.inventory_backend.summary.InventoryRollup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@Import({InventorySummaryService.class, InventoryRollup.class})
+class InventorySummaryServiceTests {
+
+    @Autowired
+    private InventorySummaryService summaryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("summary").email("summary@example.com").password("x").role(ERole.ROLE_USER).build());
+    }
+
+    @Test
+    void databaseAggregatesMatchTheProducts() {
+        createProduct("Laptop", 3, "1500.00");
+        createProduct("Mouse", 40, "25.50");
+        createProduct("Cable", 0, "4.99");
+
+        InventorySummaryResponse summary = summaryService.fromDatabase(user.getId(), 5, 2);
+
+        assertThat(summary.getSkus()).isEqualTo(3);
+        assertThat(summary.getUnits()).isEqualTo(43);
+        assertThat(summary.getTotalValue()).isEqualByComparingTo("5520.00");
+        assertThat(summary.getLowStockCount()).isEqualTo(2);
+        assertThat(summary.getTopByValue()).extracting(ProductValue::getName).containsExactly("Laptop", "Mouse");
+    }
+
+    @Test
+    void emptyInventorySummarizesToZero() {
+        InventorySummaryResponse summary = summaryService.fromDatabase(user.getId(), 5, 5);
+
+        assertThat(summary.getSkus()).isZero();
+        assertThat(summary.getUnits()).isZero();
+        assertThat(summary.getTotalValue()).isEqualByComparingTo("0");
+        assertThat(summary.getTopByValue()).isEmpty();
+    }
+
+    @Test
+    void rollupFollowsProductChanges() {
+        Product laptop = createProduct("Laptop", 3, "1500.00");
+        Product mouse = createProduct("Mouse", 40, "25.50");
+        createProduct("Cable", 0, "4.99");
+
+        // Loads the rollup
+        assertSameTotals(summaryService.summarize(user.getId(), null, 3));
+
+        ProductView laptopBefore = view(laptop);
+        laptop.setQuantity(10);
+        laptop.setPrice(new BigDecimal("1400.00"));
+        productRepository.save(laptop);
+        ProductView laptopAfter = view(laptop);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(laptopBefore, laptopAfter));
+
+        ProductView mouseView = view(mouse);
+        productRepository.delete(mouse);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(mouseView));
+
+        Product dock = createProduct("Dock", 2, "300.00");
+        eventPublisher.publishEvent(ProductChangedEvent.created(view(dock)));
+
+        // Late events are ignored: an older version of the laptop, an update of the deleted mouse
+        eventPublisher.publishEvent(ProductChangedEvent.updated(laptopBefore, laptopBefore));
+        eventPublisher.publishEvent(ProductChangedEvent.updated(mouseView, mouseView));
+
+        InventorySummaryResponse summary = summaryService.summarize(user.getId(), null, 3);
+        assertThat(summary.getSource()).isEqualTo("rollup");
+        assertThat(summary.getTopByValue()).extracting(ProductValue::getName).containsExactly("Laptop", "Dock", "Cable");
+        assertSameTotals(summary);
+    }
+
+    @Test
+    void otherThresholdsUseTheDatabase() {
+        createProduct("Laptop", 8, "1500.00");
+
+        InventorySummaryResponse summary = summaryService.summarize(user.getId(), 10, null);
+
+        assertThat(summary.getSource()).isEqualTo("database");
+        assertThat(summary.getLowStockCount()).isEqualTo(1);
+        assertThatThrownBy(() -> summaryService.summarize(user.getId(), null, 1000))
+                .isInstanceOf(FieldValidationException.class);
+    }
+
+    private void assertSameTotals(InventorySummaryResponse summary) {
+        InventorySummaryResponse expected = summaryService.fromDatabase(user.getId(), summary.getLowStockThreshold(),
+                summary.getTopByValue().size());
+
+        assertThat(summary.getSkus()).isEqualTo(expected.getSkus());
+        assertThat(summary.getUnits()).isEqualTo(expected.getUnits());
+        assertThat(summary.getTotalValue()).isEqualByComparingTo(expected.getTotalValue());
+        assertThat(summary.getLowStockCount()).isEqualTo(expected.getLowStockCount());
+        assertThat(summary.getTopByValue()).extracting(ProductValue::getId)
+                .containsExactlyElementsOf(expected.getTopByValue().stream().map(ProductValue::getId).toList());
+    }
+
+    private Product createProduct(String name, int quantity, String price) {
+        return productRepository.save(Product.builder()
+                .name(name).quantity(quantity).price(new BigDecimal(price)).imageName("default.png").user(user).build());
+    }
+
+    private ProductView view(Product product) {
+        return productRepository.findViewById(product.getId()).orElseThrow();
+    }
+}
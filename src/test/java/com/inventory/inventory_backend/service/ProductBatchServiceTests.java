@@ -0,0 +1,175 @@
+package com.inventory.inventory_backend.service;
+
+import com.inventory.inventory_backend.JpaTestConfiguration;
+import com.inventory.inventory_backend.config.ImageStoreConfig;
+import com.inventory.inventory_backend.dto.ProductBatchReport;
+import com.inventory.inventory_backend.dto.ProductBatchUpdateRequest;
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.exception.FieldValidationException;
+import com.inventory.inventory_backend.metrics.StageMetrics;
+import com.inventory.inventory_backend.model.ERole;
+import com.inventory.inventory_backend.model.Product;
+import com.inventory.inventory_backend.model.User;
+import com.inventory.inventory_backend.repository.ImageDeletionRepository;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import com.inventory.inventory_backend.repository.UserRepository;
+import com.inventory.inventory_backend.storage.BlockingIoExecutor;
+import com.inventory.inventory_backend.storage.ImageStorageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@Import({ProductBatchService.class, ImageStoreConfig.class, ImageStorageService.class, BlockingIoExecutor.class,
+        StageMetrics.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = {
+        "inventory.products.batch.max-size=50",
+        "inventory.products.batch.chunk-size=4",
+        "inventory.products.batch.bulk-event-threshold=10"
+})
+@RecordApplicationEvents
+class ProductBatchServiceTests {
+
+    @Autowired
+    private ProductBatchService batchService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ImageDeletionRepository imageDeletionRepository;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private User user;
+    private User otherUser;
+
+    @BeforeEach
+    void setUp() {
+        user = createUser("batch");
+        otherUser = createUser("other");
+    }
+
+    @Test
+    void updatesOwnedProductsAndReportsEachId() {
+        Product first = createProduct(user, "First", "legacy.jpg");
+        Product second = createProduct(user, "Second", "default.png");
+        Product foreign = createProduct(otherUser, "Foreign", "default.png");
+
+        ProductBatchReport report = batchService.update(user.getId(), List.of(
+                new ProductBatchUpdateRequest.Item(first.getId(), null, null, null, new BigDecimal("19.99")),
+                new ProductBatchUpdateRequest.Item(second.getId(), "Second renamed", null, 7, null),
+                new ProductBatchUpdateRequest.Item(foreign.getId(), null, null, 0, null),
+                new ProductBatchUpdateRequest.Item(first.getId(), null, null, 99, null),
+                new ProductBatchUpdateRequest.Item(404L, null, null, 1, null),
+                new ProductBatchUpdateRequest.Item(second.getId() + 1000, null, null, null, null)));
+
+        assertThat(report.getResults()).extracting(ProductBatchReport.Result::getStatus).containsExactly(
+                ProductBatchReport.Status.UPDATED, ProductBatchReport.Status.UPDATED, ProductBatchReport.Status.NOT_FOUND,
+                ProductBatchReport.Status.DUPLICATE, ProductBatchReport.Status.NOT_FOUND, ProductBatchReport.Status.NO_CHANGES);
+        assertThat(report.getSucceeded()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(4);
+
+        ProductView firstAfter = view(first);
+        assertThat(firstAfter.getPrice()).isEqualByComparingTo("19.99");
+        assertThat(firstAfter.getQuantity()).isEqualTo(5);
+        assertThat(firstAfter.getName()).isEqualTo("First");
+        assertThat(firstAfter.getVersion()).isEqualTo(first.getVersion() + 1);
+        assertThat(view(second).getName()).isEqualTo("Second renamed");
+        assertThat(view(foreign).getQuantity()).isEqualTo(5);
+
+        assertThat(events.stream(ProductChangedEvent.class))
+                .extracting(ProductChangedEvent::getType, ProductChangedEvent::getProductId)
+                .containsExactly(
+                        tuple(ProductChangedEvent.Type.UPDATED, first.getId()),
+                        tuple(ProductChangedEvent.Type.UPDATED, second.getId()));
+    }
+
+    @Test
+    void deletesOwnedProductsAndQueuesTheirImages() {
+        Product first = createProduct(user, "First", "legacy.jpg");
+        Product second = createProduct(user, "Second", "default.png");
+        Product foreign = createProduct(otherUser, "Foreign", "default.png");
+
+        ProductBatchReport report = batchService.delete(user.getId(),
+                List.of(second.getId(), foreign.getId(), first.getId(), second.getId()));
+
+        assertThat(report.getResults()).extracting(ProductBatchReport.Result::getStatus).containsExactly(
+                ProductBatchReport.Status.DELETED, ProductBatchReport.Status.NOT_FOUND,
+                ProductBatchReport.Status.DELETED, ProductBatchReport.Status.DUPLICATE);
+        assertThat(productRepository.findViewById(first.getId())).isEmpty();
+        assertThat(productRepository.findViewById(second.getId())).isEmpty();
+        assertThat(productRepository.findViewById(foreign.getId())).isPresent();
+
+        // Only the uploaded image, never the shared placeholder
+        assertThat(imageDeletionRepository.findAll()).extracting("imageName").containsExactly("legacy.jpg");
+        assertThat(events.stream(ProductChangedEvent.class)).hasSize(2)
+                .allMatch(event -> event.getType() == ProductChangedEvent.Type.DELETED);
+    }
+
+    @Test
+    void largeBatchesSpanChunksAndPublishOneBulkEvent() {
+        List<ProductBatchUpdateRequest.Item> items = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            Product product = createProduct(user, "Product " + i, "default.png");
+            items.add(new ProductBatchUpdateRequest.Item(product.getId(), null, null, i, null));
+        }
+
+        ProductBatchReport report = batchService.update(user.getId(), items);
+
+        assertThat(report.getSucceeded()).isEqualTo(15);
+        assertThat(productRepository.findViewsByUserId(user.getId())).extracting(ProductView::getQuantity)
+                .containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14);
+        assertThat(events.stream(ProductChangedEvent.class)).singleElement()
+                .extracting(ProductChangedEvent::getType).isEqualTo(ProductChangedEvent.Type.BULK_CHANGED);
+    }
+
+    @Test
+    void rejectsOversizedBatches() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 51; id++) {
+            ids.add(id);
+        }
+
+        assertThatThrownBy(() -> batchService.delete(user.getId(), ids))
+                .isInstanceOf(FieldValidationException.class)
+                .hasMessageContaining("At most 50");
+    }
+
+    private User createUser(String name) {
+        return userRepository.save(User.builder()
+                .username(name).email(name + "@example.com").password("x").role(ERole.ROLE_USER).build());
+    }
+
+    private Product createProduct(User owner, String name, String imageName) {
+        return productRepository.saveAndFlush(Product.builder()
+                .name(name).quantity(5).price(new BigDecimal("10.00")).imageName(imageName).user(owner).build());
+    }
+
+    private ProductView view(Product product) {
+        return productRepository.findViewById(product.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,166 @@
+package com.inventory.inventory_backend.service;
+
+import com.inventory.inventory_backend.JpaTestConfiguration;
+import com.inventory.inventory_backend.dto.ProductImportReport;
+import com.inventory.inventory_backend.dto.ProductView;
+import com.inventory.inventory_backend.event.ProductChangedEvent;
+import com.inventory.inventory_backend.exception.FieldValidationException;
+import com.inventory.inventory_backend.model.ERole;
+import com.inventory.inventory_backend.model.User;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import com.inventory.inventory_backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@Import({ProductImportService.class, ProductImportServiceTests.Beans.class})
+@TestPropertySource(properties = {
+        "inventory.import.batch-size=2",
+        "inventory.import.max-reported-errors=3"
+})
+@RecordApplicationEvents
+class ProductImportServiceTests {
+
+    @TestConfiguration
+    static class Beans {
+        @Bean
+        JsonMapper jsonMapper() {
+            return new JsonMapper();
+        }
+
+        @Bean
+        LocalValidatorFactoryBean validator() {
+            return new LocalValidatorFactoryBean();
+        }
+    }
+
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("importer").email("importer@example.com").password("x").role(ERole.ROLE_USER).build());
+    }
+
+    @Test
+    void importsValidCsvRowsAndReportsEachInvalidOne() throws IOException {
+        ProductImportReport report = importCsv("""
+                Price,Name,Quantity,Description\r
+                999.00,Laptop,5,"15"", with a dock"\r
+                \r
+                10.00,Mouse,many,\r
+                abc,Cable,3,\r
+                5.00,,1,\r
+                0.50,Pen,-1,\r
+                2.50,Notebook,10,"ruled,
+                80 pages"\r
+                1.00,Eraser, 7 ,\r
+                """);
+
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getFailed()).isEqualTo(4);
+        // Rows counted without the header and the blank line
+        assertThat(report.getErrors())
+                .extracting(ProductImportReport.RowError::getRow, ProductImportReport.RowError::getField,
+                        ProductImportReport.RowError::getMessage)
+                .containsExactly(
+                        tuple(2L, "quantity", "Quantity must be a whole number"),
+                        tuple(3L, "price", "Price must be a number"),
+                        tuple(4L, "name", "Product name is required"));
+        assertThat(report.isErrorsTruncated()).isTrue();
+
+        assertThat(productRepository.findViewsByUserId(user.getId()))
+                .extracting(ProductView::getName, ProductView::getDescription, ProductView::getQuantity)
+                .containsExactly(
+                        tuple("Laptop", "15\", with a dock", 5),
+                        tuple("Notebook", "ruled,\n80 pages", 10),
+                        tuple("Eraser", null, 7));
+        assertThat(productRepository.findViewsByUserId(user.getId()))
+                .extracting(ProductView::getPrice)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("999.00"), new BigDecimal("2.50"), new BigDecimal("1.00"));
+        assertThat(events.stream(ProductChangedEvent.class)).singleElement()
+                .extracting(ProductChangedEvent::getType).isEqualTo(ProductChangedEvent.Type.BULK_CHANGED);
+    }
+
+    @Test
+    void rejectsCsvWithoutARequiredColumn() {
+        assertThatThrownBy(() -> importCsv("name,quantity\nLaptop,5\n"))
+                .isInstanceOf(FieldValidationException.class)
+                .hasMessageContaining("'price'");
+        assertThat(productRepository.findViewsByUserId(user.getId())).isEmpty();
+    }
+
+    @Test
+    void importsNdjsonAndReportsMalformedLines() throws IOException {
+        ProductImportReport report = importProducts(ProductImportService.Format.NDJSON, """
+                {"name":"Laptop","quantity":5,"price":"999.00"}
+                {"name":"Mouse",
+                ["not","an","object"]
+
+                {"name":"Cable","quantity":"3","price":4.5,"description":"USB-C"}
+                """);
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getErrors())
+                .extracting(ProductImportReport.RowError::getRow, ProductImportReport.RowError::getMessage)
+                .containsExactly(tuple(2L, "Row is not valid JSON"), tuple(3L, "Row must be a JSON object"));
+        assertThat(report.isErrorsTruncated()).isFalse();
+        assertThat(productRepository.findViewsByUserId(user.getId()))
+                .extracting(ProductView::getName, ProductView::getDescription)
+                .containsExactly(tuple("Laptop", null), tuple("Cable", "USB-C"));
+    }
+
+    @Test
+    void nothingImportedPublishesNoEvent() throws IOException {
+        ProductImportReport report = importCsv("name,quantity,price\nLaptop,-5,999.00\n");
+
+        assertThat(report.getImported()).isZero();
+        assertThat(report.getErrors()).extracting(ProductImportReport.RowError::getField).containsExactly("quantity");
+        assertThat(events.stream(ProductChangedEvent.class)).isEmpty();
+    }
+
+    private ProductImportReport importCsv(String csv) throws IOException {
+        return importProducts(ProductImportService.Format.CSV, csv);
+    }
+
+    private ProductImportReport importProducts(ProductImportService.Format format, String content) throws IOException {
+        return importService.importProducts(user.getId(), format,
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
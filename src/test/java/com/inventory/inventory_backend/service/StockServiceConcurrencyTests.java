@@ -0,0 +1,189 @@
+package com.inventory.inventory_backend.service;
+
+import com.inventory.inventory_backend.JpaTestConfiguration;
+import com.inventory.inventory_backend.dto.StockReservationRequest;
+import com.inventory.inventory_backend.exception.ConflictException;
+import com.inventory.inventory_backend.model.ERole;
+import com.inventory.inventory_backend.model.Product;
+import com.inventory.inventory_backend.model.User;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import com.inventory.inventory_backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Hammers the stock endpoints' service from many threads, every adjustment must be applied exactly once.
+// Not transactional itself so each service call commits like it does in production.
+@DataJpaTest
+@ActiveProfiles("test")
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@Import({StockService.class, StockDeltaAccumulator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "inventory.stock.accumulator.enabled=true",
+        "inventory.stock.accumulator.hot-threshold=5",
+        "inventory.stock.accumulator.flush-interval-ms=3600000"
+})
+class StockServiceConcurrencyTests {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockDeltaAccumulator accumulator;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentIncrementsAndDecrementsLoseNoUpdate() throws Exception {
+        User user = createUser();
+        Product product = createProduct(user, 10_000);
+
+        // 2000 increments of 3 and 2000 decrements of 2
+        runConcurrently(4000, i -> {
+            if (i % 2 == 0) {
+                stockService.increment(user.getId(), product.getId(), 3);
+            } else {
+                stockService.decrement(user.getId(), product.getId(), 2);
+            }
+        });
+        accumulator.flush(List.of(product.getId()));
+
+        assertThat(quantityOf(product)).isEqualTo(10_000 + 2000 * 3 - 2000 * 2);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getVersion()).isPositive();
+    }
+
+    @Test
+    void decrementsNeverOversell() throws Exception {
+        User user = createUser();
+        Product product = createProduct(user, 100);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(500, i -> {
+            try {
+                stockService.decrement(user.getId(), product.getId(), 1);
+                sold.incrementAndGet();
+            } catch (ConflictException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertThat(sold.get()).isEqualTo(100);
+        assertThat(rejected.get()).isEqualTo(400);
+        assertThat(quantityOf(product)).isZero();
+    }
+
+    @Test
+    void coalescedIncrementsReachExactTotalWithConcurrentFlushes() throws Exception {
+        User user = createUser();
+        Product product = createProduct(user, 0);
+
+        // Make the product hot so later increments are buffered
+        for (int i = 0; i < 5; i++) {
+            stockService.increment(user.getId(), product.getId(), 1);
+        }
+        accumulator.flush();
+
+        AtomicInteger coalesced = new AtomicInteger();
+        runConcurrently(5000, i -> {
+            if (i % 500 == 0) {
+                accumulator.flush();
+            }
+            if (stockService.increment(user.getId(), product.getId(), 1).isCoalesced()) {
+                coalesced.incrementAndGet();
+            }
+        });
+        accumulator.flush();
+
+        assertThat(coalesced.get()).isPositive();
+        assertThat(accumulator.hasPending(product.getId())).isFalse();
+        assertThat(quantityOf(product)).isEqualTo(5 + 5000);
+    }
+
+    @Test
+    void reservationIsAllOrNothing() {
+        User user = createUser();
+        Product first = createProduct(user, 10);
+        Product second = createProduct(user, 1);
+
+        List<StockReservationRequest.Item> items = List.of(
+                new StockReservationRequest.Item(first.getId(), 4),
+                new StockReservationRequest.Item(second.getId(), 2));
+
+        assertThatThrownBy(() -> stockService.reserve(user.getId(), items)).isInstanceOf(ConflictException.class);
+        assertThat(quantityOf(first)).isEqualTo(10);
+        assertThat(quantityOf(second)).isEqualTo(1);
+
+        stockService.reserve(user.getId(), List.of(
+                new StockReservationRequest.Item(first.getId(), 4),
+                new StockReservationRequest.Item(second.getId(), 1)));
+        assertThat(quantityOf(first)).isEqualTo(6);
+        assertThat(quantityOf(second)).isZero();
+    }
+
+    private void runConcurrently(int tasks, IntTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int quantityOf(Product product) {
+        return productRepository.findViewById(product.getId()).orElseThrow().getQuantity();
+    }
+
+    private User createUser() {
+        String name = "stock-" + UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(User.builder()
+                .username(name).email(name + "@example.com").password("x").role(ERole.ROLE_USER).build());
+    }
+
+    private Product createProduct(User user, int quantity) {
+        return productRepository.save(Product.builder()
+                .name("Scanner stock").quantity(quantity).price(BigDecimal.TEN).imageName("default.png").user(user).build());
+    }
+
+    private interface IntTask {
+        void run(int index) throws Exception;
+    }
+}
@@ -0,0 +1,237 @@
+package com.inventory.inventory_backend.storage;
+
+import com.inventory.inventory_backend.JpaTestConfiguration;
+import com.inventory.inventory_backend.config.ImageStoreConfig;
+import com.inventory.inventory_backend.metrics.StageMetrics;
+import com.inventory.inventory_backend.model.ERole;
+import com.inventory.inventory_backend.model.ImageBlob;
+import com.inventory.inventory_backend.model.Product;
+import com.inventory.inventory_backend.model.User;
+import com.inventory.inventory_backend.repository.ImageBlobRepository;
+import com.inventory.inventory_backend.repository.ImageDeletionRepository;
+import com.inventory.inventory_backend.repository.ProductRepository;
+import com.inventory.inventory_backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Not transactional itself, image references are released and collected in committed transactions
+@DataJpaTest
+@ActiveProfiles("test")
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@Import({ImageStoreConfig.class, ImageStorageService.class, ImageVariantService.class, ImageGarbageCollector.class,
+        BlockingIoExecutor.class, StageMetrics.class, ImageGarbageCollectorTests.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "inventory.images.upload-dir=" + ImageGarbageCollectorTests.UPLOAD_DIR)
+class ImageGarbageCollectorTests {
+
+    static final String UPLOAD_DIR = "target/test-uploads/gc";
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private ImageGarbageCollector collector;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    private ImageDeletionRepository imageDeletionRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Path uploadDir = Path.of(UPLOAD_DIR);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileSystemUtils.deleteRecursively(uploadDir);
+        Files.createDirectories(uploadDir);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageDeletionRepository.deleteAll();
+        imageBlobRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void fileRemovedAfterLastReference() throws IOException {
+        String name = imageStorageService.store(image("shared"));
+        imageStorageService.store(image("shared"));
+        Path variant = createFile(stored("variants/128/" + name.replace(".png", ".jpg")));
+
+        imageStorageService.release(name);
+        assertThat(imageDeletionRepository.count()).isZero();
+
+        imageStorageService.release(name);
+        // Queued, not removed inline
+        assertThat(imageDeletionRepository.count()).isEqualTo(1);
+        assertThat(stored(name)).exists();
+
+        assertThat(collector.collect()).isEqualTo(1);
+        assertThat(stored(name)).doesNotExist();
+        assertThat(variant).doesNotExist();
+        assertThat(imageDeletionRepository.count()).isZero();
+    }
+
+    @Test
+    void uploadedAgainBeforeCollectionKeepsFile() throws IOException {
+        String name = imageStorageService.store(image("again"));
+        imageStorageService.release(name);
+
+        imageStorageService.store(image("again"));
+
+        assertThat(collector.collect()).isZero();
+        assertThat(stored(name)).exists();
+        assertThat(imageBlobRepository.findById(name).orElseThrow().getRefCount()).isEqualTo(1);
+        assertThat(imageDeletionRepository.count()).isZero();
+    }
+
+    @Test
+    void uploadWaitsWhileTheFileIsBeingRemoved() throws Exception {
+        String name = imageStorageService.store(image("claimed"));
+        imageStorageService.release(name);
+        // The collector's claim, as between removing the file and dropping the claim
+        imageBlobRepository.save(claim(name, Instant.now()));
+        Files.delete(stored(name));
+
+        CompletableFuture<String> upload = CompletableFuture.supplyAsync(() -> {
+            try {
+                return imageStorageService.store(image("claimed"));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(300);
+        assertThat(upload).isNotDone();
+
+        imageBlobRepository.deleteById(name);
+        assertThat(upload.get(5, TimeUnit.SECONDS)).isEqualTo(name);
+        assertThat(stored(name)).exists();
+        assertThat(imageBlobRepository.findById(name).orElseThrow().getRefCount()).isEqualTo(1);
+    }
+
+    @Test
+    void claimOfAStoppedNodeIsTakenOver() throws IOException {
+        String name = imageStorageService.store(image("stale"));
+        imageStorageService.release(name);
+        imageBlobRepository.save(claim(name, Instant.now().minus(Duration.ofHours(1))));
+
+        assertThat(collector.collect()).isEqualTo(1);
+        assertThat(stored(name)).doesNotExist();
+        assertThat(imageBlobRepository.existsById(name)).isFalse();
+        assertThat(imageDeletionRepository.count()).isZero();
+    }
+
+    @Test
+    void releaseRolledBackWithTheProductChange() throws IOException {
+        String name = imageStorageService.store(image("rollback"));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            imageStorageService.release(name);
+            status.setRollbackOnly();
+        });
+
+        assertThat(imageBlobRepository.findById(name).orElseThrow().getRefCount()).isEqualTo(1);
+        assertThat(imageDeletionRepository.count()).isZero();
+    }
+
+    @Test
+    void reconciliationRemovesUnreferencedFiles() throws IOException {
+        User user = userRepository.save(User.builder()
+                .username("gc").email("gc@example.com").password("x").role(ERole.ROLE_USER).build());
+        productRepository.save(Product.builder()
+                .name("Legacy").quantity(1).price(BigDecimal.ONE).imageName("legacy-photo.jpg").user(user).build());
+        String stored = imageStorageService.store(image("kept"));
+
+        Path orphan = old(createFile(stored("0".repeat(64) + ".png")));
+        // Stored flat, before sharding
+        Path flatOrphan = old(createFile(uploadDir.resolve("2".repeat(64) + ".png")));
+        Path legacy = old(createFile(uploadDir.resolve("legacy-photo.jpg")));
+        Path leftover = old(createFile(uploadDir.resolve("upload-123.tmp")));
+        Path recent = createFile(uploadDir.resolve("1".repeat(64) + ".png"));
+        Path orphanVariant = old(createFile(uploadDir.resolve("variants/512/gone.jpg")));
+        old(stored(stored));
+
+        assertThat(collector.reconcile()).isEqualTo(2);
+        collector.collect();
+
+        assertThat(orphan).doesNotExist();
+        assertThat(flatOrphan).doesNotExist();
+        assertThat(leftover).doesNotExist();
+        assertThat(orphanVariant).doesNotExist();
+        assertThat(legacy).exists();
+        assertThat(recent).exists();
+        assertThat(stored(stored)).exists();
+    }
+
+    // Where the local store keeps the key, sharded by hash
+    private Path stored(String key) {
+        return ((LocalImageStore) imageStore).resolve(key);
+    }
+
+    private static ImageBlob claim(String name, Instant createdAt) {
+        return ImageBlob.builder().name(name).size(0).refCount(0).createdAt(createdAt).build();
+    }
+
+    private static MockMultipartFile image(String content) {
+        return new MockMultipartFile("image", "image.png", "image/png", content.getBytes());
+    }
+
+    private static Path createFile(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.write(file, new byte[]{1, 2, 3});
+    }
+
+    private static Path old(Path file) throws IOException {
+        return Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+    }
+}
@@ -0,0 +1,132 @@
+package com.inventory.inventory_backend.storage;
+
+import com.inventory.inventory_backend.JpaTestConfiguration;
+import com.inventory.inventory_backend.config.ImageStoreConfig;
+import com.inventory.inventory_backend.metrics.StageMetrics;
+import com.inventory.inventory_backend.model.ImageDeletion;
+import com.inventory.inventory_backend.repository.ImageBlobRepository;
+import com.inventory.inventory_backend.repository.ImageDeletionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@Import({ImageStoreConfig.class, ImageStorageService.class, BlockingIoExecutor.class, StageMetrics.class,
+        SimpleMeterRegistry.class})
+@TestPropertySource(properties = "inventory.images.upload-dir=" + ImageStorageServiceTests.UPLOAD_DIR)
+class ImageStorageServiceTests {
+
+    static final String UPLOAD_DIR = "target/test-uploads/storage";
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @MockitoSpyBean
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    private ImageDeletionRepository imageDeletionRepository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileSystemUtils.deleteRecursively(Path.of(UPLOAD_DIR));
+    }
+
+    @Test
+    void sameContentIsStoredOnceWithAReferencePerUpload() throws IOException {
+        String first = imageStorageService.store(image("same"));
+        String second = imageStorageService.store(image("same"));
+        String other = imageStorageService.store(image("other"));
+
+        assertThat(second).isEqualTo(first).matches("[0-9a-f]{64}\\.png");
+        assertThat(other).isNotEqualTo(first);
+        assertThat(imageBlobRepository.findById(first).orElseThrow().getRefCount()).isEqualTo(2);
+        assertThat(imageBlobRepository.findById(other).orElseThrow().getRefCount()).isEqualTo(1);
+        assertThat(storedKeys()).containsExactlyInAnyOrder(first, other);
+        // Staging files are gone
+        try (var files = Files.list(Path.of(UPLOAD_DIR))) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+    }
+
+    @Test
+    void lastReleaseQueuesTheFileForRemoval() throws IOException {
+        String name = imageStorageService.store(image("released"));
+        imageStorageService.store(image("released"));
+
+        imageStorageService.release(name);
+        assertThat(imageBlobRepository.findById(name).orElseThrow().getRefCount()).isEqualTo(1);
+        assertThat(imageDeletionRepository.count()).isZero();
+
+        imageStorageService.release(name);
+        assertThat(imageBlobRepository.existsById(name)).isFalse();
+        assertThat(imageDeletionRepository.findAll()).extracting(ImageDeletion::getImageName).containsExactly(name);
+        // Removed by the collector, never inline
+        assertThat(storedKeys()).containsExactly(name);
+    }
+
+    @Test
+    void placeholderAndLegacyImagesAreNotCounted() {
+        imageStorageService.release(ImageStorageService.DEFAULT_IMAGE);
+        assertThat(imageDeletionRepository.count()).isZero();
+
+        // Uploaded before content addressing, owned by a single product
+        imageStorageService.release("legacy-photo.jpg");
+        assertThat(imageDeletionRepository.findAll()).extracting(ImageDeletion::getImageName)
+                .containsExactly("legacy-photo.jpg");
+    }
+
+    @Test
+    void failedSaveReleasesTheNewReference() throws IOException {
+        String name = imageStorageService.store(image("kept"));
+        doThrow(new IOException("Store unavailable")).when(imageStore).put(anyString(), any(Path.class));
+
+        // Existing content, the earlier reference stays
+        assertThatThrownBy(() -> imageStorageService.store(image("kept"))).hasMessage("Store unavailable");
+        assertThat(imageBlobRepository.findById(name).orElseThrow().getRefCount()).isEqualTo(1);
+        assertThat(imageDeletionRepository.count()).isZero();
+
+        // New content, nothing references it and whatever was written is queued for removal
+        assertThatThrownBy(() -> imageStorageService.store(image("lost"))).isInstanceOf(IOException.class);
+        assertThat(imageBlobRepository.findAll()).singleElement().extracting("name").isEqualTo(name);
+        assertThat(imageDeletionRepository.count()).isEqualTo(1);
+    }
+
+    private List<String> storedKeys() throws IOException {
+        List<String> keys = new ArrayList<>();
+        imageStore.forEach("", image -> {
+            if (!image.key().startsWith("upload-")) {
+                keys.add(image.key());
+            }
+        });
+        return keys;
+    }
+
+    private static MockMultipartFile image(String content) {
+        return new MockMultipartFile("image", "image.png", "image/png", content.getBytes());
+    }
+}
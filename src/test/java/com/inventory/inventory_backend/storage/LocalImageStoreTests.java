@@ -0,0 +1,100 @@
+package com.inventory.inventory_backend.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalImageStoreTests {
+
+    private static final String HASH = "ab12" + "0".repeat(60);
+
+    @TempDir
+    Path root;
+
+    private LocalImageStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new LocalImageStore(root);
+    }
+
+    @Test
+    void shardsContentAddressedNamesAndTakesOverTheFile() throws IOException {
+        Path upload = staged("image");
+
+        store.put(HASH + ".png", upload);
+
+        assertThat(upload).doesNotExist();
+        assertThat(root.resolve("ab/12/" + HASH + ".png")).hasContent("image");
+        assertThat(store.find(HASH + ".png")).hasValueSatisfying(image -> assertThat(image.size()).isEqualTo(5));
+
+        // Same content uploaded again, the stored file stays
+        Path again = staged("other");
+        store.put(HASH + ".png", again);
+        assertThat(again).doesNotExist();
+        assertThat(root.resolve("ab/12/" + HASH + ".png")).hasContent("image");
+    }
+
+    @Test
+    void findsAndRemovesFilesStoredBeforeSharding() throws IOException {
+        Files.writeString(root.resolve(HASH + ".png"), "flat");
+        Files.writeString(root.resolve("legacy-photo.jpg"), "legacy");
+
+        assertThat(store.find(HASH + ".png")).isPresent();
+        assertThat(store.localFile("legacy-photo.jpg")).contains(root.resolve("legacy-photo.jpg"));
+
+        store.delete(HASH + ".png");
+        assertThat(store.find(HASH + ".png")).isEmpty();
+        assertThat(root.resolve(HASH + ".png")).doesNotExist();
+    }
+
+    @Test
+    void listsKeysWithoutShardDirectories() throws IOException {
+        store.put(HASH + ".png", staged("a"));
+        store.put("variants/128/" + HASH + ".jpg", staged("b"));
+        Files.writeString(root.resolve("legacy-photo.jpg"), "c");
+        Files.writeString(root.resolve("upload-1.tmp"), "d");
+
+        List<String> all = new ArrayList<>();
+        store.forEach("", image -> all.add(image.key()));
+        List<String> variants = new ArrayList<>();
+        store.forEach("variants/", image -> variants.add(image.key()));
+
+        assertThat(all).containsExactlyInAnyOrder(HASH + ".png", "variants/128/" + HASH + ".jpg", "legacy-photo.jpg");
+        assertThat(variants).containsExactly("variants/128/" + HASH + ".jpg");
+    }
+
+    @Test
+    void copiesRanges() throws IOException {
+        store.put(HASH + ".png", staged("0123456789"));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        store.copyTo(HASH + ".png", 2, 5, output);
+
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("23456");
+    }
+
+    @Test
+    void ignoresKeysOutsideTheRoot() throws IOException {
+        LocalImageStore nested = new LocalImageStore(root.resolve("images"));
+        Files.writeString(root.resolve("outside.png"), "x");
+
+        assertThat(nested.find("../outside.png")).isEmpty();
+        nested.delete("../outside.png");
+        assertThat(root.resolve("outside.png")).exists();
+    }
+
+    private Path staged(String content) throws IOException {
+        return Files.writeString(Files.createTempFile(root, "upload-", ".tmp"), content);
+    }
+}